@@ -6,6 +6,8 @@ import android.view.TextureView;
 import java.io.IOException;
 import java.util.Observable;
 
+import es.uva.tfg.hector.SkyWalkerApp.services.CameraIntrinsics;
+
 /**
  * API for camera, Android API Level independent.
  * @author Hector Del Campo Pando
@@ -13,10 +15,15 @@ import java.util.Observable;
 public abstract class Camera extends Observable {
 
     /**
-     * Field of view of the selected camera, and the selected configuration for that camera.
+     * Field of view and projection of the selected camera, with the selected configuration for that camera.
+     */
+    private volatile CameraIntrinsics intrinsics;
+
+    /**
+     * Receiver of the preview frames, and the frame size it asked for.
      */
-    private float fovWidth,
-            fovHeight;
+    private volatile PreviewFrameListener previewFrameListener;
+    private int frameWidth, frameHeight;
 
     /**
      * Creates a new instance of the {@link Camera} following singleton pattern.
@@ -60,7 +67,7 @@ public abstract class Camera extends Observable {
     public abstract void closeCamera();
 
     /**
-     * Retrieves actual field of view and saves it onto fov variable.
+     * Retrieves actual field of view and saves it onto the intrinsics.
      */
     public abstract void evaluateFOV();
 
@@ -72,36 +79,90 @@ public abstract class Camera extends Observable {
      */
     public abstract void transform(int rotation, int width, int height);
 
+    /**
+     * Sets who receives the preview frames, must be set before {@link #startPreview()}.
+     * The frame size is just a hint, the closest one supported by the camera is used.
+     * @param listener to receive the frames, null to stop receiving them.
+     * @param width desired width of the frames.
+     * @param height desired height of the frames.
+     */
+    public void setPreviewFrameListener(PreviewFrameListener listener, int width, int height) {
+        previewFrameListener = listener;
+        frameWidth = width;
+        frameHeight = height;
+    }
+
+    /**
+     * Retrieves who receives the preview frames.
+     * @return the listener, or null if there is none.
+     */
+    PreviewFrameListener getPreviewFrameListener() {
+        return previewFrameListener;
+    }
+
+    /**
+     * Retrieves the desired width of the preview frames.
+     * @return the width in pixels.
+     */
+    int getFrameWidth() {
+        return frameWidth;
+    }
+
+    /**
+     * Retrieves the desired height of the preview frames.
+     * @return the height in pixels.
+     */
+    int getFrameHeight() {
+        return frameHeight;
+    }
+
+    /**
+     * Retrieves camera current intrinsics.
+     * @return the intrinsics, null if not evaluated yet.
+     */
+    public CameraIntrinsics getIntrinsics(){
+        return intrinsics;
+    }
+
     /**
      * Retrieves camera current fov width.
      * @return fov width in degrees.
      */
     public float getFOVWidth(){
-        return fovWidth;
+        final CameraIntrinsics intrinsics = this.intrinsics;
+        return null == intrinsics ? 0 : intrinsics.getFOVWidth();
     }
 
     /**
-     * Retrieves camera current fov width.
-     * @return fov width in degrees.
+     * Retrieves camera current fov height.
+     * @return fov height in degrees.
      */
     public float getFOVHeight(){
-        return fovHeight;
+        final CameraIntrinsics intrinsics = this.intrinsics;
+        return null == intrinsics ? 0 : intrinsics.getFOVHeight();
     }
 
     /**
-     * Setter for field of view width.
-     * @param width on degrees.
+     * Setter for the intrinsics, once per camera session.
+     * @param intrinsics of the camera.
      */
-    void setFOVWidth(float width){
-        fovWidth = width;
+    void setIntrinsics(CameraIntrinsics intrinsics){
+        this.intrinsics = intrinsics;
     }
 
     /**
-     * Setter for field of view height.
-     * @param height on degrees.
+     * Receives the camera's preview frames.
      */
-    void setFOVHeight(float height){
-        fovHeight = height;
+    public interface PreviewFrameListener {
+
+        /**
+         * Called on the camera's thread with every new preview frame.
+         * @param data the frame as a NV21 image, only valid during the call, as its buffer is reused.
+         * @param width of the frame.
+         * @param height of the frame.
+         */
+        void onPreviewFrame(byte[] data, int width, int height);
+
     }
 
 }
@@ -1,6 +1,7 @@
 package es.uva.tfg.hector.SkyWalkerApp.business;
 
 import android.app.Activity;
+import android.graphics.ImageFormat;
 import android.hardware.Camera;
 import android.util.Log;
 import android.view.Surface;
@@ -9,6 +10,9 @@ import android.view.TextureView;
 import java.io.IOException;
 import java.util.List;
 
+import es.uva.tfg.hector.SkyWalkerApp.services.CameraIntrinsics;
+import es.uva.tfg.hector.SkyWalkerApp.services.PreviewSizeSelector;
+
 /**
  * Camera API for Android API 1 or greater
  * @author Hector Del Campo Pando
@@ -16,11 +20,62 @@ import java.util.List;
 @SuppressWarnings("deprecation")
 class Camera1 extends es.uva.tfg.hector.SkyWalkerApp.business.Camera {
 
+    /**
+     * Number of reused preview buffers, one being filled while the other one is handed to the listener.
+     */
+    private static final int FRAME_BUFFERS = 2;
+
     /**
      * {@link android.hardware.Camera} to control.
      */
     private android.hardware.Camera camera;
 
+    /**
+     * Back facing camera ID and its sensor orientation, looked up once as they never change.
+     */
+    private int cameraId = -1, cameraOrientation;
+
+    /**
+     * Supported preview sizes of the camera, read on its first open.
+     */
+    private PreviewSizeSelector sizeSelector;
+
+    /**
+     * Parameters of the open camera, read once per open and kept in sync with the ones set,
+     * as every read is a round trip to the camera service.
+     */
+    private Camera.Parameters parameters;
+
+    /**
+     * Display orientation set on the open camera, -1 if none yet.
+     */
+    private int displayOrientation = -1;
+
+    /**
+     * Reused preview buffers, and the size of the frames they hold.
+     */
+    private final byte[][] frameBuffers = new byte[FRAME_BUFFERS][];
+    private int frameWidth, frameHeight;
+
+    /**
+     * Frames callback, hands the frame to the listener and gives its buffer back to the camera.
+     */
+    private final Camera.PreviewCallback previewCallback = new Camera.PreviewCallback() {
+
+        @Override
+        public void onPreviewFrame(byte[] data, Camera camera) {
+
+            final PreviewFrameListener listener = getPreviewFrameListener();
+            if (null != listener) {
+                listener.onPreviewFrame(data, frameWidth, frameHeight);
+            }
+
+            camera.addCallbackBuffer(data);
+
+        }
+
+    };
+
     @Override
     public void setView(TextureView view) throws IOException {
         camera.setPreviewTexture(view.getSurfaceTexture());
@@ -28,7 +83,29 @@ class Camera1 extends es.uva.tfg.hector.SkyWalkerApp.business.Camera {
 
     @Override
     public void startPreview() {
+
+        // There is a single stream, so frames have the preview's size
+        if (null != getPreviewFrameListener()) {
+            final Camera.Size size = parameters.getPreviewSize();
+            final int bufferSize = size.width * size.height *
+                    ImageFormat.getBitsPerPixel(parameters.getPreviewFormat()) / 8;
+
+            frameWidth = size.width;
+            frameHeight = size.height;
+
+            // A null callback empties the camera's queue, so the buffers are queued just once
+            camera.setPreviewCallbackWithBuffer(null);
+            for (int i = 0; i < FRAME_BUFFERS; i++) {
+                if (null == frameBuffers[i] || frameBuffers[i].length != bufferSize) {
+                    frameBuffers[i] = new byte[bufferSize];
+                }
+                camera.addCallbackBuffer(frameBuffers[i]);
+            }
+            camera.setPreviewCallbackWithBuffer(previewCallback);
+        }
+
         camera.startPreview();
+
     }
 
     @Override
@@ -38,43 +115,55 @@ class Camera1 extends es.uva.tfg.hector.SkyWalkerApp.business.Camera {
 
     @Override
     public void openCamera(Activity activity) {
-        camera = android.hardware.Camera.open(getBackFacingCameraID());
+
+        if (-1 == cameraId) {
+            findBackFacingCamera();
+        }
+
+        camera = android.hardware.Camera.open(cameraId);
+        parameters = camera.getParameters();
+        displayOrientation = -1;
+
+        if (null == sizeSelector) {
+            sizeSelector = createSizeSelector(parameters.getSupportedPreviewSizes());
+        }
+
         evaluateFOV();
+
     }
 
     @Override
     public void closeCamera() {
         if(null != camera) {
+            camera.setPreviewCallbackWithBuffer(null);
             camera.release();
             camera = null;
+            parameters = null;
         }
     }
 
     @Override
     public void evaluateFOV() {
-        Camera.Parameters p = camera.getParameters();
-
-        setFOVWidth(p.getHorizontalViewAngle());
-        setFOVHeight(p.getVerticalViewAngle());
+        // The driver already reports the angles of its configuration
+        setIntrinsics(new CameraIntrinsics(parameters.getHorizontalViewAngle(), parameters.getVerticalViewAngle()));
     }
 
     @Override
     public void transform(int rotation, int width, int height) {
 
-        android.hardware.Camera.CameraInfo info =
-                new android.hardware.Camera.CameraInfo();
-        android.hardware.Camera.getCameraInfo(getBackFacingCameraID(), info);
-
         int degrees = -1;
 
-        // Sets preview size
-        Camera.Parameters parameters = camera.getParameters();
+        // Sets preview size, only if it changed
         final int vheight = Math.max(width, height);
         final int vwidth = Math.min(width, height);
-        Camera.Size size = getOptimalPreviewSize(parameters.getSupportedPreviewSizes(), vwidth, vheight);
+        final int index = sizeSelector.select(vwidth, vheight);
+        final Camera.Size current = parameters.getPreviewSize();
 
-        parameters.setPreviewSize(size.width, size.height);
-        camera.setParameters(parameters);
+        if (-1 != index && (sizeSelector.getWidth(index) != current.width
+                || sizeSelector.getHeight(index) != current.height)) {
+            parameters.setPreviewSize(sizeSelector.getWidth(index), sizeSelector.getHeight(index));
+            camera.setParameters(parameters);
+        }
 
         // Sets rotation
         switch (rotation){
@@ -95,18 +184,19 @@ class Camera1 extends es.uva.tfg.hector.SkyWalkerApp.business.Camera {
                 break;
         }
 
-        int result = (info.orientation - degrees + 360) % 360;
+        int result = (cameraOrientation - degrees + 360) % 360;
 
-        camera.setDisplayOrientation(result);
+        if (result != displayOrientation) {
+            camera.setDisplayOrientation(result);
+            displayOrientation = result;
+        }
 
     }
 
     /**
-     * Retrieves back facing camera ID.
-     * @return the back facing camera ID.
+     * Looks for the back facing camera, saving its ID and orientation.
      */
-    private int getBackFacingCameraID () {
-        int cameraId = -1;
+    private void findBackFacingCamera() {
         int numberOfCameras = Camera.getNumberOfCameras();
 
         for (int i = 0; i < numberOfCameras; i++) {
@@ -114,53 +204,26 @@ class Camera1 extends es.uva.tfg.hector.SkyWalkerApp.business.Camera {
             Camera.getCameraInfo(i, info);
             if (info.facing == Camera.CameraInfo.CAMERA_FACING_BACK) {
                 cameraId = i;
+                cameraOrientation = info.orientation;
                 break;
             }
         }
-
-        return cameraId;
     }
 
     /**
-     * Retrieves optimal camera size
+     * Creates the preview size selector for some supported sizes.
      * @param sizes available sizes
-     * @param w desired width
-     * @param h desired height
-     * @return the optimal {@link android.hardware.Camera.Size}
+     * @return the selector, with no sizes if there are none.
      */
-    private Camera.Size getOptimalPreviewSize(List<Camera.Size> sizes, int w, int h) {
-        final double ASPECT_TOLERANCE = 0.1;
-        double targetRatio=(double)h / w;
-
-        if (sizes == null) return null;
-
-        Camera.Size optimalSize = null;
-        double minDiff = Double.MAX_VALUE;
+    private PreviewSizeSelector createSizeSelector(List<Camera.Size> sizes) {
+        final int count = null == sizes ? 0 : sizes.size();
+        final int[] widths = new int[count], heights = new int[count];
 
-        for (Camera.Size size : sizes) {
-            if (size.width == h && size.height == w) {
-                return size;
-            }
-        }
-
-        for (Camera.Size size : sizes) {
-            double ratio = (double) size.width / size.height;
-            if (Math.abs(ratio - targetRatio) > ASPECT_TOLERANCE) continue;
-            if (Math.abs(size.height - h) < minDiff) {
-                optimalSize = size;
-                minDiff = Math.abs(size.height - h);
-            }
+        for (int i = 0; i < count; i++) {
+            widths[i] = sizes.get(i).width;
+            heights[i] = sizes.get(i).height;
         }
 
-        if (optimalSize == null) {
-            minDiff = Double.MAX_VALUE;
-            for (Camera.Size size : sizes) {
-                if (Math.abs(size.height - h) < minDiff) {
-                    optimalSize = size;
-                    minDiff = Math.abs(size.height - h);
-                }
-            }
-        }
-        return optimalSize;
+        return new PreviewSizeSelector(widths, heights);
     }
 }
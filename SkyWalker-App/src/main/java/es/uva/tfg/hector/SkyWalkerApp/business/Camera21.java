@@ -2,27 +2,35 @@ package es.uva.tfg.hector.SkyWalkerApp.business;
 
 import android.annotation.TargetApi;
 import android.app.Activity;
-import android.content.Context;
+import android.graphics.ImageFormat;
 import android.graphics.Matrix;
+import android.graphics.Rect;
 import android.graphics.RectF;
 import android.graphics.SurfaceTexture;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCaptureSession;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraDevice;
-import android.hardware.camera2.CameraManager;
 import android.hardware.camera2.CameraMetadata;
 import android.hardware.camera2.CaptureRequest;
+import android.hardware.camera2.params.StreamConfigurationMap;
+import android.media.Image;
+import android.media.ImageReader;
 import android.os.Build;
 import android.os.Handler;
-import android.os.HandlerThread;
 import android.support.annotation.NonNull;
 import android.util.Log;
+import android.util.Size;
 import android.util.SizeF;
 import android.view.Surface;
 import android.view.TextureView;
 
-import java.util.Collections;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.CameraIntrinsics;
 
 /**
  * Camera API for Android API 21 or greater
@@ -31,11 +39,6 @@ import java.util.Collections;
 @TargetApi(Build.VERSION_CODES.LOLLIPOP)
 class Camera21 extends Camera {
 
-    /**
-     * Thread debug label.
-     */
-    private static final String BACKGROUND_THREAD = "CameraThread";
-
     /**
      * Selected camera
      */
@@ -49,7 +52,7 @@ class Camera21 extends Camera {
     /**
      * Surface where to show camera's preview.
      */
-    private TextureView texture;
+    private volatile TextureView texture;
 
     /**
      * Preview's builder.
@@ -62,15 +65,41 @@ class Camera21 extends Camera {
     private CameraCaptureSession previewSession;
 
     /**
-     * Additional thread to run tasks without blocking UI.
+     * Size of the preview stream, 0 until the first session.
+     */
+    private int streamWidth, streamHeight;
+
+    /**
+     * Focal length, in millimeters, set on the preview request, 0 until the first session.
+     */
+    private float focalLength;
+
+    /**
+     * Reader of the preview frames, only used if someone listens to them.
      */
-    private HandlerThread backgroundThread;
+    private ImageReader frameReader;
 
     /**
-     * A {@code Handler} for running tasks in the background.
+     * Reused NV21 frame, only the luminance is copied from the camera, the chroma is left gray.
+     */
+    private byte[] frameData;
+
+    /**
+     * Shared background thread and camera characteristics.
+     */
+    private CameraSessionManager sessionManager;
+
+    /**
+     * A {@code Handler} for running tasks in the background, where the camera is only touched.
      */
     private Handler backgroundHandler;
 
+    /**
+     * Whether the camera should be open, and whether the preview should be shown once it is.
+     * Only used on the background thread.
+     */
+    private boolean openRequested, previewRequested;
+
     /**
      * Camera's callback
      */
@@ -78,17 +107,170 @@ class Camera21 extends Camera {
 
         @Override
         public void onOpened(@NonNull CameraDevice camera) {
+
+            // Closed before it finished opening
+            if (!openRequested) {
+                camera.close();
+                return;
+            }
+
             cameraDevice = camera;
-            evaluateFOV();
+
+            // The preview may have been asked for while opening, as it happens on resume
+            if (previewRequested) {
+                createCaptureRequest();
+            }
+
         }
 
         @Override
         public void onDisconnected(@NonNull CameraDevice camera) {
-            closeCamera();
+            release(camera);
         }
 
         @Override
         public void onError(@NonNull CameraDevice camera, int error) {
+            Log.e("Camera 2", "camera error " + error);
+            release(camera);
+        }
+
+        /**
+         * Closes a device that failed, tearing the session down only if it is the current one,
+         * so a late callback from an old device does not close a newer session.
+         * @param camera that failed.
+         */
+        private void release(CameraDevice camera) {
+
+            camera.close();
+
+            if (camera == cameraDevice) {
+                closeTask.run();
+            }
+
+        }
+
+    };
+
+    /**
+     * Shows the preview, if the camera is already open.
+     */
+    private final Runnable startPreviewTask = new Runnable() {
+
+        @Override
+        public void run() {
+
+            previewRequested = true;
+
+            if (null != cameraDevice) {
+                createCaptureRequest();
+            }
+
+        }
+
+    };
+
+    /**
+     * Stops the preview.
+     */
+    private final Runnable stopPreviewTask = new Runnable() {
+
+        @Override
+        public void run() {
+
+            previewRequested = false;
+
+            if (previewSession == null) {
+                return;
+            }
+
+            try {
+                previewSession.stopRepeating();
+                previewSession.abortCaptures();
+            } catch (CameraAccessException e) {
+                e.printStackTrace();
+            } catch (IllegalStateException e) {
+                // The session was already closed by a newer one
+                previewSession = null;
+            }
+
+        }
+
+    };
+
+    /**
+     * Opens the camera.
+     */
+    private final Runnable openTask = new Runnable() {
+
+        @Override
+        public void run() {
+
+            if (openRequested) {
+                return;
+            }
+
+            openRequested = true;
+
+            try {
+                sessionManager.openRearCamera(mStateCallback);
+            } catch (CameraAccessException e) {
+                openRequested = false;
+                e.printStackTrace();
+            }
+
+        }
+
+    };
+
+    /**
+     * Closes the camera, along with its session and frames reader.
+     */
+    private final Runnable closeTask = new Runnable() {
+
+        @Override
+        public void run() {
+
+            openRequested = previewRequested = false;
+
+            closeFrameReader();
+
+            if (null != previewSession) {
+                previewSession.close();
+                previewSession = null;
+            }
+
+            if (null != cameraDevice){
+                cameraDevice.close();
+                cameraDevice = null;
+            }
+
+        }
+
+    };
+
+    /**
+     * Frames callback, copies the luminance of the latest frame and hands it to the listener.
+     */
+    private final ImageReader.OnImageAvailableListener frameAvailableListener = new ImageReader.OnImageAvailableListener() {
+
+        @Override
+        public void onImageAvailable(ImageReader reader) {
+
+            final Image image = reader.acquireLatestImage();
+
+            if (null == image) {
+                return;
+            }
+
+            try {
+                final PreviewFrameListener listener = getPreviewFrameListener();
+                if (null != listener) {
+                    copyLuminance(image);
+                    listener.onPreviewFrame(frameData, image.getWidth(), image.getHeight());
+                }
+            } finally {
+                image.close();
+            }
 
         }
 
@@ -102,12 +284,11 @@ class Camera21 extends Camera {
     @Override
     public void startPreview() {
 
-        if(null == texture || null == cameraDevice) {
+        if(null == texture || null == backgroundHandler) {
             return;
         }
 
-
-        createCaptureRequest();
+        backgroundHandler.post(startPreviewTask);
 
     }
 
@@ -116,6 +297,12 @@ class Camera21 extends Camera {
      */
     private void createCaptureRequest() {
 
+        final TextureView texture = this.texture;
+
+        if (null == texture || null == texture.getSurfaceTexture()) {
+            return;
+        }
+
         try {
             previewBuilder = cameraDevice.createCaptureRequest(CameraDevice.TEMPLATE_PREVIEW);
         } catch (CameraAccessException e) {
@@ -126,16 +313,48 @@ class Camera21 extends Camera {
         final int width = Math.max(texture.getWidth(), texture.getHeight());
         final int height = Math.min(texture.getWidth(), texture.getHeight());
         surfaceTexture.setDefaultBufferSize(width, height);
+
+        // The stream's aspect ratio crops the field of view, and the request sets the lens, once per session
+        final Float requestedFocalLength = previewBuilder.get(CaptureRequest.LENS_FOCAL_LENGTH);
+        if (width != streamWidth || height != streamHeight
+                || (null != requestedFocalLength && requestedFocalLength != focalLength)) {
+            streamWidth = width;
+            streamHeight = height;
+            evaluateFOV();
+        }
         Surface surface = new Surface(surfaceTexture);
         previewBuilder.addTarget(surface);
 
+        final List<Surface> outputs = new ArrayList<>(2);
+        outputs.add(surface);
+
+        // The previous session may still be writing on the old reader
+        closeFrameReader();
+
+        if (null != getPreviewFrameListener()) {
+            final Size frameSize = chooseFrameSize();
+            frameReader = ImageReader.newInstance(frameSize.getWidth(), frameSize.getHeight(),
+                    ImageFormat.YUV_420_888, 2);
+            frameReader.setOnImageAvailableListener(frameAvailableListener, backgroundHandler);
+            previewBuilder.addTarget(frameReader.getSurface());
+            outputs.add(frameReader.getSurface());
+        }
+
         try {
-            cameraDevice.createCaptureSession(Collections.singletonList(surface), new CameraCaptureSession.StateCallback() {
+            cameraDevice.createCaptureSession(outputs, new CameraCaptureSession.StateCallback() {
 
                 @Override
                 public void onConfigured(@NonNull CameraCaptureSession session) {
+
+                    // Stopped or closed while configuring
+                    if (!previewRequested || null == cameraDevice) {
+                        session.close();
+                        return;
+                    }
+
                     previewSession = session;
                     startUpdatingPreview();
+
                 }
 
                 @Override
@@ -149,6 +368,85 @@ class Camera21 extends Camera {
 
     }
 
+    /**
+     * Chooses the smallest YUV output size covering the desired frame size, or the biggest one if none does.
+     * @return the frame size.
+     */
+    private Size chooseFrameSize() {
+
+        final StreamConfigurationMap map =
+                cameraCharacteristics.get(CameraCharacteristics.SCALER_STREAM_CONFIGURATION_MAP);
+        //noinspection ConstantConditions
+        final Size[] sizes = map.getOutputSizes(ImageFormat.YUV_420_888);
+
+        Size chosen = null, biggest = null;
+
+        for (Size size : sizes) {
+            final int area = size.getWidth() * size.getHeight();
+
+            if (null == biggest || area > biggest.getWidth() * biggest.getHeight()) {
+                biggest = size;
+            }
+
+            if (size.getWidth() >= getFrameWidth() && size.getHeight() >= getFrameHeight() &&
+                    (null == chosen || area < chosen.getWidth() * chosen.getHeight())) {
+                chosen = size;
+            }
+        }
+
+        return null != chosen ? chosen : biggest;
+
+    }
+
+    /**
+     * Copies the luminance plane of a frame into the reused NV21 buffer, row by row if it has padding.
+     * @param image to copy.
+     */
+    private void copyLuminance(Image image) {
+
+        final int width = image.getWidth(), height = image.getHeight();
+        final int size = width * height;
+
+        if (null == frameData || frameData.length != size * 3 / 2) {
+            frameData = new byte[size * 3 / 2];
+            Arrays.fill(frameData, size, frameData.length, (byte) 128);
+        }
+
+        final Image.Plane plane = image.getPlanes()[0];
+        final ByteBuffer luminance = plane.getBuffer();
+        final int rowStride = plane.getRowStride();
+
+        if (rowStride == width) {
+            luminance.get(frameData, 0, size);
+            return;
+        }
+
+        for (int row = 0; row < height; row++) {
+            luminance.position(row * rowStride);
+            luminance.get(frameData, row * width, width);
+        }
+
+    }
+
+    /**
+     * Closes the frames reader, if any, along with the session using it.
+     */
+    private void closeFrameReader() {
+
+        if (null == frameReader) {
+            return;
+        }
+
+        if (null != previewSession) {
+            previewSession.close();
+            previewSession = null;
+        }
+
+        frameReader.close();
+        frameReader = null;
+
+    }
+
     /**
      * Starts updating the preview.
      */
@@ -167,81 +465,39 @@ class Camera21 extends Camera {
     @Override
     public void stopPreview() {
 
-        if (previewSession == null) {
-            return;
-        }
-
-        try {
-            previewSession.stopRepeating();
-            previewSession.abortCaptures();
-        } catch (CameraAccessException e) {
-            e.printStackTrace();
+        if (null != backgroundHandler) {
+            backgroundHandler.post(stopPreviewTask);
         }
 
     }
 
-    @SuppressWarnings("MissingPermission")
     @Override
     public void openCamera(Activity activity) {
 
-        CameraManager manager = (CameraManager) activity.getSystemService(Context.CAMERA_SERVICE);
-
-        backgroundThread = new HandlerThread(BACKGROUND_THREAD);
-        backgroundThread.start();
-        backgroundHandler = new Handler(backgroundThread.getLooper());
+        sessionManager = CameraSessionManager.getInstance(activity);
+        backgroundHandler = sessionManager.getHandler();
 
+        // Characteristics are looked up once, so the field of view is known before the camera opens
         try {
-            String cameraId = getRearCamera(manager);
-            //noinspection ConstantConditions
-            manager.openCamera(cameraId, mStateCallback, backgroundHandler);
+            cameraCharacteristics = sessionManager.getRearCharacteristics();
         } catch (CameraAccessException e) {
             e.printStackTrace();
         }
 
-    }
-
-    /**
-     * Finds rear facing camera.
-     * @param manager of the camera.
-     * @return rear facing camera's ID.
-     * @throws CameraAccessException if there is an error within the camera.
-     */
-    private String getRearCamera(CameraManager manager) throws CameraAccessException {
-
-        int orientation;
-        for(final String id: manager.getCameraIdList()){
-            cameraCharacteristics = manager.getCameraCharacteristics(id);
-            //noinspection ConstantConditions
-            orientation = cameraCharacteristics.get(CameraCharacteristics.LENS_FACING);
-
-            if(CameraCharacteristics.LENS_FACING_BACK == orientation){
-                return id;
-            }
+        if (null != cameraCharacteristics) {
+            evaluateFOV();
         }
 
-        return null;
+        backgroundHandler.post(openTask);
 
     }
 
     @Override
     public void closeCamera() {
 
-        if (null != cameraDevice){
-            cameraDevice.close();
-            cameraDevice = null;
-        }
-
-        /*
-         * Stop threads
-         */
-        backgroundThread.quitSafely();
-
-        try {
-            backgroundThread.join();
-            backgroundThread = null;
-            backgroundHandler = null;
-        } catch (InterruptedException e) {
-            e.printStackTrace();
+        // Closing takes a while, the caller does not wait for it
+        if (null != backgroundHandler) {
+            backgroundHandler.post(closeTask);
         }
 
     }
@@ -250,10 +506,20 @@ class Camera21 extends Camera {
     @Override
     public void evaluateFOV() {
         SizeF sSize = cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_PHYSICAL_SIZE);
-        float fLength = cameraCharacteristics.get(CameraCharacteristics.LENS_INFO_AVAILABLE_FOCAL_LENGTHS)[0];
-
-        setFOVWidth((float) Math.toDegrees((2 * Math.atan(sSize.getWidth() / (2 * fLength)))));
-        setFOVHeight((float) Math.toDegrees((2 * Math.atan(sSize.getHeight() / (2 * fLength)))));
+        Size pixelArray = cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_PIXEL_ARRAY_SIZE);
+        Rect activeArray = cameraCharacteristics.get(CameraCharacteristics.SENSOR_INFO_ACTIVE_ARRAY_SIZE);
+        final CaptureRequest.Builder builder = previewBuilder;
+        final Float requestedFocalLength = null != builder ? builder.get(CaptureRequest.LENS_FOCAL_LENGTH) : null;
+
+        // Until a request sets the lens, the first available focal length is the default one
+        float fLength = null != requestedFocalLength ? requestedFocalLength
+                : cameraCharacteristics.get(CameraCharacteristics.LENS_INFO_AVAILABLE_FOCAL_LENGTHS)[0];
+        focalLength = fLength;
+
+        // No zoom is set, so the crop region is the whole active array
+        setIntrinsics(CameraIntrinsics.fromSensor(fLength, sSize.getWidth(), sSize.getHeight(),
+                pixelArray.getWidth(), pixelArray.getHeight(), activeArray.width(), activeArray.height(),
+                streamWidth, streamHeight));
     }
 
     @Override
@@ -0,0 +1,131 @@
+package es.uva.tfg.hector.SkyWalkerApp.business;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.hardware.camera2.CameraAccessException;
+import android.hardware.camera2.CameraCharacteristics;
+import android.hardware.camera2.CameraDevice;
+import android.hardware.camera2.CameraManager;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+
+/**
+ * Keeps what every Camera2 session of the App can share: a single background thread, where every
+ * camera operation runs in order, and the rear camera's ID and characteristics, looked up once.
+ * Closing a camera and reopening it later just queue both operations on the same thread,
+ * so neither the UI waits for the camera to close nor threads pile up on every resume.
+ * @author Hector Del Campo Pando
+ */
+@TargetApi(Build.VERSION_CODES.LOLLIPOP)
+class CameraSessionManager {
+
+    /**
+     * Thread debug label.
+     */
+    private static final String BACKGROUND_THREAD = "CameraThread";
+
+    /**
+     * Singleton instance.
+     */
+    private static CameraSessionManager instance;
+
+    /**
+     * System's camera service.
+     */
+    private final CameraManager manager;
+
+    /**
+     * A {@code Handler} for running camera tasks in the background thread.
+     */
+    private final Handler backgroundHandler;
+
+    /**
+     * Rear facing camera, null until looked up.
+     */
+    private String rearCameraId;
+    private CameraCharacteristics rearCharacteristics;
+
+    /**
+     * Retrieves the singleton instance.
+     * @param context of the App.
+     * @return the singleton instance.
+     */
+    static synchronized CameraSessionManager getInstance(Context context) {
+
+        if (instance == null) {
+            instance = new CameraSessionManager(context);
+        }
+
+        return instance;
+
+    }
+
+    /**
+     * Starts the background thread.
+     * @param context of the App.
+     */
+    private CameraSessionManager(Context context) {
+        manager = (CameraManager) context.getApplicationContext().getSystemService(Context.CAMERA_SERVICE);
+
+        final HandlerThread backgroundThread = new HandlerThread(BACKGROUND_THREAD);
+        backgroundThread.start();
+        backgroundHandler = new Handler(backgroundThread.getLooper());
+    }
+
+    /**
+     * Retrieves the handler of the background thread, where camera operations and callbacks run.
+     * @return the handler.
+     */
+    Handler getHandler() {
+        return backgroundHandler;
+    }
+
+    /**
+     * Retrieves the rear facing camera's characteristics.
+     * @return the characteristics, null if there is no rear facing camera.
+     * @throws CameraAccessException if there is an error within the camera.
+     */
+    synchronized CameraCharacteristics getRearCharacteristics() throws CameraAccessException {
+        findRearCamera();
+        return rearCharacteristics;
+    }
+
+    /**
+     * Opens the rear facing camera, its callback runs on the background thread.
+     * @param callback of the camera.
+     * @throws CameraAccessException if there is an error within the camera.
+     */
+    @SuppressWarnings("MissingPermission")
+    synchronized void openRearCamera(CameraDevice.StateCallback callback) throws CameraAccessException {
+        findRearCamera();
+        //noinspection ConstantConditions
+        manager.openCamera(rearCameraId, callback, backgroundHandler);
+    }
+
+    /**
+     * Finds rear facing camera, if not found yet.
+     * @throws CameraAccessException if there is an error within the camera.
+     */
+    private void findRearCamera() throws CameraAccessException {
+
+        if (null != rearCameraId) {
+            return;
+        }
+
+        int orientation;
+        for(final String id: manager.getCameraIdList()){
+            final CameraCharacteristics characteristics = manager.getCameraCharacteristics(id);
+            //noinspection ConstantConditions
+            orientation = characteristics.get(CameraCharacteristics.LENS_FACING);
+
+            if(CameraCharacteristics.LENS_FACING_BACK == orientation){
+                rearCameraId = id;
+                rearCharacteristics = characteristics;
+                return;
+            }
+        }
+
+    }
+
+}
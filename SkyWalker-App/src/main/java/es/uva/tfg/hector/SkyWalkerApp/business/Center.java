@@ -1,10 +1,11 @@
 package es.uva.tfg.hector.SkyWalkerApp.business;
 
 import android.content.Context;
-import android.util.SparseArray;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import es.uva.tfg.hector.SkyWalkerApp.persistence.ServerFacade;
 import es.uva.tfg.hector.SkyWalkerApp.services.PersistenceOperationDelegate;
@@ -33,7 +34,7 @@ public class Center {
     /**
      * The center's receivers.
      */
-    private final SparseArray<MapPoint> receivers = new SparseArray<>();
+    private final Map<Integer, MapPoint> receivers = new HashMap<>();
 
     /**
      * The center's points.
@@ -204,4 +205,46 @@ public class Center {
                 });
 
     }
+
+    /**
+     * Updates the position of a point of the center, asking the persistence system the new one.
+     * @param context to use.
+     * @param point whose position must be updated.
+     * @param delegate callback for success or error events.
+     */
+    public void updatePosition (Context context, final MapPoint point, final PersistenceOperationDelegate delegate) {
+        ServerFacade.getInstance(context).
+                getLastPosition(new ServerFacade.OnServerResponse<MapPoint>() {
+                    @Override
+                    public void onSuccess(MapPoint newPosition) {
+
+                        point.setX(newPosition.getY());
+                        point.setY(newPosition.getX());
+                        point.setZ(newPosition.getZ());
+
+                        if (null != delegate) {
+                            delegate.onSuccess();
+                        }
+
+                    }
+
+                    @Override
+                    public void onError(ServerFacade.Errors error) {
+                        PersistenceOperationDelegate.Errors errorToBack;
+
+                        switch (error) {
+                            case NO_CONNECTION: case TIME_OUT:
+                                errorToBack = PersistenceOperationDelegate.Errors.INTERNET_ERROR;
+                                break;
+                            default:
+                                errorToBack = PersistenceOperationDelegate.Errors.SERVER_ERROR;
+                                break;
+                        }
+
+                        if (null != delegate) {
+                            delegate.onError(errorToBack);
+                        }
+                    }
+                }, point);
+    }
 }
@@ -5,11 +5,19 @@ import android.hardware.Sensor;
 import android.hardware.SensorEvent;
 import android.hardware.SensorEventListener;
 import android.hardware.SensorManager;
+import android.os.Build;
 import android.os.Handler;
 import android.os.HandlerThread;
 
-import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
-import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import es.uva.tfg.hector.SkyWalkerApp.persistence.CalibrationCache;
+import es.uva.tfg.hector.SkyWalkerApp.services.HeadingBiasEstimator;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationProcessor;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationSnapshot;
+import es.uva.tfg.hector.SkyWalkerApp.services.SensorTrace;
 
 /**
  * Orientation sensors manager.
@@ -22,6 +30,22 @@ public class OrientationSensor {
      */
     public static final int SENSOR_DELAY = SensorManager.SENSOR_DELAY_GAME;
 
+    /**
+     * Longest time, in microseconds, events may be kept in the sensor's FIFO while the device is still.
+     */
+    public static final int BATCH_LATENCY = 200000;
+
+    /**
+     * Shortest walk, in meters, between two positions used to calibrate the heading.
+     */
+    public static final float MIN_LEG_LENGTH = 3;
+
+    /**
+     * Size, in bytes, from which a trace goes on in a new one, about half an hour of samples,
+     * and number of traces kept, so recording never takes more than 20 MB.
+     */
+    private static final int MAX_TRACE_SIZE = 4 * 1024 * 1024, MAX_TRACES = 5;
+
     /**
      * Sensor's manager.
      */
@@ -32,15 +56,26 @@ public class OrientationSensor {
      */
     private final Sensor sensorRt;
 
+    /**
+     * Magnetic field sensor, used to detect disturbances, may be null.
+     */
+    private final Sensor sensorMagnetic;
+
     /**
      * Orientation's handling thread.
      */
     private HandlerThread thread;
+    private Handler handler;
+
+    /**
+     * Whether the sensor can batch events in a hardware FIFO.
+     */
+    private final boolean batchingSupported;
 
     /**
-     * Device's 3D orientation vector.
+     * Whether events are currently batched, only used by the sensor's thread.
      */
-    private Vector3D orientationVector = new Vector3D(0, 1, 0);
+    private boolean batching;
 
     /**
      * Delegate who wants to get sensor events.
@@ -48,70 +83,65 @@ public class OrientationSensor {
     private final OrientationSensorDelegate delegate;
 
     /**
-     * Offset to correct angle.
+     * Turns sensor's samples into the device's orientation, fed by the sensor's thread.
      */
-    private final float mapNorthOffset = User.getInstance().getCenter().getMapNorth();
+    private final OrientationProcessor processor =
+            new OrientationProcessor(User.getInstance().getCenter().getMapNorth());
 
     /**
-     * Listener for the sensors
+     * Directory where traces are requested to be recorded, null if not recording.
      */
-    private final SensorEventListener eventListener = new SensorEventListener(){
-
-        /**
-         * Value to filter data.
-         */
-        private static final float ALPHA = .25f;
-
-        /**
-         * Sensor's values.
-         */
-        private float[] previousValues;
+    private volatile File traceDirectory;
 
-        @Override
-        public void onSensorChanged(SensorEvent sensorEvent) {
+    /**
+     * Directory of the trace being recorded, and its writer, only used by the sensor's thread.
+     */
+    private File recordingDirectory;
+    private SensorTrace.Writer recorder;
 
-            if(sensorEvent.sensor.getType() != Sensor.TYPE_ROTATION_VECTOR) {
-                return;
-            }
+    /**
+     * Where heading corrections are kept between sessions.
+     */
+    private final CalibrationCache calibrationCache;
 
-            float[] rotationMatrix = new float[9];
-            SensorManager.getRotationMatrixFromVector(rotationMatrix, sensorEvent.values.clone());
+    /**
+     * Center being calibrated.
+     */
+    private final Center center;
 
-            previousValues = lowFilter(new float[]{rotationMatrix[2], rotationMatrix[5], rotationMatrix[8]}, previousValues);
+    /**
+     * Last known position, only used by the sensor's thread.
+     */
+    private float positionX, positionY;
+    private int floor;
+    private boolean positioned;
 
-            Vector2D mapVector =
-                    new Vector2D(
-                            -previousValues[0],
-                            -previousValues[1]);
-            mapVector.rotateClockwise(mapNorthOffset);
+    /**
+     * Listener for the sensors
+     */
+    private final SensorEventListener eventListener = new SensorEventListener(){
 
-            orientationVector = new Vector3D(
-                    mapVector.getX(),
-                    mapVector.getY(),
-                    -previousValues[2]);
-            orientationVector.normalize();
+        @Override
+        public void onSensorChanged(SensorEvent sensorEvent) {
 
-            delegate.onSensorValueEvent(orientationVector);
+            final int type = sensorEvent.sensor.getType();
+            final boolean moving = processor.isMoving(), disturbed = processor.isDisturbed();
 
-        }
+            record(type, sensorEvent.timestamp, sensorEvent.values);
+            processor.onSensorSample(type, sensorEvent.timestamp, sensorEvent.values);
 
-        /**
-         * Low pass filters the input data and returns corrected values.
-         * @param input data to be filtered.
-         * @param previousValues previous data vector.
-         */
-        private float[] lowFilter(float[] input, float[] previousValues){
-            if(null == previousValues){
-                return input;
+            if (Sensor.TYPE_ROTATION_VECTOR == type) {
+                delegate.onSensorValueEvent(processor.getX(), processor.getY(), processor.getZ());
             }
 
-            float[] output = new float[input.length];
+            if (moving != processor.isMoving()) {
+                setBatching(!processor.isMoving());
+            }
 
-            for(int i = 0; i<input.length; i++){
-                output[i] = previousValues[i] + ALPHA * (input[i] - previousValues[i]);
+            if (disturbed != processor.isDisturbed()) {
+                delegate.onMagneticDisturbanceChange(processor.isDisturbed());
             }
 
-            return output;
         }
 
         @Override
@@ -131,33 +161,243 @@ public class OrientationSensor {
     public OrientationSensor(Context context, OrientationSensorDelegate delegate) {
         manager = (SensorManager) context.getSystemService(Context.SENSOR_SERVICE);
         sensorRt = manager.getDefaultSensor(Sensor.TYPE_ROTATION_VECTOR);
+        sensorMagnetic = manager.getDefaultSensor(Sensor.TYPE_MAGNETIC_FIELD);
+        calibrationCache = CalibrationCache.getInstance(context);
+        center = User.getInstance().getCenter();
         this.delegate = delegate;
+        batchingSupported = Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT
+                && null != sensorRt && sensorRt.getFifoMaxEventCount() > 0;
     }
 
     /**
      * Starts registering sensors changes.
+     * Registration happens on the sensor's thread, the only one switching the delivery mode.
      */
     public void registerEvents() {
         thread = new HandlerThread("Orientation thread");
         thread.start();
-        Handler handler = new Handler(thread.getLooper());
-        manager.registerListener(eventListener, sensorRt, SENSOR_DELAY, handler);
+        handler = new Handler(thread.getLooper());
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                processor.reset();
+                positioned = false;
+                batching = false;
+                register();
+            }
+        });
     }
 
     /**
      * Stops registering sensors changes.
      */
     public void unregisterEvents(){
-        manager.unregisterListener(eventListener);
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                manager.unregisterListener(eventListener);
+                stopRecording();
+            }
+        });
         thread.quitSafely();
     }
 
     /**
-     * Retrieves the device's orientation as a Vector.
-     * @return the orientation's vector.
+     * Registers the listener, asking for low latency delivery or for batching.
+     */
+    private void register() {
+        register(sensorRt, SENSOR_DELAY);
+
+        if (null != sensorMagnetic) {
+            register(sensorMagnetic, SensorManager.SENSOR_DELAY_UI);
+        }
+    }
+
+    /**
+     * Registers the listener for a sensor, with the current delivery mode.
+     * @param sensor to listen to.
+     * @param delay between samples.
+     */
+    private void register(Sensor sensor, int delay) {
+        if (batching && Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT) {
+            manager.registerListener(eventListener, sensor, delay, BATCH_LATENCY, handler);
+        } else {
+            manager.registerListener(eventListener, sensor, delay, handler);
+        }
+    }
+
+    /**
+     * Switches between batched delivery, while the device is still and the overlay barely changes,
+     * and low latency delivery, while it moves. Must be called from the sensor's thread.
+     * @param batching true to let the sensor keep events in its FIFO, false to get them at once.
+     */
+    private void setBatching(boolean batching) {
+        if (!batchingSupported || this.batching == batching) {
+            return;
+        }
+
+        this.batching = batching;
+        manager.unregisterListener(eventListener);
+        register();
+    }
+
+    /**
+     * Records traces of the raw samples, to replay them later.
+     * Each registration, or change of directory, starts a new trace, and only the newest
+     * {@link #MAX_TRACES} traces, of up to {@link #MAX_TRACE_SIZE} bytes, are kept. Can be called from any thread.
+     * @param directory where traces are written, null to stop recording.
+     */
+    public void setTraceDirectory(File directory) {
+        traceDirectory = directory;
+    }
+
+    /**
+     * Records a raw sample, if requested. Must be called from the sensor's thread.
+     * @param type of the sensor.
+     * @param timestamp of the sample.
+     * @param values of the sample.
+     */
+    private void record(int type, long timestamp, float[] values) {
+
+        final File directory = traceDirectory;
+
+        if (directory != recordingDirectory) {
+            stopRecording();
+            recordingDirectory = directory;
+
+            startTrace(directory);
+        }
+
+        if (null == recorder) {
+            return;
+        }
+
+        try {
+            recorder.write(type, timestamp, values);
+        } catch (IOException e) {
+            e.printStackTrace();
+            stopRecording();
+            return;
+        }
+
+        // Full traces go on in a new one
+        if (recorder.getSize() >= MAX_TRACE_SIZE) {
+            stopRecording();
+            recordingDirectory = directory;
+            startTrace(directory);
+        }
+
+    }
+
+    /**
+     * Starts a new trace, deleting the oldest ones over {@link #MAX_TRACES}. Must be called from the sensor's thread.
+     * @param directory where the trace is written, null to not start any.
+     */
+    private void startTrace(File directory) {
+
+        if (null == directory || !(directory.isDirectory() || directory.mkdirs())) {
+            return;
+        }
+
+        SensorTrace.prune(directory, MAX_TRACES - 1);
+
+        try {
+            recorder = new SensorTrace.Writer(new FileOutputStream(
+                    new File(directory, System.currentTimeMillis() + SensorTrace.EXTENSION)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+    }
+
+    /**
+     * Closes the trace being recorded, if any. Must be called from the sensor's thread.
+     */
+    private void stopRecording() {
+
+        if (null != recorder) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            recorder = null;
+        }
+
+        recordingDirectory = null;
+
+    }
+
+    /**
+     * Informs about a new position of the device, walks between positions calibrate the heading.
+     * Can be called from any thread.
+     * @param x coordinate on the map.
+     * @param y coordinate on the map.
+     * @param floor number of floor.
+     */
+    public void updatePosition(final float x, final float y, final int floor) {
+
+        if (null == handler) {
+            return;
+        }
+
+        handler.post(new Runnable() {
+            @Override
+            public void run() {
+                onPosition(x, y, floor);
+            }
+        });
+
+    }
+
+    /**
+     * Handles a new position. Must be called from the sensor's thread.
+     * @param x coordinate on the map.
+     * @param y coordinate on the map.
+     * @param floor number of floor.
+     */
+    private void onPosition(float x, float y, int floor) {
+
+        final HeadingBiasEstimator biasEstimator = processor.getBiasEstimator();
+
+        if (!positioned || floor != this.floor) {
+            biasEstimator.set(calibrationCache.getBias(center.getId(), floor),
+                    calibrationCache.getWeight(center.getId(), floor));
+            applyBias();
+        } else if (x != positionX || y != positionY) {
+            final double walkX = x - positionX, walkY = y - positionY;
+            final double length = Math.sqrt(walkX*walkX + walkY*walkY) * center.getScale();
+
+            if (length >= MIN_LEG_LENGTH && !processor.isDisturbed()
+                    && biasEstimator.endLeg(walkX, walkY, length)) {
+                applyBias();
+                calibrationCache.put(center.getId(), floor,
+                        (float) biasEstimator.getBias(), (float) biasEstimator.getWeight());
+            } else {
+                biasEstimator.startLeg();
+            }
+        }
+
+        positionX = x;
+        positionY = y;
+        this.floor = floor;
+        positioned = true;
+
+    }
+
+    /**
+     * Applies the estimated heading bias to the map's north. Must be called from the sensor's thread.
+     */
+    private void applyBias() {
+        processor.setMapNorthOffset(center.getMapNorth() + (float) processor.getBiasEstimator().getBias());
+    }
+
+    /**
+     * Retrieves the device's last orientation, can be called from any thread without blocking.
+     * @param out where the orientation will be copied.
      */
-    public Vector3D getOrientationVector() {
-        return orientationVector;
+    public void readOrientation(OrientationSnapshot.Reading out) {
+        processor.read(out);
     }
 
     /**
@@ -178,10 +418,12 @@ public class OrientationSensor {
     public interface OrientationSensorDelegate {
 
         /**
-         * Callback for sensor value's changes.
-         * @param values the new orientation values.
+         * Callback for sensor value's changes, called from the sensor's thread.
+         * @param x component of the new orientation.
+         * @param y component of the new orientation.
+         * @param z component of the new orientation.
          */
-        void onSensorValueEvent (Vector3D values);
+        void onSensorValueEvent (double x, double y, double z);
 
         /**
          * Callback for sensor's accuracy changes.
@@ -189,6 +431,13 @@ public class OrientationSensor {
          */
         void onSensorAccuracyChange (int accuracy);
 
+        /**
+         * Callback for magnetic disturbances, called from the sensor's thread.
+         * While disturbed the heading may be biased.
+         * @param disturbed true if a disturbance started, false if it ended.
+         */
+        void onMagneticDisturbanceChange (boolean disturbed);
+
     }
 
 }
@@ -0,0 +1,96 @@
+package es.uva.tfg.hector.SkyWalkerApp.persistence;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+/**
+ * Local cache of heading corrections, by center and floor.
+ * @author Hector Del Campo Pando
+ */
+public class CalibrationCache {
+
+    /**
+     * Preferences file name.
+     */
+    private static final String PREFERENCES = "heading_calibration";
+
+    /**
+     * Stored fields.
+     */
+    private static final String BIAS = "bias", WEIGHT = "weight";
+
+    /**
+     * Singleton instance.
+     */
+    private static CalibrationCache instance;
+
+    /**
+     * Where corrections are stored.
+     */
+    private final SharedPreferences preferences;
+
+    /**
+     * Retrieves the singleton instance.
+     * @param context of the App.
+     * @return the singleton instance.
+     */
+    public static synchronized CalibrationCache getInstance (Context context) {
+
+        if (instance == null) {
+            instance = new CalibrationCache(context);
+        }
+
+        return instance;
+
+    }
+
+    /**
+     * Opens the cache.
+     * @param context of the App.
+     */
+    private CalibrationCache(Context context) {
+        preferences = context.getApplicationContext().getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Retrieves the heading bias of a floor.
+     * @param center id of the center.
+     * @param floor number of floor.
+     * @return the bias in degrees, 0 if there is none.
+     */
+    public float getBias(int center, int floor) {
+        return preferences.getFloat(key(center, floor, BIAS), 0);
+    }
+
+    /**
+     * Retrieves the weight of the heading bias of a floor.
+     * @param center id of the center.
+     * @param floor number of floor.
+     * @return the weight, 0 if there is no bias.
+     */
+    public float getWeight(int center, int floor) {
+        return preferences.getFloat(key(center, floor, WEIGHT), 0);
+    }
+
+    /**
+     * Stores the heading bias of a floor, asynchronously.
+     * @param center id of the center.
+     * @param floor number of floor.
+     * @param bias in degrees.
+     * @param weight of the bias.
+     */
+    public void put(int center, int floor, float bias, float weight) {
+        preferences.edit()
+                .putFloat(key(center, floor, BIAS), bias)
+                .putFloat(key(center, floor, WEIGHT), weight)
+                .apply();
+    }
+
+    /**
+     * Builds the key of a field.
+     */
+    private static String key(int center, int floor, String field) {
+        return center + "_" + floor + "_" + field;
+    }
+
+}
@@ -129,4 +129,9 @@ public class AugmentedRealityActivity extends FragmentActivity
         ((AugmentedRealityFragment) getFragmentManager().findFragmentById(R.id.augmented_reality_fragment)).setActivePoints(points);
     }
 
+    @Override
+    public void setDebugInfoEnabled (boolean enabled) {
+        ((AugmentedRealityFragment) getFragmentManager().findFragmentById(R.id.augmented_reality_fragment)).setDebugInfoEnabled(enabled);
+    }
+
 }
@@ -186,6 +186,8 @@ public class AugmentedRealityControlsFragment extends Fragment implements View.O
                 } else {
                     layout.setAlpha(0);
                 }
+                // The switch hides debug info when checked
+                controls.setDebugInfoEnabled(!isChecked);
         }
     }
 
@@ -205,6 +207,12 @@ public class AugmentedRealityControlsFragment extends Fragment implements View.O
          * Sets the points to show.
          */
         void setActivePoints (List<PointOfInterest> points);
+
+        /**
+         * Sets whether debug info is shown or not.
+         * @param enabled true to show debug info, false otherwise.
+         */
+        void setDebugInfoEnabled (boolean enabled);
     }
 
 }
@@ -74,6 +74,14 @@ public class AugmentedRealityFragment extends Fragment {
         return overlayView.getActivePoints();
     }
 
+    /**
+     * Sets whether debug info is shown or not.
+     * @param enabled true to show debug info, false otherwise.
+     */
+    public void setDebugInfoEnabled (boolean enabled) {
+        overlayView.setDebugInfoEnabled(enabled);
+    }
+
     /**
      * Stops showing all points except the desired ones.
      * @param points to be shown.
@@ -0,0 +1,176 @@
+package es.uva.tfg.hector.SkyWalkerApp.presentation;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.util.SparseArray;
+import android.view.TextureView;
+
+/**
+ * Software renderer, draws the overlay through the {@link Canvas} given by the {@link TextureView}.
+ * @author Hector Del Campo Pando
+ */
+class CanvasOverlayRenderer implements OverlayRenderer {
+
+    /**
+     * Global constants
+     */
+    static final float TEXT_SIZE = 70f;
+    static final float STROKE_WIDTH = 1f;
+    static final boolean ANTI_ALIAS_ENABLED = true;
+    static final int TEXT_COLOR = Color.WHITE;
+    static final int TEXT_BORDER_COLOR = Color.BLACK;
+
+    /**
+     * View where objects will be displayed.
+     */
+    private final TextureView view;
+
+    /**
+     * Resources where icons are taken from.
+     */
+    private final Resources resources;
+
+    /**
+     * Decoded icons, by resource.
+     */
+    private final SparseArray<Bitmap> icons = new SparseArray<>();
+
+    /**
+     * Reusable drawing objects.
+     */
+    private final Matrix matrix = new Matrix();
+    private final Paint iconPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final Paint textPaint = new Paint();
+    private final Paint borderPaint = new Paint();
+
+    /**
+     * Canvas of the current frame.
+     */
+    private Canvas canvas;
+
+    /**
+     * Creates a new canvas renderer.
+     * @param view where to draw.
+     * @param resources where icons are taken from.
+     */
+    CanvasOverlayRenderer(TextureView view, Resources resources) {
+        this.view = view;
+        this.resources = resources;
+
+        textPaint.setAntiAlias(ANTI_ALIAS_ENABLED);
+        textPaint.setStyle(Paint.Style.FILL);
+        textPaint.setColor(TEXT_COLOR);
+
+        borderPaint.setAntiAlias(ANTI_ALIAS_ENABLED);
+        borderPaint.setStyle(Paint.Style.STROKE);
+        borderPaint.setStrokeWidth(STROKE_WIDTH);
+        borderPaint.setColor(TEXT_BORDER_COLOR);
+    }
+
+    @Override
+    public boolean beginFrame() {
+
+        canvas = view.lockCanvas();
+
+        if (null == canvas) {
+            return false;
+        }
+
+        /*
+         * Set Background to transparent, also clear all previous draws,
+         *  this must be do just once.
+         */
+        canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+
+        return true;
+
+    }
+
+    @Override
+    public void drawIcon(float x, float y, int icon, float angle, float scale) {
+
+        final Bitmap iconBitmap = getIcon(icon);
+
+        matrix.reset();
+        matrix.postTranslate(-iconBitmap.getWidth() / 2f, -iconBitmap.getHeight() / 2f);
+        matrix.postRotate(angle);
+        matrix.postScale(scale, scale);
+        matrix.postTranslate(x, y);
+
+        canvas.drawBitmap(iconBitmap, matrix, iconPaint);
+
+    }
+
+    @Override
+    public void drawText(String[] texts, float x, float y) {
+
+        final float textSize = getLineHeight();
+
+        textPaint.setTextSize(textSize);
+        borderPaint.setTextSize(textSize);
+
+        for(int i = 0; i < texts.length; i++) {
+            canvas.drawText(texts[i], x, y + textSize*i, textPaint);
+            canvas.drawText(texts[i], x, y + textSize*i, borderPaint);
+        }
+
+    }
+
+    @Override
+    public float measureText(String text) {
+        textPaint.setTextSize(getLineHeight());
+        return textPaint.measureText(text);
+    }
+
+    @Override
+    public float getLineHeight() {
+        return getTextSize(view.getWidth(), view.getHeight());
+    }
+
+    @Override
+    public void endFrame() {
+        view.unlockCanvasAndPost(canvas);
+        canvas = null;
+    }
+
+    @Override
+    public void release() {
+        for (int i = 0; i < icons.size(); i++) {
+            icons.valueAt(i).recycle();
+        }
+        icons.clear();
+    }
+
+    /**
+     * Retrieves the text size for the given screen.
+     * @param width of the screen.
+     * @param height of the screen.
+     * @return the text size in pixels.
+     */
+    static float getTextSize(int width, int height) {
+        return height < width ? TEXT_SIZE*height/1080 : TEXT_SIZE*width/1080;
+    }
+
+    /**
+     * Retrieves a decoded icon, decoding it only the first time.
+     * @param icon resource.
+     * @return the icon's bitmap.
+     */
+    private Bitmap getIcon(int icon) {
+        Bitmap bitmap = icons.get(icon);
+
+        if (null == bitmap) {
+            bitmap = BitmapFactory.decodeResource(resources, icon);
+            icons.put(icon, bitmap);
+        }
+
+        return bitmap;
+    }
+
+}
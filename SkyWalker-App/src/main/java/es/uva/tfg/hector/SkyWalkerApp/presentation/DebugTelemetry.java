@@ -0,0 +1,169 @@
+package es.uva.tfg.hector.SkyWalkerApp.presentation;
+
+import android.app.Activity;
+import android.view.Choreographer;
+import android.widget.TextView;
+
+import es.uva.tfg.hector.SkyWalkerApp.R;
+import es.uva.tfg.hector.SkyWalkerApp.business.OrientationSensor;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationSnapshot;
+
+/**
+ * Debug panel showing the device's orientation.
+ * Instead of posting every sensor event to the UI thread, the panel is refreshed on the display's
+ * frames, and only when a new orientation arrived. Texts are formatted into reusable buffers.
+ * While disabled nothing is scheduled at all.
+ * All methods must be called from the UI thread.
+ * @author Hector Del Campo Pando
+ */
+class DebugTelemetry implements Choreographer.FrameCallback {
+
+    /**
+     * Labels of each orientation component.
+     */
+    private static final String[] LABELS = new String[] {"X: ", "Y: ", "Z: "};
+
+    /**
+     * Holder activity, where the panel is.
+     */
+    private final Activity activity;
+
+    /**
+     * Source of the orientation.
+     */
+    private final OrientationSensor orientationSensor;
+
+    /**
+     * Panel's texts, looked up the first time they are needed.
+     */
+    private TextView[] texts;
+
+    /**
+     * Reusable formatting buffers, one per text as the text keeps using it once set.
+     */
+    private final StringBuilder builder = new StringBuilder();
+    private final char[][] buffers = new char[LABELS.length][32];
+
+    /**
+     * Last shown orientation.
+     */
+    private final OrientationSnapshot.Reading reading = new OrientationSnapshot.Reading();
+    private long shownTimestamp;
+
+    /**
+     * Whether the panel was asked to be shown, and whether the orientation is being tracked.
+     */
+    private boolean enabled, running, scheduled;
+
+    /**
+     * Creates a new disabled telemetry.
+     * @param activity where the panel is.
+     * @param orientationSensor source of the orientation.
+     */
+    DebugTelemetry(Activity activity, OrientationSensor orientationSensor) {
+        this.activity = activity;
+        this.orientationSensor = orientationSensor;
+    }
+
+    /**
+     * Sets whether the panel is shown or not.
+     * @param enabled true to refresh the panel, false to stop doing it.
+     */
+    void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        schedule();
+    }
+
+    /**
+     * Starts tracking the orientation, if enabled.
+     */
+    void start() {
+        running = true;
+        schedule();
+    }
+
+    /**
+     * Stops tracking the orientation.
+     */
+    void stop() {
+        running = false;
+        schedule();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+
+        scheduled = false;
+
+        if (!enabled || !running) {
+            return;
+        }
+
+        orientationSensor.readOrientation(reading);
+
+        if (reading.getTimestamp() != shownTimestamp) {
+            shownTimestamp = reading.getTimestamp();
+            show(0, reading.getX());
+            show(1, reading.getY());
+            show(2, reading.getZ());
+        }
+
+        schedule();
+
+    }
+
+    /**
+     * Posts or removes the frame callback as needed.
+     */
+    private void schedule() {
+
+        final boolean needed = enabled && running;
+
+        if (needed == scheduled) {
+            return;
+        }
+
+        if (needed) {
+            if (null == texts) {
+                texts = new TextView[] {
+                        (TextView) activity.findViewById(R.id.xRotation),
+                        (TextView) activity.findViewById(R.id.yRotation),
+                        (TextView) activity.findViewById(R.id.zRotation)};
+            }
+            shownTimestamp = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        scheduled = needed;
+
+    }
+
+    /**
+     * Shows a component of the orientation.
+     * @param component index of the component.
+     * @param value of the component.
+     */
+    private void show(int component, double value) {
+
+        final TextView text = texts[component];
+
+        if (null == text) {
+            return;
+        }
+
+        builder.setLength(0);
+        builder.append(LABELS[component]).append(value);
+
+        final int length = builder.length();
+        if (buffers[component].length < length) {
+            buffers[component] = new char[length];
+        }
+
+        builder.getChars(0, length, buffers[component], 0);
+        text.setText(buffers[component], 0, length);
+
+    }
+
+}
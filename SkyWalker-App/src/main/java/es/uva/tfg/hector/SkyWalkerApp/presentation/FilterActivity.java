@@ -42,7 +42,7 @@ public class FilterActivity extends Activity implements FilterRowLayout.FilterCe
     /**
      * Current selected items.
      */
-    private final Set<PointOfInterest> selectedPoints = new HashSet<>(OverlayView.MAX_ELEMENTS_TO_DRAW);
+    private final Set<PointOfInterest> selectedPoints = new HashSet<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,7 +56,7 @@ public class FilterActivity extends Activity implements FilterRowLayout.FilterCe
         ((TextView) findViewById(R.id.selected_counter_label)).setText(
                 String.format(
                         getString(R.string.selected_status_msg)
-                        , selectedPoints.size(), OverlayView.MAX_ELEMENTS_TO_DRAW));
+                        , selectedPoints.size(), allPoints.size()));
     }
 
 
@@ -153,16 +153,13 @@ public class FilterActivity extends Activity implements FilterRowLayout.FilterCe
         ((TextView) findViewById(R.id.selected_counter_label)).setText(
                 String.format(
                         getString(R.string.selected_status_msg)
-                        , selectedPoints.size(), OverlayView.MAX_ELEMENTS_TO_DRAW));
+                        , selectedPoints.size(), allPoints.size()));
 
     }
 
     @Override
     public boolean canToggle (PointOfInterest point) {
-        int size = selectedPoints.size();
-        boolean contains = selectedPoints.contains(point);
-        return OverlayView.MAX_ELEMENTS_TO_DRAW > size
-                || contains;
+        return true;
     }
 
     @Override
@@ -176,7 +173,7 @@ public class FilterActivity extends Activity implements FilterRowLayout.FilterCe
         ((TextView) findViewById(R.id.selected_counter_label)).setText(
                 String.format(
                         getString(R.string.selected_status_msg)
-                , selectedPoints.size(), OverlayView.MAX_ELEMENTS_TO_DRAW));
+                , selectedPoints.size(), allPoints.size()));
     }
 
 }
@@ -0,0 +1,670 @@
+package es.uva.tfg.hector.SkyWalkerApp.presentation;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.SurfaceTexture;
+import android.opengl.EGL14;
+import android.opengl.EGLConfig;
+import android.opengl.EGLContext;
+import android.opengl.EGLDisplay;
+import android.opengl.EGLExt;
+import android.opengl.EGLSurface;
+import android.opengl.GLES20;
+import android.opengl.GLES30;
+import android.opengl.GLUtils;
+import android.util.Log;
+import android.util.SparseArray;
+import android.view.TextureView;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.SpriteBatch;
+
+/**
+ * Hardware renderer, draws the overlay with OpenGL ES 3 on the {@link TextureView}'s surface.
+ * Every icon and every glyph is a textured quad, drawn with one instanced call per texture atlas.
+ * @author Hector Del Campo Pando
+ */
+class GLOverlayRenderer implements OverlayRenderer {
+
+    /**
+     * Debug label.
+     */
+    private static final String TAG = "GLOverlayRenderer";
+
+    /**
+     * Minimum OpenGL ES version needed, as reported by {@link android.content.pm.ConfigurationInfo}.
+     */
+    private static final int GLES_VERSION = 0x30000;
+
+    /**
+     * Size the glyphs are rasterized with.
+     */
+    private static final float GLYPH_SIZE = 64f;
+
+    /**
+     * Free space around every glyph and icon on its atlas, in pixels.
+     */
+    private static final int PADDING = 2;
+
+    /**
+     * Width of the atlas textures.
+     */
+    private static final int ATLAS_WIDTH = 1024;
+
+    /**
+     * Characters rasterized on the glyph atlas, besides latin ones.
+     */
+    private static final String EXTRA_GLYPHS = "\u25B2\u25BC";
+
+    /**
+     * Character used when a glyph is missing on the atlas.
+     */
+    private static final char MISSING_GLYPH = '?';
+
+    /**
+     * Initial number of sprites per batch.
+     */
+    private static final int BATCH_CAPACITY = 256;
+
+    /**
+     * Shader attribute locations.
+     */
+    private static final int CORNER_LOCATION = 0, RECT_LOCATION = 1, ANGLE_LOCATION = 2, UV_LOCATION = 3;
+
+    /**
+     * Shaders source.
+     */
+    private static final String VERTEX_SHADER =
+            "#version 300 es\n" +
+            "layout(location = 0) in vec2 aCorner;\n" +
+            "layout(location = 1) in vec4 aRect;\n" +
+            "layout(location = 2) in float aAngle;\n" +
+            "layout(location = 3) in vec4 aUv;\n" +
+            "uniform vec2 uScreen;\n" +
+            "out vec2 vUv;\n" +
+            "void main() {\n" +
+            "    float c = cos(aAngle);\n" +
+            "    float s = sin(aAngle);\n" +
+            "    vec2 local = aCorner * aRect.zw;\n" +
+            "    vec2 position = aRect.xy + vec2(local.x * c - local.y * s, local.x * s + local.y * c);\n" +
+            "    gl_Position = vec4(position.x / uScreen.x * 2.0 - 1.0, 1.0 - position.y / uScreen.y * 2.0, 0.0, 1.0);\n" +
+            "    vUv = mix(aUv.xy, aUv.zw, aCorner * 0.5 + 0.5);\n" +
+            "}\n";
+
+    private static final String FRAGMENT_SHADER =
+            "#version 300 es\n" +
+            "precision mediump float;\n" +
+            "uniform sampler2D uTexture;\n" +
+            "in vec2 vUv;\n" +
+            "out vec4 fragColor;\n" +
+            "void main() {\n" +
+            "    fragColor = texture(uTexture, vUv);\n" +
+            "}\n";
+
+    /**
+     * Quad corners, drawn as a triangle strip.
+     */
+    private static final float[] QUAD = new float[] {-1, -1, 1, -1, -1, 1, 1, 1};
+
+    /**
+     * View where objects will be displayed.
+     */
+    private final TextureView view;
+
+    /**
+     * Resources where icons are taken from.
+     */
+    private final Resources resources;
+
+    /**
+     * Icons that can be drawn.
+     */
+    private final int[] iconResources;
+
+    /**
+     * EGL objects.
+     */
+    private EGLDisplay eglDisplay = EGL14.EGL_NO_DISPLAY;
+    private EGLContext eglContext = EGL14.EGL_NO_CONTEXT;
+    private EGLSurface eglSurface = EGL14.EGL_NO_SURFACE;
+
+    /**
+     * GL objects.
+     */
+    private int program, quadBuffer, instanceBuffer, iconTexture, glyphTexture;
+    private int screenUniform, textureUniform;
+
+    /**
+     * Client side copy of the instances to upload.
+     */
+    private FloatBuffer instanceData;
+
+    /**
+     * Sprites of the current frame.
+     */
+    private final SpriteBatch iconBatch = new SpriteBatch(BATCH_CAPACITY),
+            glyphBatch = new SpriteBatch(BATCH_CAPACITY);
+
+    /**
+     * Icons atlas rects, by resource: left, top, right, bottom in texture space, then width and height in pixels.
+     */
+    private final SparseArray<float[]> icons = new SparseArray<>();
+
+    /**
+     * Glyphs atlas rects, by character: left, top, right, bottom in texture space,
+     * then cell's width and height in pixels and the glyph's advance.
+     */
+    private final SparseArray<float[]> glyphs = new SparseArray<>();
+
+    /**
+     * Ascent of the rasterized glyphs, negative as it is above the baseline.
+     */
+    private float glyphAscent;
+
+    /**
+     * Checks whether the device can use this renderer or not.
+     * @param context of the App.
+     * @return true if OpenGL ES 3 is available, false otherwise.
+     */
+    static boolean isSupported(Context context) {
+        final ActivityManager manager = (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        return manager.getDeviceConfigurationInfo().reqGlEsVersion >= GLES_VERSION;
+    }
+
+    /**
+     * Creates a new OpenGL renderer, beware it can't be used until {@link #init()} succeeds.
+     * @param view where to draw.
+     * @param resources where icons are taken from.
+     * @param iconResources icons that will be drawn.
+     */
+    GLOverlayRenderer(TextureView view, Resources resources, int[] iconResources) {
+        this.view = view;
+        this.resources = resources;
+        this.iconResources = iconResources;
+    }
+
+    /**
+     * Creates the OpenGL context on the calling thread and uploads the atlases.
+     * @return true if the renderer is ready to draw, false otherwise.
+     */
+    boolean init() {
+
+        final SurfaceTexture surfaceTexture = view.getSurfaceTexture();
+
+        if (null == surfaceTexture || !initEGL(surfaceTexture)) {
+            return false;
+        }
+
+        program = createProgram();
+
+        if (0 == program) {
+            return false;
+        }
+
+        screenUniform = GLES20.glGetUniformLocation(program, "uScreen");
+        textureUniform = GLES20.glGetUniformLocation(program, "uTexture");
+
+        final int[] buffers = new int[2];
+        GLES20.glGenBuffers(2, buffers, 0);
+        quadBuffer = buffers[0];
+        instanceBuffer = buffers[1];
+
+        final FloatBuffer quad = allocate(QUAD.length);
+        quad.put(QUAD).position(0);
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, quadBuffer);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, QUAD.length * 4, quad, GLES20.GL_STATIC_DRAW);
+
+        instanceData = allocate(BATCH_CAPACITY * SpriteBatch.FLOATS_PER_SPRITE);
+
+        iconTexture = upload(createIconAtlas());
+        glyphTexture = upload(createGlyphAtlas());
+
+        GLES20.glEnable(GLES20.GL_BLEND);
+        GLES20.glBlendFunc(GLES20.GL_ONE, GLES20.GL_ONE_MINUS_SRC_ALPHA);
+        GLES20.glClearColor(0, 0, 0, 0);
+
+        return GLES20.GL_NO_ERROR == GLES20.glGetError();
+
+    }
+
+    @Override
+    public boolean beginFrame() {
+
+        if (EGL14.EGL_NO_SURFACE.equals(eglSurface)) {
+            return false;
+        }
+
+        iconBatch.clear();
+        glyphBatch.clear();
+
+        GLES20.glViewport(0, 0, view.getWidth(), view.getHeight());
+        GLES20.glClear(GLES20.GL_COLOR_BUFFER_BIT);
+
+        return true;
+
+    }
+
+    @Override
+    public void drawIcon(float x, float y, int icon, float angle, float scale) {
+
+        final float[] rect = icons.get(icon);
+
+        if (null == rect) {
+            return;
+        }
+
+        iconBatch.add(x, y, rect[4] * scale, rect[5] * scale, angle, rect[0], rect[1], rect[2], rect[3]);
+
+    }
+
+    @Override
+    public void drawText(String[] texts, float x, float y) {
+
+        final float textSize = getLineHeight();
+        final float scale = textSize / GLYPH_SIZE;
+
+        for (int i = 0; i < texts.length; i++) {
+
+            final String text = texts[i];
+            final float baseline = y + textSize * i;
+            float pen = x;
+
+            for (int j = 0; j < text.length(); j++) {
+
+                final float[] glyph = getGlyph(text.charAt(j));
+                final float width = glyph[4] * scale, height = glyph[5] * scale;
+                final float left = pen - PADDING * scale, top = baseline + (glyphAscent - PADDING) * scale;
+
+                glyphBatch.add(left + width / 2, top + height / 2, width, height, 0,
+                        glyph[0], glyph[1], glyph[2], glyph[3]);
+
+                pen += glyph[6] * scale;
+
+            }
+
+        }
+
+    }
+
+    @Override
+    public float measureText(String text) {
+
+        float width = 0;
+
+        for (int i = 0; i < text.length(); i++) {
+            width += getGlyph(text.charAt(i))[6];
+        }
+
+        return width * getLineHeight() / GLYPH_SIZE;
+
+    }
+
+    @Override
+    public float getLineHeight() {
+        return CanvasOverlayRenderer.getTextSize(view.getWidth(), view.getHeight());
+    }
+
+    @Override
+    public void endFrame() {
+
+        GLES20.glUseProgram(program);
+        GLES20.glUniform2f(screenUniform, view.getWidth(), view.getHeight());
+        GLES20.glUniform1i(textureUniform, 0);
+        GLES20.glActiveTexture(GLES20.GL_TEXTURE0);
+
+        drawBatch(iconBatch, iconTexture);
+        drawBatch(glyphBatch, glyphTexture);
+
+        if (!EGL14.eglSwapBuffers(eglDisplay, eglSurface)) {
+            Log.e(TAG, "Swap buffers failed: " + EGL14.eglGetError());
+        }
+
+    }
+
+    @Override
+    public void release() {
+
+        if (EGL14.EGL_NO_DISPLAY.equals(eglDisplay)) {
+            return;
+        }
+
+        if (!EGL14.EGL_NO_SURFACE.equals(eglSurface)) {
+            GLES20.glDeleteTextures(2, new int[] {iconTexture, glyphTexture}, 0);
+            GLES20.glDeleteBuffers(2, new int[] {quadBuffer, instanceBuffer}, 0);
+            GLES20.glDeleteProgram(program);
+        }
+
+        EGL14.eglMakeCurrent(eglDisplay, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_SURFACE, EGL14.EGL_NO_CONTEXT);
+
+        if (!EGL14.EGL_NO_SURFACE.equals(eglSurface)) {
+            EGL14.eglDestroySurface(eglDisplay, eglSurface);
+        }
+
+        if (!EGL14.EGL_NO_CONTEXT.equals(eglContext)) {
+            EGL14.eglDestroyContext(eglDisplay, eglContext);
+        }
+
+        EGL14.eglTerminate(eglDisplay);
+
+        eglDisplay = EGL14.EGL_NO_DISPLAY;
+        eglContext = EGL14.EGL_NO_CONTEXT;
+        eglSurface = EGL14.EGL_NO_SURFACE;
+
+    }
+
+    /**
+     * Retrieves the atlas data of a character.
+     * @param c the character.
+     * @return the glyph's data, the missing glyph's one if the character isn't on the atlas.
+     */
+    private float[] getGlyph(char c) {
+        final float[] glyph = glyphs.get(c);
+        return null == glyph ? glyphs.get(MISSING_GLYPH) : glyph;
+    }
+
+    /**
+     * Draws all sprites in a batch with one instanced call.
+     * @param batch to draw.
+     * @param texture atlas the sprites are taken from.
+     */
+    private void drawBatch(SpriteBatch batch, int texture) {
+
+        if (0 == batch.size()) {
+            return;
+        }
+
+        final int floats = batch.size() * SpriteBatch.FLOATS_PER_SPRITE;
+
+        if (instanceData.capacity() < floats) {
+            instanceData = allocate(batch.getData().length);
+        }
+
+        instanceData.clear();
+        instanceData.put(batch.getData(), 0, floats).position(0);
+
+        final int stride = SpriteBatch.FLOATS_PER_SPRITE * 4;
+
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, quadBuffer);
+        GLES20.glEnableVertexAttribArray(CORNER_LOCATION);
+        GLES20.glVertexAttribPointer(CORNER_LOCATION, 2, GLES20.GL_FLOAT, false, 0, 0);
+
+        GLES20.glBindBuffer(GLES20.GL_ARRAY_BUFFER, instanceBuffer);
+        GLES20.glBufferData(GLES20.GL_ARRAY_BUFFER, floats * 4, instanceData, GLES20.GL_STREAM_DRAW);
+
+        GLES20.glEnableVertexAttribArray(RECT_LOCATION);
+        GLES20.glVertexAttribPointer(RECT_LOCATION, 4, GLES20.GL_FLOAT, false, stride, 0);
+        GLES30.glVertexAttribDivisor(RECT_LOCATION, 1);
+
+        GLES20.glEnableVertexAttribArray(ANGLE_LOCATION);
+        GLES20.glVertexAttribPointer(ANGLE_LOCATION, 1, GLES20.GL_FLOAT, false, stride, 4 * 4);
+        GLES30.glVertexAttribDivisor(ANGLE_LOCATION, 1);
+
+        GLES20.glEnableVertexAttribArray(UV_LOCATION);
+        GLES20.glVertexAttribPointer(UV_LOCATION, 4, GLES20.GL_FLOAT, false, stride, 5 * 4);
+        GLES30.glVertexAttribDivisor(UV_LOCATION, 1);
+
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture);
+        GLES30.glDrawArraysInstanced(GLES20.GL_TRIANGLE_STRIP, 0, 4, batch.size());
+
+    }
+
+    /**
+     * Creates the EGL context and the window surface, making them current.
+     * @param surfaceTexture where to draw.
+     * @return true if everything was created, false otherwise.
+     */
+    private boolean initEGL(SurfaceTexture surfaceTexture) {
+
+        eglDisplay = EGL14.eglGetDisplay(EGL14.EGL_DEFAULT_DISPLAY);
+        final int[] version = new int[2];
+
+        if (EGL14.EGL_NO_DISPLAY.equals(eglDisplay) || !EGL14.eglInitialize(eglDisplay, version, 0, version, 1)) {
+            Log.e(TAG, "Couldn't initialize EGL");
+            return false;
+        }
+
+        final int[] configAttributes = new int[] {
+                EGL14.EGL_RED_SIZE, 8,
+                EGL14.EGL_GREEN_SIZE, 8,
+                EGL14.EGL_BLUE_SIZE, 8,
+                EGL14.EGL_ALPHA_SIZE, 8,
+                EGL14.EGL_RENDERABLE_TYPE, EGLExt.EGL_OPENGL_ES3_BIT_KHR,
+                EGL14.EGL_NONE
+        };
+        final EGLConfig[] configs = new EGLConfig[1];
+        final int[] numConfigs = new int[1];
+
+        if (!EGL14.eglChooseConfig(eglDisplay, configAttributes, 0, configs, 0, 1, numConfigs, 0)
+                || 0 == numConfigs[0]) {
+            Log.e(TAG, "No EGL config available");
+            return false;
+        }
+
+        final int[] contextAttributes = new int[] {EGL14.EGL_CONTEXT_CLIENT_VERSION, 3, EGL14.EGL_NONE};
+        eglContext = EGL14.eglCreateContext(eglDisplay, configs[0], EGL14.EGL_NO_CONTEXT, contextAttributes, 0);
+
+        if (EGL14.EGL_NO_CONTEXT.equals(eglContext)) {
+            Log.e(TAG, "Couldn't create EGL context: " + EGL14.eglGetError());
+            return false;
+        }
+
+        eglSurface = EGL14.eglCreateWindowSurface(eglDisplay, configs[0], surfaceTexture,
+                new int[] {EGL14.EGL_NONE}, 0);
+
+        if (EGL14.EGL_NO_SURFACE.equals(eglSurface)) {
+            Log.e(TAG, "Couldn't create EGL surface: " + EGL14.eglGetError());
+            return false;
+        }
+
+        return EGL14.eglMakeCurrent(eglDisplay, eglSurface, eglSurface, eglContext);
+
+    }
+
+    /**
+     * Compiles and links the sprites program.
+     * @return the program, or 0 if there was an error.
+     */
+    private int createProgram() {
+
+        final int vertexShader = compile(GLES20.GL_VERTEX_SHADER, VERTEX_SHADER);
+        final int fragmentShader = compile(GLES20.GL_FRAGMENT_SHADER, FRAGMENT_SHADER);
+
+        if (0 == vertexShader || 0 == fragmentShader) {
+            return 0;
+        }
+
+        int program = GLES20.glCreateProgram();
+        GLES20.glAttachShader(program, vertexShader);
+        GLES20.glAttachShader(program, fragmentShader);
+        GLES20.glLinkProgram(program);
+        GLES20.glDeleteShader(vertexShader);
+        GLES20.glDeleteShader(fragmentShader);
+
+        final int[] status = new int[1];
+        GLES20.glGetProgramiv(program, GLES20.GL_LINK_STATUS, status, 0);
+
+        if (GLES20.GL_TRUE != status[0]) {
+            Log.e(TAG, "Couldn't link program: " + GLES20.glGetProgramInfoLog(program));
+            GLES20.glDeleteProgram(program);
+            program = 0;
+        }
+
+        return program;
+
+    }
+
+    /**
+     * Compiles a shader.
+     * @param type of the shader.
+     * @param source of the shader.
+     * @return the shader, or 0 if there was an error.
+     */
+    private int compile(int type, String source) {
+
+        int shader = GLES20.glCreateShader(type);
+        GLES20.glShaderSource(shader, source);
+        GLES20.glCompileShader(shader);
+
+        final int[] status = new int[1];
+        GLES20.glGetShaderiv(shader, GLES20.GL_COMPILE_STATUS, status, 0);
+
+        if (GLES20.GL_TRUE != status[0]) {
+            Log.e(TAG, "Couldn't compile shader: " + GLES20.glGetShaderInfoLog(shader));
+            GLES20.glDeleteShader(shader);
+            shader = 0;
+        }
+
+        return shader;
+
+    }
+
+    /**
+     * Uploads a bitmap as a new texture, recycling the bitmap afterwards.
+     * @param bitmap to upload.
+     * @return the texture.
+     */
+    private int upload(Bitmap bitmap) {
+
+        final int[] texture = new int[1];
+        GLES20.glGenTextures(1, texture, 0);
+        GLES20.glBindTexture(GLES20.GL_TEXTURE_2D, texture[0]);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MIN_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_MAG_FILTER, GLES20.GL_LINEAR);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_S, GLES20.GL_CLAMP_TO_EDGE);
+        GLES20.glTexParameteri(GLES20.GL_TEXTURE_2D, GLES20.GL_TEXTURE_WRAP_T, GLES20.GL_CLAMP_TO_EDGE);
+        GLUtils.texImage2D(GLES20.GL_TEXTURE_2D, 0, bitmap, 0);
+        bitmap.recycle();
+
+        return texture[0];
+
+    }
+
+    /**
+     * Packs all icons, side by side, on a single bitmap.
+     * @return the icons atlas.
+     */
+    private Bitmap createIconAtlas() {
+
+        final Bitmap[] decoded = new Bitmap[iconResources.length];
+        int width = PADDING, height = 0;
+
+        for (int i = 0; i < iconResources.length; i++) {
+            decoded[i] = BitmapFactory.decodeResource(resources, iconResources[i]);
+            width += decoded[i].getWidth() + PADDING;
+            height = Math.max(height, decoded[i].getHeight());
+        }
+
+        height += 2 * PADDING;
+
+        final Bitmap atlas = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(atlas);
+        int x = PADDING;
+
+        for (int i = 0; i < iconResources.length; i++) {
+            final Bitmap icon = decoded[i];
+            canvas.drawBitmap(icon, x, PADDING, null);
+            icons.put(iconResources[i], new float[] {
+                    (float) x / width, (float) PADDING / height,
+                    (float) (x + icon.getWidth()) / width, (float) (PADDING + icon.getHeight()) / height,
+                    icon.getWidth(), icon.getHeight()
+            });
+            x += icon.getWidth() + PADDING;
+            icon.recycle();
+        }
+
+        return atlas;
+
+    }
+
+    /**
+     * Rasterizes all supported characters, filled and bordered, on rows of a single bitmap.
+     * @return the glyphs atlas.
+     */
+    private Bitmap createGlyphAtlas() {
+
+        final Paint paint = new Paint();
+        paint.setAntiAlias(CanvasOverlayRenderer.ANTI_ALIAS_ENABLED);
+        paint.setTextSize(GLYPH_SIZE);
+        paint.setStyle(Paint.Style.FILL);
+        paint.setColor(CanvasOverlayRenderer.TEXT_COLOR);
+
+        final Paint border = new Paint(paint);
+        border.setStyle(Paint.Style.STROKE);
+        border.setStrokeWidth(CanvasOverlayRenderer.STROKE_WIDTH);
+        border.setColor(CanvasOverlayRenderer.TEXT_BORDER_COLOR);
+
+        final StringBuilder characters = new StringBuilder();
+        for (char c = ' '; c <= '~'; c++) {
+            characters.append(c);
+        }
+        for (char c = '\u00A1'; c <= '\u00FF'; c++) {
+            characters.append(c);
+        }
+        characters.append(EXTRA_GLYPHS);
+
+        final Paint.FontMetrics metrics = paint.getFontMetrics();
+        glyphAscent = metrics.ascent;
+        final int cellHeight = (int) Math.ceil(metrics.descent - metrics.ascent) + 2 * PADDING;
+
+        // First pass, shelf packing to know the atlas height
+        final int[] cellWidths = new int[characters.length()];
+        int x = 0, rows = 1;
+        for (int i = 0; i < characters.length(); i++) {
+            cellWidths[i] = (int) Math.ceil(paint.measureText(characters, i, i + 1)) + 2 * PADDING;
+            if (x + cellWidths[i] > ATLAS_WIDTH) {
+                x = 0;
+                rows++;
+            }
+            x += cellWidths[i];
+        }
+
+        final int height = rows * cellHeight;
+        final Bitmap atlas = Bitmap.createBitmap(ATLAS_WIDTH, height, Bitmap.Config.ARGB_8888);
+        final Canvas canvas = new Canvas(atlas);
+        final char[] glyph = new char[1];
+        int y = 0;
+        x = 0;
+
+        for (int i = 0; i < characters.length(); i++) {
+
+            if (x + cellWidths[i] > ATLAS_WIDTH) {
+                x = 0;
+                y += cellHeight;
+            }
+
+            glyph[0] = characters.charAt(i);
+            canvas.drawText(glyph, 0, 1, x + PADDING, y + PADDING - metrics.ascent, paint);
+            canvas.drawText(glyph, 0, 1, x + PADDING, y + PADDING - metrics.ascent, border);
+
+            glyphs.put(glyph[0], new float[] {
+                    (float) x / ATLAS_WIDTH, (float) y / height,
+                    (float) (x + cellWidths[i]) / ATLAS_WIDTH, (float) (y + cellHeight) / height,
+                    cellWidths[i], cellHeight, paint.measureText(glyph, 0, 1)
+            });
+
+            x += cellWidths[i];
+
+        }
+
+        return atlas;
+
+    }
+
+    /**
+     * Allocates a native ordered float buffer.
+     * @param floats number of floats of the buffer.
+     * @return the buffer.
+     */
+    private static FloatBuffer allocate(int floats) {
+        return ByteBuffer.allocateDirect(floats * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    }
+
+}
@@ -0,0 +1,57 @@
+package es.uva.tfg.hector.SkyWalkerApp.presentation;
+
+/**
+ * Drawing backend for the {@link OverlayView}.
+ * All methods must be called from the same thread, the one painting the overlay.
+ * @author Hector Del Campo Pando
+ */
+interface OverlayRenderer {
+
+    /**
+     * Starts a new frame, clearing all previous draws.
+     * @return true if the frame can be drawn, false otherwise.
+     */
+    boolean beginFrame();
+
+    /**
+     * Draws a icon to show positioning.
+     * @param x abscissa of the icon's center.
+     * @param y ordinate of the icon's center.
+     * @param icon drawable resource of the icon.
+     * @param angle angle to rotate icon, in degrees.
+     * @param scale to apply to the icon.
+     */
+    void drawIcon(float x, float y, int icon, float angle, float scale);
+
+    /**
+     * Draws the given texts, one below others.
+     * @param texts to draw.
+     * @param x abscissa.
+     * @param y ordinate of the first text's baseline.
+     */
+    void drawText(String[] texts, float x, float y);
+
+    /**
+     * Measures the width a text will have once drawn.
+     * @param text to measure.
+     * @return the width in pixels.
+     */
+    float measureText(String text);
+
+    /**
+     * Retrieves the distance between the baselines of two consecutive texts.
+     * @return the line height in pixels.
+     */
+    float getLineHeight();
+
+    /**
+     * Finishes the current frame and shows it on screen.
+     */
+    void endFrame();
+
+    /**
+     * Frees all resources held by the renderer.
+     */
+    void release();
+
+}
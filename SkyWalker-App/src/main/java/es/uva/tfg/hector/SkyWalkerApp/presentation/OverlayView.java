@@ -6,27 +6,25 @@ import android.app.AlertDialog;
 import android.content.DialogInterface;
 import android.content.Intent;
 import android.content.res.Configuration;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Matrix;
-import android.graphics.Paint;
-import android.graphics.PorterDuff;
 import android.graphics.SurfaceTexture;
 import android.hardware.SensorManager;
+import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.view.LayoutInflater;
 import android.view.TextureView;
 import android.view.View;
-import android.widget.TextView;
+import android.widget.Toast;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import es.uva.tfg.hector.SkyWalkerApp.BuildConfig;
 import es.uva.tfg.hector.SkyWalkerApp.R;
 import es.uva.tfg.hector.SkyWalkerApp.business.Camera;
 import es.uva.tfg.hector.SkyWalkerApp.business.Center;
@@ -34,9 +32,16 @@ import es.uva.tfg.hector.SkyWalkerApp.business.MapPoint;
 import es.uva.tfg.hector.SkyWalkerApp.business.OrientationSensor;
 import es.uva.tfg.hector.SkyWalkerApp.business.PointOfInterest;
 import es.uva.tfg.hector.SkyWalkerApp.business.User;
+import es.uva.tfg.hector.SkyWalkerApp.services.CameraIntrinsics;
+import es.uva.tfg.hector.SkyWalkerApp.services.IndicatorClusters;
+import es.uva.tfg.hector.SkyWalkerApp.services.LabelLayout;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationPredictor;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationSnapshot;
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
 import es.uva.tfg.hector.SkyWalkerApp.services.PersistenceOperationDelegate;
 import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
 import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+import es.uva.tfg.hector.SkyWalkerApp.services.VisibilityPipeline;
 
 /**
  * Overlay view controller.
@@ -92,15 +97,41 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
     private final OrientationSensor orientationSensor;
 
     /**
-     * The maximum number of elements to be drawn.
+     * Debug panel with the device's orientation.
      */
-    static final int MAX_ELEMENTS_TO_DRAW = 5;
+    private final DebugTelemetry debugTelemetry;
+
+    /**
+     * Culling of the points to be drawn on each frame.
+     */
+    private final VisibilityPipeline visibilityPipeline;
+
+    /**
+     * Pool where big centers project their points, only while the view is started.
+     */
+    private ForkJoinPool pool;
 
     /**
      * Holder activity.
      */
     private final Activity activity;
 
+    /**
+     * Time, in nanoseconds, from a frame being drawn to it being on screen,
+     * the orientation is predicted that far ahead.
+     */
+    private static final long PREDICTION_HORIZON = 33000000L;
+
+    /**
+     * Directory, inside the App's files, where sensor traces are recorded.
+     */
+    private static final String TRACES_DIRECTORY = "traces";
+
+    /**
+     * Whether the screen is on portrait, updated every time the surface changes.
+     */
+    private volatile boolean portrait;
+
     /**
      * Sensor calibration dialog's.
      */
@@ -125,6 +156,7 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
 
             destroyed = false;
 
+            updateScreenOrientation();
             orientationSensor.registerEvents();
             thread = new PainterThread();
             thread.start();
@@ -132,7 +164,7 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
 
         @Override
         public void onSurfaceTextureSizeChanged(SurfaceTexture surfaceTexture, int i, int i1) {
-
+            updateScreenOrientation();
         }
 
         @Override
@@ -170,13 +202,15 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
 
         orientationSensor = new OrientationSensor(activity, this);
 
-        List<PointOfInterest> pointsList = User.getInstance().getCenter().getPoints();
-
-        if (pointsList.size() < MAX_ELEMENTS_TO_DRAW) {
-            points = pointsList;
-        } else {
-            points = new ArrayList<>(User.getInstance().getCenter().getPoints().subList(0, MAX_ELEMENTS_TO_DRAW));
+        // Raw samples are only recorded by developer builds that ask for it
+        if (BuildConfig.RECORD_SENSOR_TRACES) {
+            orientationSensor.setTraceDirectory(new File(activity.getFilesDir(), TRACES_DIRECTORY));
         }
+        debugTelemetry = new DebugTelemetry(activity, orientationSensor);
+
+        points = User.getInstance().getCenter().getPoints();
+        visibilityPipeline = new VisibilityPipeline(points.size());
+        visibilityPipeline.setFloatPrecision(true);
         mySelf = User.getInstance().getPosition();
         center = User.getInstance().getCenter();
 
@@ -194,10 +228,18 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
     public void start () {
         mySelf = User.getInstance().getPosition();
 
+        // Big centers project their points on every core
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP && null == pool) {
+            pool = new ForkJoinPool();
+            visibilityPipeline.setPool(pool);
+        }
+
         if (view.isAvailable()) {
             textureListener.onSurfaceTextureAvailable(view.getSurfaceTexture(), view.getWidth(), view.getHeight());
         }
 
+        debugTelemetry.start();
+
         if (!User.getInstance().isDemo(activity)) {
             connectionThread = new ConnectionThread();
             connectionThread.start();
@@ -212,6 +254,15 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
             textureListener.onSurfaceTextureDestroyed(view.getSurfaceTexture());
         }
 
+        // The painter has already finished, so no frame is using the pool
+        if (null != pool) {
+            visibilityPipeline.setPool(null);
+            pool.shutdown();
+            pool = null;
+        }
+
+        debugTelemetry.stop();
+
         if (connectionThread != null) {
             connectionThread.interrupt();
         }
@@ -243,6 +294,13 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
         points.addAll(inState.<PointOfInterest>getParcelableArrayList(RESTORE_POINTS_KEY));
     }
 
+    /**
+     * Caches the current screen orientation, so painting doesn't query the configuration every frame.
+     */
+    private void updateScreenOrientation() {
+        portrait = activity.getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT;
+    }
+
     /**
      * Handler for internet errors.
      * Will inform user and stop the on going AR session.
@@ -289,26 +347,17 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
         }
     }
 
-    @Override
-    public void onSensorValueEvent(final Vector3D value) {
-
-
-        Runnable runnable = new Runnable() {
-            @Override
-            public void run() {
-                TextView degreeText = (TextView) activity.findViewById(R.id.xRotation);
-                degreeText.setText("X: " + String.valueOf(value.getX()));
-
-                degreeText = (TextView) activity.findViewById(R.id.yRotation);
-                degreeText.setText("Y: " + String.valueOf(value.getY()));
-
-                degreeText = (TextView) activity.findViewById(R.id.zRotation);
-                degreeText.setText("Z: " + String.valueOf(value.getZ()));
-            }
-        };
-
-        activity.runOnUiThread(runnable);
+    /**
+     * Sets whether the debug panel is refreshed or not.
+     * @param enabled true to show the orientation on the panel, false otherwise.
+     */
+    void setDebugInfoEnabled(boolean enabled) {
+        debugTelemetry.setEnabled(enabled);
+    }
 
+    @Override
+    public void onSensorValueEvent(final double x, final double y, final double z) {
+        // The painter and the debug telemetry read the orientation when they need it
     }
 
     @Override
@@ -337,6 +386,22 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
 
     }
 
+    @Override
+    public void onMagneticDisturbanceChange(boolean disturbed) {
+
+        if (!disturbed) {
+            return;
+        }
+
+        activity.runOnUiThread(new Runnable() {
+            @Override
+            public void run() {
+                Toast.makeText(activity, R.string.magnetic_disturbance_msg, Toast.LENGTH_SHORT).show();
+            }
+        });
+
+    }
+
     /**
      * Inner class extending {@link Thread}, this will handle all listInUse tasks, as well as
      * deciding if a {@code PointOfInterest} must be shown or not.
@@ -353,86 +418,127 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
          */
         private static final long SLEEP_TIME = (long)(OrientationSensor.SENSOR_DELAY*0.001);
 
-        /**
-         * Global constants
-         */
-        private static final float TEXT_SIZE = 70f;
-        private static final float STROKE_WIDTH = 1f;
-        private static final boolean ANTI_ALIAS_ENABLED = true;
-        private static final int TEXT_COLOR = Color.WHITE;
-        private static final int TEXT_BORDER_COLOR = Color.BLACK;
-
         /**
          * Constants for out of sight listInUse.
          */
         private final static int OUT_OF_SIGHT_ICON = R.drawable.out_of_sight_icon;
         private final static int OUT_OF_SIGHT_ICON_ANGLE_OFFSET = 90;
         private final static float OUT_OF_SIGHT_ICON_SCALE = 1.5f;
-        private final static float MARGIN = 0.9f;
 
         /**
          * Constants for in sight listInUse.
          */
         private static final int INSIGHT_ICON = R.drawable.in_sight_icon;
         private static final float IN_SIGHT_ICON_SCALE = 0.8f;
+        private static final float IN_SIGHT_ICON_RADIUS = IN_SIGHT_ICON_SCALE*19.5f;
+
+        /**
+         * Position of the first baseline inside a label, relative to the line height.
+         */
+        private static final float LABEL_BASELINE = 0.8f;
+
+        /**
+         * Projection of the points on screen.
+         */
+        private final OverlayProjection projection = new OverlayProjection();
+
+        /**
+         * Orientation of the current frame.
+         */
+        private final OrientationSnapshot.Reading orientation = new OrientationSnapshot.Reading();
+        private final Vector3D orientationVector = new Vector3D(0, 1, 0);
+
+        /**
+         * Direction to a point, reused for every point.
+         */
+        private final Vector2D vectorToPoint = new Vector2D(0, 1);
+
+        /**
+         * Reusable projection output.
+         */
+        private final float[] position = new float[3];
+
+        /**
+         * Places the labels of the in sight points without overlapping.
+         */
+        private final LabelLayout labelLayout = new LabelLayout(IN_SIGHT_ICON_RADIUS);
+
+        /**
+         * Groups the out of sight points along the screen border.
+         */
+        private final IndicatorClusters indicatorClusters =
+                new IndicatorClusters(IndicatorClusters.DEFAULT_BUCKETS);
+
+        /**
+         * Backend used to draw.
+         */
+        private OverlayRenderer renderer;
+
+        /**
+         * Points of the current frame and their coordinates.
+         */
+        private PointOfInterest[] framePoints = new PointOfInterest[0];
+        private float[] xs = new float[0], ys = new float[0];
+
+        /**
+         * Screen positions of the in sight points of the current frame, and their placed labels,
+         * null if the point shows just the icon.
+         */
+        private float[] screenXs = new float[0], screenYs = new float[0];
+        private float[] labelLefts = new float[0], labelTops = new float[0];
+        private String[][] labels = new String[0][];
 
         @Override
         public void run() {
-            Canvas canvas;
+
+            renderer = createRenderer();
 
             while(running){
 
-                canvas = view.lockCanvas();
+                if (!renderer.beginFrame()) {
+                    pause();
+                    continue;
+                }
 
-                /*
-                 * Set Background to transparent, also clear all previous draws,
-                 *  this must be do just once.
-                 */
-                canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+                updateViewport();
 
                 synchronized (points) {
 
-                    for(PointOfInterest point : points) {
+                    final int count = collectPoints();
 
-                        if (point.isUndefined()) {
-                            continue;
-                        }
+                    orientationSensor.readOrientation(orientation);
+                    OrientationPredictor.predict(orientation,
+                            OrientationPredictor.predictionTime(orientation.getTimestamp(),
+                                    SystemClock.elapsedRealtimeNanos(), PREDICTION_HORIZON),
+                            orientationVector);
 
-                        final Vector2D vectorToPoint =
-                        new Vector2D(
-                                point.getX() - mySelf.getX(),
-                                point.getY() - mySelf.getY()
-                        );
+                    visibilityPipeline.process(xs, ys, count, mySelf.getX(), mySelf.getY(),
+                            center.getScale(), orientationVector, projection);
 
-                        // Same position, skip.
-                        if (vectorToPoint.getY() == 0 && vectorToPoint.getX() == 0) {
-                            continue;
-                        }
+                    layoutPoints();
 
-                        vectorToPoint.normalize();
+                    // Farthest first, so nearest points are drawn on top
+                    for (int i = visibilityPipeline.getVisibleCount() - 1; i >= 0; i--) {
+                        drawPoint(i);
+                    }
 
-                        final Vector3D orientationVector =
-                                orientationSensor.getOrientationVector();
+                    clusterIndicators(orientationVector);
 
-                        if(inSight(vectorToPoint, orientationVector)){
-                            drawPoint(point, vectorToPoint, orientationVector, canvas);
-                        } else {
-                            drawIndicator(point, vectorToPoint, orientationVector, canvas);
+                    for (int i = 0; i < indicatorClusters.getBuckets(); i++) {
+                        if (0 < indicatorClusters.getCount(i)) {
+                            drawIndicator(i);
                         }
-
                     }
 
                 }
 
-                view.unlockCanvasAndPost(canvas);
+                renderer.endFrame();
 
-                try {
-                    Thread.sleep(SLEEP_TIME);
-                } catch (InterruptedException e){
-                    e.printStackTrace();
-                }
+                pause();
             }
 
+            renderer.release();
+
         }
 
         @Override
@@ -442,139 +548,198 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
         }
 
         /**
-         * Decide whether a {@code PointOfInterest} is in sight or not.
-         * @param vectorToPoint Direction vector from mySelf to the Point.
-         * @return True if the {@code PointOfInterest} is in sight, false otherwise.
+         * Sleeps until next frame.
          */
-        private boolean inSight(Vector2D vectorToPoint, Vector3D orientationVector) {
+        private void pause() {
+            try {
+                Thread.sleep(SLEEP_TIME);
+            } catch (InterruptedException e){
+                e.printStackTrace();
+            }
+        }
 
-            float fovWidth, fovHeight;
+        /**
+         * Copies the defined points and their coordinates to the frame arrays.
+         * @return the number of points copied.
+         */
+        private int collectPoints() {
 
-            if(activity.getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT){
-                fovWidth = camera.getFOVHeight();
-                fovHeight = camera.getFOVWidth();
-            } else {
-                fovWidth = camera.getFOVWidth();
-                fovHeight = camera.getFOVHeight();
+            if (framePoints.length < points.size()) {
+                framePoints = new PointOfInterest[points.size()];
+                xs = new float[points.size()];
+                ys = new float[points.size()];
             }
 
-            // Horizontal
-            final Vector2D orientationOnMap = new Vector2D(orientationVector.getX(), orientationVector.getY());
-            float horizontalTheta = (float) orientationOnMap.angle(vectorToPoint);
+            int count = 0;
+
+            for (PointOfInterest point : points) {
+
+                if (point.isUndefined()) {
+                    continue;
+                }
+
+                framePoints[count] = point;
+                xs[count] = point.getX();
+                ys[count] = point.getY();
+                count++;
+
+            }
+
+            return count;
+
+        }
+
+        /**
+         * Retrieves the normalized direction from mySelf to a point of the current frame.
+         * @param index of the point on the frame arrays.
+         * @return the direction vector, reused between calls.
+         */
+        private Vector2D vectorTo(int index) {
+            vectorToPoint.set(xs[index] - mySelf.getX(), ys[index] - mySelf.getY());
+            vectorToPoint.normalize();
+            return vectorToPoint;
+        }
+
+        /**
+         * Creates the renderer to use, the OpenGL one if the device supports it,
+         * falling back to the canvas one otherwise.
+         * @return the renderer.
+         */
+        private OverlayRenderer createRenderer() {
+
+            if (GLOverlayRenderer.isSupported(activity)) {
+                final GLOverlayRenderer renderer = new GLOverlayRenderer(view, activity.getResources(),
+                        new int[] {INSIGHT_ICON, OUT_OF_SIGHT_ICON});
+
+                if (renderer.init()) {
+                    return renderer;
+                }
+
+                renderer.release();
+            }
+
+            return new CanvasOverlayRenderer(view, activity.getResources());
+
+        }
+
+        /**
+         * Updates the projection to the current screen size and orientation.
+         */
+        private void updateViewport() {
 
-            //Vertical
-            final double verticalTheta = Math.abs(-90.0*orientationVector.getZ());
+            final CameraIntrinsics intrinsics = camera.getIntrinsics();
 
-            return ( horizontalTheta <= fovWidth/2 &&
-                     verticalTheta <= fovHeight/2 );
+            // Reuses the camera's projection matrix while neither the screen nor the camera session change
+            if (null != intrinsics) {
+                projection.setViewport(view.getWidth(), view.getHeight(), intrinsics, portrait);
+            }
 
         }
 
         /**
-         * Shows an indicator for points out of sight.
-         * @param point to indicate.
-         * @param canvas where to draw.
+         * Groups the out of sight points of the current frame by their direction on screen.
+         * @param orientationVector device's orientation.
          */
-        private void drawIndicator(PointOfInterest point, Vector2D vectorToPoint,
-                                   Vector3D orientationVector, Canvas canvas) {
+        private void clusterIndicators(Vector3D orientationVector) {
 
-            // Horizontal
-            final Vector2D orientationOnMap = new Vector2D(orientationVector.getX(), orientationVector.getY());
-            float x = (float) orientationOnMap.angleWithSign(vectorToPoint) / 180;
+            indicatorClusters.clear();
 
-            //Vertical
-            float y = (float) orientationVector.getZ();
+            for (int i = 0; i < visibilityPipeline.getIndicatorCount(); i++) {
+                final int index = visibilityPipeline.getIndicator(i);
+                projection.projectIndicator(vectorTo(index), orientationVector, position);
+                indicatorClusters.add(index, position[2], visibilityPipeline.getDistance(index));
+            }
 
-            final double angle = Vector2D.getAngle(x, y);
+        }
+
+        /**
+         * Shows an indicator for a group of points out of sight, with the name of the nearest one
+         * and how many others are in the same direction.
+         * @param bucket of the {@link IndicatorClusters} to indicate.
+         */
+        private void drawIndicator(int bucket) {
+
+            final double angle = indicatorClusters.getAngle(bucket);
+            final int edge = projection.edgePosition(angle, position);
+            final float x = position[0], y = position[1];
 
             float textOffSetX = 25f,
                     textOffSetY = 17.5f;
 
-            /*
-             * So once we get angle, we must remap it to coordinates. There are 2 kinds:
-             *  -Left screen and down screen, they go in reverse coordinates system
-             *  -Up and right screen are "normal" cases. However, right screen is special due to [0,360) angles
-             *
-             * Once we get corrected angle, we start coordinates from size*margin, and we multiply current angle to
-             * size of the "rect", size of rect is size of height or weight subtracting twice the margin.
-             */
-            if (0 <= angle && angle <= 45 ||
-                    315 <= angle && angle <= 360) {
-                x = view.getWidth()*MARGIN;
-                double correctedAngle;
-
-                // As angle can be > 315, correct it
-                if (315 <= angle && angle <= 360) {
-                    correctedAngle = Math.abs(360-angle-45);
-                } else {
-                    correctedAngle = angle + 45;
-                }
-
-                y = (float) (view.getHeight()*(1 - MARGIN) + ((correctedAngle/(45*2))) * view.getHeight()*(1- (1 - MARGIN) * 2));   //Decimal part from div by 45 angles
-                textOffSetX *= -3f;
-                textOffSetY *= -2.75f;
-            } else if (45 < angle && angle <= 135) {
-                final double correctedAngle =  135 - angle;
-                x = (float) (view.getWidth()*(1 - MARGIN) + (correctedAngle/(45*2)) * view.getWidth()*(1- (1 - MARGIN) * 2));
-                y = view.getHeight()*MARGIN;
-                textOffSetY = -textOffSetY;
-            } else if (135 < angle && angle <= 225) {
-                final double correctedAngle = 225 - angle;
-                x = view.getWidth()*(1-MARGIN);
-                y = (float) (view.getHeight()*(1 - MARGIN) + (correctedAngle/(45*2)) * view.getHeight()*(1- (1 - MARGIN) * 2));
-            } else {
-                final double correctedAngle = angle - 225;
-                x = (float) (view.getWidth()*(1 - MARGIN) + (correctedAngle/(45*2)) * view.getWidth()*(1- (1 - MARGIN) * 2));
-                y = view.getHeight()*(1-MARGIN);
-                textOffSetY *= 3f;
+            switch (edge) {
+                case OverlayProjection.EDGE_RIGHT:
+                    textOffSetX *= -3f;
+                    textOffSetY *= -2.75f;
+                    break;
+                case OverlayProjection.EDGE_BOTTOM:
+                    textOffSetY = -textOffSetY;
+                    break;
+                case OverlayProjection.EDGE_TOP:
+                    textOffSetY *= 3f;
+                    break;
             }
 
-            drawIcon(canvas, x, y, OUT_OF_SIGHT_ICON, (float)angle + OUT_OF_SIGHT_ICON_ANGLE_OFFSET, OUT_OF_SIGHT_ICON_SCALE);
-            drawText(canvas, new String[]{point.getName()}, x + textOffSetX, y + textOffSetY);
+            final PointOfInterest nearest = framePoints[indicatorClusters.getNearest(bucket)];
+            final int others = indicatorClusters.getCount(bucket) - 1;
+            final String[] texts = 0 == others ?
+                    new String[]{nearest.getName()} :
+                    new String[]{nearest.getName(), "+" + others};
+
+            renderer.drawIcon(x, y, OUT_OF_SIGHT_ICON, (float) angle + OUT_OF_SIGHT_ICON_ANGLE_OFFSET, OUT_OF_SIGHT_ICON_SCALE);
+            renderer.drawText(texts, x + textOffSetX, y + textOffSetY);
 
         }
 
         /**
-         * Draws the given {@code PointOfInterest} in the corresponding position.</br>
-         * Notice that canvas should be set to transparent and all previous draws must be removed,
-         * just once,  before calling this method.
-         * @param point to be drawn.
-         * @param canvas to draw on.
+         * Places the labels of the in sight points of the current frame,
+         * nearest points first so they keep their labels when there is no room for all.
          */
-        @SuppressLint("DefaultLocale")
-        private void drawPoint(PointOfInterest point, Vector2D vectorToPoint,
-                               Vector3D orientationVector, Canvas canvas) {
+        private void layoutPoints() {
+
+            final int count = visibilityPipeline.getVisibleCount();
+
+            if (screenXs.length < count) {
+                screenXs = new float[count];
+                screenYs = new float[count];
+                labelLefts = new float[count];
+                labelTops = new float[count];
+                labels = new String[count][];
+            }
+
+            labelLayout.begin(view.getWidth(), view.getHeight());
 
             /*
-             * First get the actual position on screen.
+             * Icons first, so no label covers any of them.
              */
-            float fovWidth, fovHeight;
-
-            if(activity.getResources().getConfiguration().orientation == Configuration.ORIENTATION_PORTRAIT){
-                fovWidth = camera.getFOVHeight();
-                fovHeight = camera.getFOVWidth();
-            } else {
-                fovWidth = camera.getFOVWidth();
-                fovHeight = camera.getFOVHeight();
+            for (int i = 0; i < count; i++) {
+                screenXs[i] = visibilityPipeline.getScreenX(i);
+                screenYs[i] = visibilityPipeline.getScreenY();
+                labelLayout.addObstacle(screenXs[i] - IN_SIGHT_ICON_RADIUS, screenYs[i] - IN_SIGHT_ICON_RADIUS,
+                        screenXs[i] + IN_SIGHT_ICON_RADIUS, screenYs[i] + IN_SIGHT_ICON_RADIUS);
             }
 
-            // Horizontal
-            final Vector2D orientationOnMap =
-                    new Vector2D(orientationVector.getX(), orientationVector.getY());
-            final double horizontalTheta = orientationOnMap.angleWithSign(vectorToPoint);
+            for (int i = 0; i < count; i++) {
+                labels[i] = null;
 
-            //Vertical
-            final double verticalTheta = -90.0*orientationVector.getZ();
+                if (VisibilityPipeline.LOD_FULL == visibilityPipeline.getLevel(i)) {
+                    layoutLabel(i);
+                }
+            }
 
-            final float x = (float) (view.getWidth()/2 + horizontalTheta*view.getWidth()/fovWidth),
-                        y = (float) (view.getHeight()/2 - verticalTheta*view.getHeight()/fovHeight);
+            labelLayout.end();
 
-            Vector2D distanceVector = new Vector2D(
-                    point.getX() - mySelf.getX(),
-                    point.getY() - mySelf.getY()
-            );
+        }
+
+        /**
+         * Places the label of an in sight point, if there is room for it.
+         * @param i position of the point on the {@link VisibilityPipeline}.
+         */
+        @SuppressLint("DefaultLocale")
+        private void layoutLabel(int i) {
+
+            final int index = visibilityPipeline.getVisible(i);
+            final PointOfInterest point = framePoints[index];
 
-            double distance = distanceVector.module() * center.getScale();
             int floorDelta = point.getZ() - mySelf.getZ();
             String floorIndicator = "";
 
@@ -584,66 +749,33 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
                 floorIndicator = " " + floorDelta + "\u25BC";
             }
 
-            drawIcon(canvas, x, y, INSIGHT_ICON, 0, IN_SIGHT_ICON_SCALE);
-            drawText(canvas, new String[]{point.getName(),
-                            String.format("%.2fm", distance) +
-                            floorIndicator},
-                    x + IN_SIGHT_ICON_SCALE*19.5f, y + IN_SIGHT_ICON_SCALE*17.5f);
-
-        }
-
-        /**
-         * Draws a icon to show positioning.
-         * @param canvas where to draw
-         * @param x abscissa
-         * @param y ordinate
-         * @param angle angle to rotate icon
-         */
-        private void drawIcon(final Canvas canvas, final float x, final float y, final int icon, final float angle, final float scale) {
-
-            Matrix matrix = new Matrix();
-            matrix.postRotate(angle);
-            matrix.postScale(scale, scale);
+            final String[] texts = new String[]{point.getName(),
+                    String.format("%.2fm", visibilityPipeline.getDistance(index)) +
+                    floorIndicator};
 
-            final Bitmap original = BitmapFactory.decodeResource(activity.getResources(), icon);
-            final Bitmap iconBitmap = Bitmap.createBitmap(original, 0, 0, original.getWidth(), original.getHeight(), matrix, true);
+            final float width = Math.max(renderer.measureText(texts[0]), renderer.measureText(texts[1]));
+            final float height = renderer.getLineHeight() * texts.length;
 
-            final Paint paint = new Paint();
-            canvas.drawBitmap(
-                    iconBitmap,
-                    x - (iconBitmap.getWidth() / 2),
-                    y - (iconBitmap.getHeight() / 2),
-                    paint);
+            if (labelLayout.place(point.getId(), screenXs[i], screenYs[i], width, height)) {
+                labels[i] = texts;
+                labelLefts[i] = labelLayout.getLeft();
+                labelTops[i] = labelLayout.getTop();
+            }
 
         }
 
         /**
-         * Draws the given texts, one below others.
-         * @param canvas where to draw
-         * @param texts to draw
-         * @param x abscissa
-         * @param y ordinate
+         * Draws an in sight point in the position given by {@link #layoutPoints()},
+         * along with its label if it has one.
+         * @param i position of the point on the {@link VisibilityPipeline}.
          */
-        private void drawText(final Canvas canvas, final String[] texts , final float x, final float y) {
-
-            final Paint paint = new Paint();
-            final Paint border = new Paint();
-            final float textSize = view.getHeight() < view.getWidth() ? TEXT_SIZE*view.getHeight()/1080 : TEXT_SIZE*view.getWidth()/1080;
-
-            paint.setAntiAlias(ANTI_ALIAS_ENABLED);
-            paint.setTextSize(textSize);
-            paint.setStyle(Paint.Style.FILL);
-            paint.setColor(TEXT_COLOR);
-
-            border.setAntiAlias(ANTI_ALIAS_ENABLED);
-            border.setTextSize(textSize);
-            border.setStyle(Paint.Style.STROKE);
-            border.setStrokeWidth(STROKE_WIDTH);
-            border.setColor(TEXT_BORDER_COLOR);
-
-            for(int i = 0; i < texts.length; i++) {
-                canvas.drawText(texts[i], x, y + textSize*i, paint);
-                canvas.drawText(texts[i], x, y + textSize*i, border);
+        private void drawPoint(int i) {
+
+            renderer.drawIcon(screenXs[i], screenYs[i], INSIGHT_ICON, 0, IN_SIGHT_ICON_SCALE);
+
+            if (null != labels[i]) {
+                renderer.drawText(labels[i], labelLefts[i],
+                        labelTops[i] + renderer.getLineHeight() * LABEL_BASELINE);
             }
 
         }
@@ -707,14 +839,24 @@ class OverlayView implements OrientationSensor.OrientationSensorDelegate {
                     }
                 };
 
-                // Update mySelf
-                mySelf.updatePosition(activity.getApplicationContext(), delegate);
+                // Update mySelf, walks between positions calibrate the heading
+                center.updatePosition(activity.getApplicationContext(), mySelf, new PersistenceOperationDelegate() {
+                    @Override
+                    public void onSuccess() {
+                        orientationSensor.updatePosition(mySelf.getX(), mySelf.getY(), mySelf.getZ());
+                    }
+
+                    @Override
+                    public void onError(Errors error) {
+                        delegate.onError(error);
+                    }
+                });
 
                 numPetitionsWithoutCheck++;
 
                 // Update all other points
                 for (final PointOfInterest point : OverlayView.this.points) {
-                    point.updatePosition(activity.getApplicationContext(), delegate);
+                    center.updatePosition(activity.getApplicationContext(), point, delegate);
                     numPetitionsWithoutCheck++;
                 }
 
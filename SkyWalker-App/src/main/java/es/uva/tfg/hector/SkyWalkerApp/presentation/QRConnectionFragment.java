@@ -1,10 +1,12 @@
 package es.uva.tfg.hector.SkyWalkerApp.presentation;
 
 
-import android.graphics.Bitmap;
+import android.graphics.ImageFormat;
+import android.graphics.Rect;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.design.widget.Snackbar;
+import android.util.Log;
 import android.util.SparseArray;
 import android.view.LayoutInflater;
 import android.view.TextureView;
@@ -18,8 +20,14 @@ import com.google.android.gms.vision.barcode.BarcodeDetector;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.nio.ByteBuffer;
+
 import es.uva.tfg.hector.SkyWalkerApp.R;
+import es.uva.tfg.hector.SkyWalkerApp.business.Camera;
+import es.uva.tfg.hector.SkyWalkerApp.services.FinderPatternScanner;
+import es.uva.tfg.hector.SkyWalkerApp.services.FramePipeline;
 import es.uva.tfg.hector.SkyWalkerApp.services.PersistenceOperationDelegate;
+import es.uva.tfg.hector.SkyWalkerApp.services.RegionTracker;
 
 /**
  * Fragment to handle QR UI connections.
@@ -33,6 +41,11 @@ public class QRConnectionFragment extends NewConnectionFragment {
      */
     private static final int WIDTH = 1024, HEIGHT = 768;
 
+    /**
+     * Desired size of the frames scanned for QRs, smaller than the preview.
+     */
+    private static final int FRAME_WIDTH = 640, FRAME_HEIGHT = 480;
+
     /**
      * Error snackbar instance.
      */
@@ -68,6 +81,23 @@ public class QRConnectionFragment extends NewConnectionFragment {
      */
     private boolean stopped = true;
 
+    /**
+     * Camera frames waiting to be scanned, only the latest one is kept.
+     */
+    private final FramePipeline framePipeline = new FramePipeline();
+
+    /**
+     * Offers every camera frame to the pipeline.
+     */
+    private final Camera.PreviewFrameListener frameListener = new Camera.PreviewFrameListener() {
+
+        @Override
+        public void onPreviewFrame(byte[] data, int width, int height) {
+            framePipeline.offer(data, width, height);
+        }
+
+    };
+
     @Override
     public View onCreateView(LayoutInflater inflater, ViewGroup container,
                              Bundle savedInstanceState) {
@@ -76,6 +106,7 @@ public class QRConnectionFragment extends NewConnectionFragment {
 
         cameraPreview = (TextureView) rootView.findViewById(R.id.camera_view);
         camera = new CameraPreview(cameraPreview, getActivity(), WIDTH, HEIGHT);
+        camera.getCamera().setPreviewFrameListener(frameListener, FRAME_WIDTH, FRAME_HEIGHT);
 
         barcodeDetector = new BarcodeDetector.Builder(getContext())
                             .setBarcodeFormats(Barcode.QR_CODE)
@@ -117,6 +148,9 @@ public class QRConnectionFragment extends NewConnectionFragment {
     public void stopDetection() {
         detectorThread.interrupt();
         detectorThread = null;
+
+        Log.d("QR detection", framePipeline.getFramesDecoded() + " of " + framePipeline.getFramesIn()
+                + " frames decoded, " + framePipeline.getDecodeLatency() / 1000000 + " ms per decode");
     }
 
     /**
@@ -132,6 +166,7 @@ public class QRConnectionFragment extends NewConnectionFragment {
     void showError(PersistenceOperationDelegate.Errors error) {
 
         connecting = false;
+        framePipeline.setEnabled(true);
 
         if(snackbar != null) {
             return;
@@ -174,6 +209,9 @@ public class QRConnectionFragment extends NewConnectionFragment {
 
         connecting = true;
 
+        // No frame is copied nor decoded while connecting
+        framePipeline.setEnabled(false);
+
         new AsyncTask<String, Void, String[]>() {
             @Override
             protected String[] doInBackground(String... params) {
@@ -234,38 +272,86 @@ public class QRConnectionFragment extends NewConnectionFragment {
 
     /**
      * Thread to handle QR detection,
-     * it gets the camera's image,
-     * checks for QR using a barcode detector and sleeps until next frame.
+     * it waits for the camera's latest frame
+     * and checks for QR using a barcode detector.
+     * Frames are first scanned for finder patterns on a downscaled center crop, and only decoded
+     * if some is found, then only the surroundings of the last QR found are decoded.
      */
     private class QRDetectorThread extends Thread {
 
         /**
-         * Thread's sleeping time.
+         * Number of frames without finder patterns after which the whole frame is decoded anyway,
+         * for QRs out of the scanned crop or too small for it.
          */
-        private static final long SLEEP_TIME = 1000 / 30; //1 sec / 30 fps
+        private static final int FULL_SCAN_PERIOD = 15;
 
         /**
          * Indicator for thread state.
          */
         private volatile boolean running = true;
 
+        /**
+         * Cheap search of QRs on the whole frame.
+         */
+        private final FinderPatternScanner finderScanner = new FinderPatternScanner();
+
+        /**
+         * Region where the last QR was found.
+         */
+        private final RegionTracker regionTracker = new RegionTracker();
+
+        /**
+         * Frames skipped since the last decode of a whole frame.
+         */
+        private int skippedFrames;
+
         @Override
         public void run() {
             while (running) {
-                Bitmap bitmap = cameraPreview.getBitmap();
-                if (bitmap == null) {
-                    try {
-                        sleep(SLEEP_TIME);
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
+                final ByteBuffer data;
+
+                try {
+                    data = framePipeline.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                final long start = System.nanoTime();
+                final int width = framePipeline.getWidth(), height = framePipeline.getHeight();
+                final int left, top;
+                final SparseArray<Barcode> results;
+
+                if (regionTracker.isTracking()) {
+                    left = regionTracker.getLeft();
+                    top = regionTracker.getTop();
+                    results = detect(regionTracker.crop(data.array(), width),
+                            regionTracker.getWidth(), regionTracker.getHeight());
+                } else if (finderScanner.scan(data.array(), width, height) > 0
+                        || ++skippedFrames >= FULL_SCAN_PERIOD) {
+                    left = top = 0;
+                    skippedFrames = 0;
+                    results = detect(data, width, height);
+                } else {
+                    left = top = 0;
+                    results = null;
+                }
+
+                framePipeline.decoded(System.nanoTime() - start);
+
+                if (null == results) {
+                    continue;
+                }
+
+                if (0 == results.size()) {
+                    if (regionTracker.isTracking()) {
+                        regionTracker.missed();
                     }
                     continue;
                 }
-                Frame frame = new Frame.Builder()
-                        .setBitmap(bitmap)
-                        .build();
 
-                SparseArray<Barcode> results = barcodeDetector.detect(frame);
+                final Rect bounds = results.valueAt(0).getBoundingBox();
+                regionTracker.found(left + bounds.left, top + bounds.top,
+                        left + bounds.right, top + bounds.bottom, width, height);
 
                 for (int i = 0; i < results.size(); i++) {
                     final String content = results.valueAt(i).displayValue;
@@ -276,16 +362,28 @@ public class QRConnectionFragment extends NewConnectionFragment {
                     }
                 }
 
-                try {
-                    sleep(SLEEP_TIME);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-
             }
 
         }
 
+        /**
+         * Decodes the QRs of a frame.
+         * @param data of the frame, as NV21.
+         * @param width of the frame.
+         * @param height of the frame.
+         * @return the QRs found.
+         */
+        private SparseArray<Barcode> detect(ByteBuffer data, int width, int height) {
+
+            // The NV21 frame is scanned as it is, no bitmap involved
+            Frame frame = new Frame.Builder()
+                    .setImageData(data, width, height, ImageFormat.NV21)
+                    .build();
+
+            return barcodeDetector.detect(frame);
+
+        }
+
         @Override
         public void interrupt() {
             super.interrupt();
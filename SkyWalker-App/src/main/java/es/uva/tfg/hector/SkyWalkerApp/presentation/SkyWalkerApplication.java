@@ -0,0 +1,23 @@
+package es.uva.tfg.hector.SkyWalkerApp.presentation;
+
+import android.app.Application;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.FastMath;
+
+/**
+ * App's process wide setup, done once before any component starts.
+ * @author Hector Del Campo Pando
+ */
+public class SkyWalkerApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+
+        // Everything the App computes with FastMath is drawn on screen, per frame angles and
+        // indicator positions, where the approximations' error is far below a pixel.
+        // It is a process wide setting, so it is chosen here and never changed afterwards.
+        FastMath.setExact(false);
+    }
+
+}
@@ -0,0 +1,73 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.BatchProjector;
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+
+/**
+ * Scaling of the batch projection with the number of points, on the calling thread and on a pool,
+ * in double and single precision.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class BatchProjectorBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "100000"})
+    public int points;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"false", "true"})
+    public boolean floatPrecision;
+
+    private float[] xs, ys;
+    private final OverlayProjection projection = new OverlayProjection();
+    private BatchProjector projector;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        xs = new float[points];
+        ys = new float[points];
+        for (int i = 0; i < points; i++) {
+            xs[i] = random.nextFloat();
+            ys[i] = random.nextFloat();
+        }
+
+        projection.setViewport(1080, 1920, 60, 45);
+        projection.setOrientation(new Vector3D(0.3, 0.9, 0.1));
+
+        projector = new BatchProjector(points);
+        projector.setFloatPrecision(floatPrecision);
+        if (parallel) {
+            pool = new ForkJoinPool();
+            projector.setPool(pool);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (null != pool) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public float project() {
+        projector.project(xs, ys, points, 0.5f, 0.5f, 128, projection);
+        return projector.getDistance(points - 1);
+    }
+
+}
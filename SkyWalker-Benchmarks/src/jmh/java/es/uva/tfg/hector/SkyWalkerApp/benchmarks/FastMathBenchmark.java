@@ -0,0 +1,55 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.FastMath;
+
+/**
+ * Exact functions against their approximations, over a changing argument so nothing is folded.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class FastMathBenchmark {
+
+    private double angle = 0.1, y = 0.3;
+    private float value = 1.5f;
+
+    @Benchmark
+    public double atan2Exact() {
+        y += 0.001;
+        return Math.atan2(y, 0.7);
+    }
+
+    @Benchmark
+    public double atan2Fast() {
+        y += 0.001;
+        return FastMath.fastAtan2(y, 0.7);
+    }
+
+    @Benchmark
+    public double sinExact() {
+        angle += 0.001;
+        return Math.sin(angle);
+    }
+
+    @Benchmark
+    public double sinFast() {
+        angle += 0.001;
+        return FastMath.fastSin(angle);
+    }
+
+    @Benchmark
+    public float invSqrtExact() {
+        value += 0.001f;
+        return (float) (1 / Math.sqrt(value));
+    }
+
+    @Benchmark
+    public float invSqrtFast() {
+        value += 0.001f;
+        return FastMath.fastInvSqrt(value);
+    }
+
+}
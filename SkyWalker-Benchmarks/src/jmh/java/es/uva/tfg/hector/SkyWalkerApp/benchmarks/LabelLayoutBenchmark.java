@@ -0,0 +1,64 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.LabelLayout;
+
+/**
+ * Cost of a frame's label layout with the number of visible points, laid out as the overlay does:
+ * every icon as an obstacle first, then every label, all of them on the horizon's ordinate.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class LabelLayoutBenchmark {
+
+    private static final int WIDTH = 1080, HEIGHT = 1920;
+    private static final float ICON_RADIUS = 30, LABEL_WIDTH = 200, LABEL_HEIGHT = 80;
+
+    @Param({"10", "100", "1000"})
+    public int points;
+
+    private float[] xs;
+    private final LabelLayout layout = new LabelLayout(ICON_RADIUS);
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        xs = new float[points];
+        for (int i = 0; i < points; i++) {
+            xs[i] = random.nextFloat() * WIDTH;
+        }
+
+        // Steady state, labels already have a position from the previous frame
+        frame();
+    }
+
+    @Benchmark
+    public int frame() {
+        final float y = HEIGHT / 2;
+        int placed = 0;
+
+        layout.begin(WIDTH, HEIGHT);
+
+        for (int i = 0; i < points; i++) {
+            layout.addObstacle(xs[i] - ICON_RADIUS, y - ICON_RADIUS, xs[i] + ICON_RADIUS, y + ICON_RADIUS);
+        }
+
+        for (int i = 0; i < points; i++) {
+            if (layout.place(i, xs[i], y, LABEL_WIDTH, LABEL_HEIGHT)) {
+                placed++;
+            }
+        }
+
+        layout.end();
+
+        return placed;
+    }
+
+}
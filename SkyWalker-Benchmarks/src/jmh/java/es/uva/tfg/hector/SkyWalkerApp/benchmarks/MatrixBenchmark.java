@@ -0,0 +1,51 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.Matrix;
+
+/**
+ * Matrix multiplication, from the rotation sizes to the blocked path.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class MatrixBenchmark {
+
+    @Param({"3", "4", "16", "64"})
+    public int size;
+
+    private Matrix left, right, destination;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        left = new Matrix(size, size);
+        right = new Matrix(size, size);
+        destination = new Matrix(size, size);
+
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
+                left.set(i, j, random.nextDouble());
+                right.set(i, j, random.nextDouble());
+            }
+        }
+    }
+
+    @Benchmark
+    public Matrix multiply() {
+        return left.multiply(right);
+    }
+
+    @Benchmark
+    public Matrix multiplyInto() {
+        left.multiplyInto(right, destination);
+        return destination;
+    }
+
+}
@@ -0,0 +1,64 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationFilter;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationProcessor;
+import es.uva.tfg.hector.SkyWalkerApp.services.QuaternionFilter;
+
+/**
+ * Per sample cost of the orientation filters, fed with a slowly turning rotation vector.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class OrientationBenchmark {
+
+    /**
+     * Samples of a turn around the vertical axis, as unit quaternions.
+     */
+    private static final int SAMPLES = 1024;
+    private final float[][] samples = new float[SAMPLES][4];
+    private int next;
+    private long timestamp;
+
+    private final OrientationFilter lowPass = new OrientationFilter(0);
+    private final QuaternionFilter quaternion = new QuaternionFilter(0);
+    private final OrientationProcessor processor = new OrientationProcessor(0);
+
+    @Setup
+    public void setUp() {
+        for (int i = 0; i < SAMPLES; i++) {
+            final double half = Math.PI * i / SAMPLES;
+            samples[i][2] = (float) Math.sin(half);
+            samples[i][3] = (float) Math.cos(half);
+        }
+    }
+
+    private float[] nextSample() {
+        next = (next + 1) & (SAMPLES - 1);
+        return samples[next];
+    }
+
+    @Benchmark
+    public double lowPassFilter() {
+        lowPass.update(nextSample());
+        return lowPass.getX();
+    }
+
+    @Benchmark
+    public double quaternionFilter() {
+        quaternion.update(nextSample());
+        return quaternion.getX();
+    }
+
+    @Benchmark
+    public double processor() {
+        timestamp += 5000000;
+        processor.onRotationVector(timestamp, nextSample());
+        return processor.getX();
+    }
+
+}
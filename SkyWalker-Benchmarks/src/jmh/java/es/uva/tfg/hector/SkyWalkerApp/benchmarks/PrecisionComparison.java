@@ -0,0 +1,75 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.BatchProjector;
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+
+/**
+ * Compares the single precision projection against the double precision one on random frames,
+ * reporting how far, in pixels, points move on screen and how long each one takes.
+ * Speed is only indicative here, BatchProjectorBenchmark measures it properly.
+ * @author Hector Del Campo Pando
+ */
+public final class PrecisionComparison {
+
+    private static final int POINTS = 10000, FRAMES = 500;
+
+    private PrecisionComparison() {
+
+    }
+
+    public static void main(String[] args) {
+
+        final Random random = new Random(42);
+        final float[] xs = new float[POINTS], ys = new float[POINTS];
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = random.nextFloat();
+            ys[i] = random.nextFloat();
+        }
+
+        final OverlayProjection projection = new OverlayProjection();
+        projection.setViewport(1080, 1920, 60, 45);
+
+        final BatchProjector exact = new BatchProjector(POINTS), single = new BatchProjector(POINTS);
+        single.setFloatPrecision(true);
+
+        double maxPixels = 0, sumPixels = 0, maxDistance = 0;
+        long compared = 0, flipped = 0, exactNanos = 0, singleNanos = 0;
+
+        for (int frame = 0; frame < FRAMES; frame++) {
+            final double angle = random.nextDouble() * 2 * Math.PI;
+            projection.setOrientation(new Vector3D(Math.cos(angle), Math.sin(angle), random.nextDouble() * 0.4 - 0.2));
+
+            long start = System.nanoTime();
+            exact.project(xs, ys, POINTS, 0.5f, 0.5f, 128, projection);
+            exactNanos += System.nanoTime() - start;
+
+            start = System.nanoTime();
+            single.project(xs, ys, POINTS, 0.5f, 0.5f, 128, projection);
+            singleNanos += System.nanoTime() - start;
+
+            for (int i = 0; i < POINTS; i++) {
+                maxDistance = Math.max(maxDistance, Math.abs(exact.getDistance(i) - single.getDistance(i)));
+
+                if (exact.getState(i) != single.getState(i)) {
+                    flipped++;
+                } else if (BatchProjector.IN_SIGHT == exact.getState(i)) {
+                    final double pixels = Math.abs(exact.getScreenX(i) - single.getScreenX(i));
+                    maxPixels = Math.max(maxPixels, pixels);
+                    sumPixels += pixels;
+                    compared++;
+                }
+            }
+        }
+
+        System.out.printf("Points in sight compared: %d, visibility changed: %d%n", compared, flipped);
+        System.out.printf("Screen error: max %.6f px, mean %.6f px%n", maxPixels, sumPixels / Math.max(1, compared));
+        System.out.printf("Distance error: max %.6f m%n", maxDistance);
+        System.out.printf("Time per frame: double %.1f us, float %.1f us%n",
+                exactNanos / 1e3 / FRAMES, singleNanos / 1e3 / FRAMES);
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+import es.uva.tfg.hector.SkyWalkerApp.services.VisibilityPipeline;
+
+/**
+ * Overlay frame math: deciding which points are in sight and where they land on screen.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class ProjectionBenchmark {
+
+    @Param({"50", "500", "5000"})
+    public int points;
+
+    private float[] xs, ys;
+    private final OverlayProjection projection = new OverlayProjection();
+    private final Vector3D orientation = new Vector3D(0.3, 0.9, 0.1);
+    private final Vector2D vectorToPoint = new Vector2D(0, 0);
+    private final float[] screen = new float[2];
+    private VisibilityPipeline pipeline;
+
+    @Setup
+    public void setUp() {
+        final Random random = new Random(42);
+        xs = new float[points];
+        ys = new float[points];
+        for (int i = 0; i < points; i++) {
+            xs[i] = random.nextFloat();
+            ys[i] = random.nextFloat();
+        }
+
+        projection.setViewport(1080, 1920, 60, 45);
+        pipeline = new VisibilityPipeline(points);
+    }
+
+    /**
+     * Whole frame through the batched pipeline.
+     */
+    @Benchmark
+    public int pipeline() {
+        pipeline.process(xs, ys, points, 0.5f, 0.5f, 128, orientation, projection);
+        return pipeline.getVisibleCount();
+    }
+
+    /**
+     * Whole frame point by point, as the overlay did before the pipeline.
+     */
+    @Benchmark
+    public int perPoint() {
+        int visible = 0;
+
+        for (int i = 0; i < points; i++) {
+            vectorToPoint.set(xs[i] - 0.5, ys[i] - 0.5);
+            if (projection.inSight(vectorToPoint, orientation)) {
+                projection.project(vectorToPoint, orientation, screen);
+                visible++;
+            }
+        }
+
+        return visible;
+    }
+
+}
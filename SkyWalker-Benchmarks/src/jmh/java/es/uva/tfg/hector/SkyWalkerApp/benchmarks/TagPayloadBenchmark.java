@@ -0,0 +1,71 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing of the server's tags and receivers payloads, walked the same way the ServerFacade does.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class TagPayloadBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int tags;
+
+    private String tagsPayload, receiversPayload;
+
+    @Setup
+    public void setUp() {
+        final StringBuilder tagsBuilder = new StringBuilder("["), receiversBuilder = new StringBuilder("[");
+
+        for (int i = 0; i < tags; i++) {
+            if (i > 0) {
+                tagsBuilder.append(',');
+                receiversBuilder.append(',');
+            }
+            tagsBuilder.append("{\"id\":").append(i).append(",\"name\":\"Tag ").append(i).append("\"}");
+            receiversBuilder.append("{\"id\":").append(i).append(",\"x\":").append(i * 0.37f)
+                    .append(",\"y\":").append(i * 0.11f).append(",\"z\":").append(i % 3).append('}');
+        }
+
+        tagsPayload = tagsBuilder.append(']').toString();
+        receiversPayload = receiversBuilder.append(']').toString();
+    }
+
+    @Benchmark
+    public int parseTags() throws JSONException {
+        final JSONArray response = new JSONArray(tagsPayload);
+        int checksum = 0;
+
+        for (int i = 0; i < response.length(); i++) {
+            final JSONObject json = response.getJSONObject(i);
+            checksum += json.getInt("id");
+            if (json.has("name")) {
+                checksum += json.getString("name").length();
+            }
+        }
+
+        return checksum;
+    }
+
+    @Benchmark
+    public float parseReceivers() throws JSONException {
+        final JSONArray response = new JSONArray(receiversPayload);
+        float checksum = 0;
+
+        for (int i = 0; i < response.length(); i++) {
+            final JSONObject json = response.getJSONObject(i);
+            checksum += json.getInt("id") + (float) json.getDouble("x") + (float) json.getDouble("y") + json.getInt("z");
+        }
+
+        return checksum;
+    }
+
+}
@@ -0,0 +1,97 @@
+package es.uva.tfg.hector.SkyWalkerApp.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.FastMath;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+
+/**
+ * Vector operations run per point and per frame, both allocating and on reused vectors.
+ * @author Hector Del Campo Pando
+ */
+@State(Scope.Thread)
+public class VectorBenchmark {
+
+    private static final int POINTS = 256;
+
+    @Param({"true", "false"})
+    public boolean exact;
+
+    private final float[] xs = new float[POINTS], ys = new float[POINTS];
+    private final float[] originalXs = new float[POINTS], originalYs = new float[POINTS];
+    private final Vector2D vector = new Vector2D(0.3, 0.8), other = new Vector2D(-0.6, 0.2);
+    private final Vector2D out = new Vector2D(0, 0);
+    private final Vector3D vector3D = new Vector3D(0.2, 0.9, -0.1), other3D = new Vector3D(0.5, -0.3, 0.7);
+    private final Vector3D out3D = new Vector3D(0, 0, 0);
+
+    @Setup
+    public void setUp() {
+        FastMath.setExact(exact);
+
+        final Random random = new Random(42);
+        for (int i = 0; i < POINTS; i++) {
+            originalXs[i] = random.nextFloat() * 100 - 50;
+            originalYs[i] = random.nextFloat() * 100 - 50;
+        }
+    }
+
+    @Benchmark
+    public double angle() {
+        return vector.angle(other);
+    }
+
+    @Benchmark
+    public double angleWithSign() {
+        return vector.angleWithSign(other);
+    }
+
+    @Benchmark
+    public double getAngle() {
+        return Vector2D.getAngle(vector.getX(), vector.getY());
+    }
+
+    @Benchmark
+    public Vector2D rotateClockwiseAllocating() {
+        final Vector2D rotated = new Vector2D(vector.getX(), vector.getY());
+        rotated.rotateClockwise(37);
+        return rotated;
+    }
+
+    @Benchmark
+    public Vector2D rotateClockwiseInto() {
+        vector.rotateClockwise(37, out);
+        return out;
+    }
+
+    @Benchmark
+    public double rotatedAngleWithSign() {
+        return vector.rotatedAngleWithSign(37, other);
+    }
+
+    @Benchmark
+    public float[] normalizePoints() {
+        System.arraycopy(originalXs, 0, xs, 0, POINTS);
+        System.arraycopy(originalYs, 0, ys, 0, POINTS);
+        Vector2D.normalize(xs, ys, POINTS);
+        return xs;
+    }
+
+    @Benchmark
+    public Vector3D crossProductInto() {
+        vector3D.crossProduct(other3D, out3D);
+        return out3D;
+    }
+
+    @Benchmark
+    public double angle3D() {
+        return vector3D.angle(other3D);
+    }
+
+}
@@ -1,10 +1,5 @@
 package es.uva.tfg.hector.SkyWalkerApp.business;
 
-import android.content.Context;
-
-import es.uva.tfg.hector.SkyWalkerApp.persistence.ServerFacade;
-import es.uva.tfg.hector.SkyWalkerApp.services.PersistenceOperationDelegate;
-
 /**
  * A Map point, with coordinates, number of floor and ID.
  * @author Héctor Del Campo Pando
@@ -107,47 +102,6 @@ public class MapPoint {
         return id;
     }
 
-    /**
-     * Updates the position of the point, asking the persistence system the new one.
-     * @param context to use.
-     * @param delegate callback for success or error events.
-     */
-    public void updatePosition (Context context, final PersistenceOperationDelegate delegate) {
-        ServerFacade.getInstance(context).
-                getLastPosition(new ServerFacade.OnServerResponse<MapPoint>() {
-                    @Override
-                    public void onSuccess(MapPoint newPosition) {
-
-                                setX(newPosition.getY());
-                                setY(newPosition.getX());
-                                setZ(newPosition.getZ());
-
-                        if (null != delegate) {
-                            delegate.onSuccess();
-                        }
-
-                    }
-
-                    @Override
-                    public void onError(ServerFacade.Errors error) {
-                        PersistenceOperationDelegate.Errors errorToBack;
-
-                        switch (error) {
-                            case NO_CONNECTION: case TIME_OUT:
-                                errorToBack = PersistenceOperationDelegate.Errors.INTERNET_ERROR;
-                                break;
-                            default:
-                                errorToBack = PersistenceOperationDelegate.Errors.SERVER_ERROR;
-                                break;
-                        }
-
-                        if (null != delegate) {
-                            delegate.onError(errorToBack);
-                        }
-                    }
-                }, this);
-    }
-
     @Override
     public boolean equals(Object o) {
 
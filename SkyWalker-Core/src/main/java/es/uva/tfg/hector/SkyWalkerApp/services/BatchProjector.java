@@ -0,0 +1,274 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Projects a whole frame of points at once, from their coordinates as separate arrays
+ * into distances, screen abscissas and visibility states, using the camera basis of an {@link OverlayProjection}.
+ * Small frames run on the calling thread, big ones are split into chunks on a fork-join pool, if one is set.
+ * Results of every point only depend on its own coordinates, so both ways give the same results.
+ * Projection can be done in double precision, the default, or in single precision, which keeps
+ * screen positions within a fraction of a pixel, see {@link #setFloatPrecision(boolean)}.
+ * @author Hector Del Campo Pando
+ */
+public class BatchProjector {
+
+    /**
+     * Visibility states of a point.
+     */
+    public static final byte OUT_OF_SIGHT = 0, IN_SIGHT = 1, SAME_POSITION = 2;
+
+    /**
+     * Number of points from which frames are split on the pool.
+     */
+    public static final int PARALLEL_THRESHOLD = 8192;
+
+    /**
+     * Number of points projected by each task, big enough to pay for its scheduling.
+     */
+    private static final int CHUNK = 2048;
+
+    /**
+     * Pool where big frames are split, null to always project on the calling thread.
+     */
+    private volatile ForkJoinPool pool;
+
+    /**
+     * Whether frames are projected in single precision.
+     */
+    private volatile boolean floatPrecision;
+
+    /**
+     * Frame being projected.
+     */
+    private float[] xs, ys;
+    private float originX, originY, scale;
+    private OverlayProjection projection;
+    private boolean frameFloatPrecision;
+
+    /**
+     * Results of the last projected frame.
+     */
+    private byte[] states;
+    private float[] distances, screenXs;
+
+    /**
+     * Creates a new projector.
+     * @param capacity initial number of points it can project without growing.
+     */
+    public BatchProjector(int capacity) {
+        ensureCapacity(Math.max(1, capacity));
+    }
+
+    /**
+     * Sets the pool where big frames are split.
+     * @param pool to use, null to project every frame on the calling thread.
+     */
+    public void setPool(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /**
+     * Chooses the precision used to project the frames.
+     * @param floatPrecision true to project in single precision, false to use double precision.
+     */
+    public void setFloatPrecision(boolean floatPrecision) {
+        this.floatPrecision = floatPrecision;
+    }
+
+    /**
+     * Checks whether frames are projected in single precision or not.
+     * @return true if single precision is used, false otherwise.
+     */
+    public boolean isFloatPrecision() {
+        return floatPrecision;
+    }
+
+    /**
+     * Projects a new frame. The projection's camera basis must have been set for this frame.
+     * @param xs abscissas of the points, in map coordinates.
+     * @param ys ordinates of the points, in map coordinates.
+     * @param count number of points.
+     * @param originX abscissa of the user.
+     * @param originY ordinate of the user.
+     * @param scale map length in meters.
+     * @param projection whose camera basis decides whether the points are in sight or not, and where.
+     */
+    public void project(float[] xs, float[] ys, int count, float originX, float originY, float scale,
+                        OverlayProjection projection) {
+
+        ensureCapacity(count);
+
+        this.xs = xs;
+        this.ys = ys;
+        this.originX = originX;
+        this.originY = originY;
+        this.scale = scale;
+        this.projection = projection;
+        frameFloatPrecision = floatPrecision;
+
+        final ForkJoinPool pool = this.pool;
+
+        if (null == pool || count < PARALLEL_THRESHOLD) {
+            projectRange(0, count);
+        } else {
+            pool.invoke(new ProjectionTask(this, 0, count));
+        }
+
+        // Do not keep the caller's arrays alive
+        this.xs = this.ys = null;
+        this.projection = null;
+
+    }
+
+    /**
+     * Retrieves the visibility state of a point of the last frame.
+     * @param index of the point on the projected arrays.
+     * @return {@link #IN_SIGHT}, {@link #OUT_OF_SIGHT} or {@link #SAME_POSITION} if it is where the user is.
+     */
+    public byte getState(int index) {
+        return states[index];
+    }
+
+    /**
+     * Retrieves the distance to a point of the last frame.
+     * @param index of the point on the projected arrays.
+     * @return the distance in meters.
+     */
+    public float getDistance(int index) {
+        return distances[index];
+    }
+
+    /**
+     * Retrieves the screen abscissa of an in sight point of the last frame.
+     * @param index of the point on the projected arrays.
+     * @return the abscissa in pixels, undefined if the point is not in sight.
+     */
+    public float getScreenX(int index) {
+        return screenXs[index];
+    }
+
+    /**
+     * Projects a range of points of the current frame.
+     * @param from first point, inclusive.
+     * @param to last point, exclusive.
+     */
+    private void projectRange(int from, int to) {
+
+        if (frameFloatPrecision) {
+            projectRangeFloat(from, to);
+            return;
+        }
+
+        final float[] xs = this.xs, ys = this.ys;
+        final float originX = this.originX, originY = this.originY, scale = this.scale;
+        final OverlayProjection projection = this.projection;
+
+        for (int i = from; i < to; i++) {
+
+            final double dx = xs[i] - originX, dy = ys[i] - originY;
+
+            if (dx == 0 && dy == 0) {
+                states[i] = SAME_POSITION;
+                distances[i] = 0;
+                continue;
+            }
+
+            final double length = Math.sqrt(dx*dx + dy*dy);
+            distances[i] = (float) (length * scale);
+
+            if (projection.inSight(dx, dy, length)) {
+                states[i] = IN_SIGHT;
+                screenXs[i] = projection.projectX(dx, dy);
+            } else {
+                states[i] = OUT_OF_SIGHT;
+            }
+
+        }
+
+    }
+
+    /**
+     * Projects a range of points of the current frame in single precision.
+     * @param from first point, inclusive.
+     * @param to last point, exclusive.
+     */
+    private void projectRangeFloat(int from, int to) {
+
+        final float[] xs = this.xs, ys = this.ys;
+        final float originX = this.originX, originY = this.originY, scale = this.scale;
+        final OverlayProjection projection = this.projection;
+
+        for (int i = from; i < to; i++) {
+
+            final float dx = xs[i] - originX, dy = ys[i] - originY;
+
+            if (dx == 0 && dy == 0) {
+                states[i] = SAME_POSITION;
+                distances[i] = 0;
+                continue;
+            }
+
+            final float length = (float) Math.sqrt(dx*dx + dy*dy);
+            distances[i] = length * scale;
+
+            if (projection.inSightFloat(dx, dy, length)) {
+                states[i] = IN_SIGHT;
+                screenXs[i] = projection.projectXFloat(dx, dy);
+            } else {
+                states[i] = OUT_OF_SIGHT;
+            }
+
+        }
+
+    }
+
+    /**
+     * Grows the buffers if needed.
+     * @param count number of points to project.
+     */
+    private void ensureCapacity(int count) {
+
+        if (null != states && states.length >= count) {
+            return;
+        }
+
+        states = new byte[count];
+        distances = new float[count];
+        screenXs = new float[count];
+
+    }
+
+    /**
+     * Projects a range of points, halving it until it is small enough.
+     */
+    private static class ProjectionTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient BatchProjector projector;
+        private final int from, to;
+
+        ProjectionTask(BatchProjector projector, int from, int to) {
+            this.projector = projector;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+
+            if (to - from <= CHUNK) {
+                projector.projectRange(from, to);
+                return;
+            }
+
+            final int middle = (from + to) >>> 1;
+            invokeAll(new ProjectionTask(projector, from, middle), new ProjectionTask(projector, middle, to));
+
+        }
+
+    }
+
+}
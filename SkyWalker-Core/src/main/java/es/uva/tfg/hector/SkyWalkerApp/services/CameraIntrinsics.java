@@ -0,0 +1,143 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Field of view of a camera's preview stream, and the pinhole projection matrix it gives on a screen.
+ * The field of view is the one of the sensor area the stream actually shows: the crop region,
+ * which is the active pixel array unless zoomed, further cropped to the stream's aspect ratio.
+ * It is computed once per camera session, and the projection matrix once per screen size.
+ * Sensor dimensions are landscape ones, as cameras report them.
+ * @author Hector Del Campo Pando
+ */
+public class CameraIntrinsics {
+
+    /**
+     * Field of view of the stream, in degrees.
+     */
+    private final float fovWidth, fovHeight;
+
+    /**
+     * Last projection matrix, and the screen it was computed for.
+     */
+    private Matrix projection;
+    private int projectionWidth, projectionHeight;
+    private boolean projectionPortrait;
+
+    /**
+     * Creates new intrinsics from a known field of view.
+     * @param fovWidth horizontal field of view of the stream, in degrees.
+     * @param fovHeight vertical field of view of the stream, in degrees.
+     */
+    public CameraIntrinsics(float fovWidth, float fovHeight) {
+        if (fovWidth <= 0 || fovWidth >= 180 || fovHeight <= 0 || fovHeight >= 180) {
+            throw new IllegalArgumentException("Invalid field of view");
+        }
+
+        this.fovWidth = fovWidth;
+        this.fovHeight = fovHeight;
+    }
+
+    /**
+     * Creates new intrinsics from the sensor's geometry.
+     * @param focalLength of the lens, in millimeters.
+     * @param physicalWidth of the whole pixel array, in millimeters.
+     * @param physicalHeight of the whole pixel array, in millimeters.
+     * @param pixelArrayWidth number of columns of the whole pixel array.
+     * @param pixelArrayHeight number of rows of the whole pixel array.
+     * @param cropWidth width of the crop region in pixels, the active array's one if not zoomed.
+     * @param cropHeight height of the crop region in pixels, the active array's one if not zoomed.
+     * @param streamWidth width of the preview stream, 0 if unknown yet.
+     * @param streamHeight height of the preview stream, 0 if unknown yet.
+     * @return the intrinsics.
+     */
+    public static CameraIntrinsics fromSensor(float focalLength, float physicalWidth, float physicalHeight,
+                                              int pixelArrayWidth, int pixelArrayHeight,
+                                              int cropWidth, int cropHeight,
+                                              int streamWidth, int streamHeight) {
+
+        double width = (double) cropWidth * physicalWidth / pixelArrayWidth;
+        double height = (double) cropHeight * physicalHeight / pixelArrayHeight;
+
+        // The stream shows the biggest centered area of the crop region with its own aspect ratio
+        if (streamWidth > 0 && streamHeight > 0) {
+            final double streamAspect = (double) streamWidth / streamHeight;
+            final double cropAspect = (double) cropWidth / cropHeight;
+
+            if (streamAspect > cropAspect) {
+                height *= cropAspect / streamAspect;
+            } else {
+                width *= streamAspect / cropAspect;
+            }
+        }
+
+        return new CameraIntrinsics((float) Math.toDegrees(2 * Math.atan(width / (2 * focalLength))),
+                (float) Math.toDegrees(2 * Math.atan(height / (2 * focalLength))));
+
+    }
+
+    /**
+     * Retrieves the horizontal field of view, along the sensor's longest side.
+     * @return the field of view in degrees.
+     */
+    public float getFOVWidth() {
+        return fovWidth;
+    }
+
+    /**
+     * Retrieves the vertical field of view, along the sensor's shortest side.
+     * @return the field of view in degrees.
+     */
+    public float getFOVHeight() {
+        return fovHeight;
+    }
+
+    /**
+     * Retrieves the field of view along a screen's width.
+     * @param portrait whether the screen is in portrait, so the sensor is rotated on it.
+     * @return the field of view in degrees.
+     */
+    public float getScreenFOVWidth(boolean portrait) {
+        return portrait ? fovHeight : fovWidth;
+    }
+
+    /**
+     * Retrieves the field of view along a screen's height.
+     * @param portrait whether the screen is in portrait, so the sensor is rotated on it.
+     * @return the field of view in degrees.
+     */
+    public float getScreenFOVHeight(boolean portrait) {
+        return portrait ? fovWidth : fovHeight;
+    }
+
+    /**
+     * Retrieves the 3x3 projection matrix from camera coordinates, abscissa to the right,
+     * ordinate downwards and depth forwards, to homogeneous screen pixels.
+     * The same instance is returned while the screen does not change, so it can be reused every frame.
+     * @param width of the screen in pixels.
+     * @param height of the screen in pixels.
+     * @param portrait whether the screen is in portrait, so the sensor is rotated on it.
+     * @return the projection matrix, not to be modified.
+     */
+    public synchronized Matrix getProjection(int width, int height, boolean portrait) {
+
+        if (null != projection && projectionWidth == width && projectionHeight == height
+                && projectionPortrait == portrait) {
+            return projection;
+        }
+
+        final double tanHalfWidth = Math.tan(Math.toRadians(getScreenFOVWidth(portrait) / 2));
+        final double tanHalfHeight = Math.tan(Math.toRadians(getScreenFOVHeight(portrait) / 2));
+
+        projection = new Matrix(new double[][] {
+                {width / 2.0 / tanHalfWidth, 0, width / 2.0},
+                {0, height / 2.0 / tanHalfHeight, height / 2.0},
+                {0, 0, 1}
+        });
+        projectionWidth = width;
+        projectionHeight = height;
+        projectionPortrait = portrait;
+
+        return projection;
+
+    }
+
+}
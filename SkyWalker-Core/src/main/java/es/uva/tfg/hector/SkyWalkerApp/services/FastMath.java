@@ -0,0 +1,184 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Trigonometric functions for the per point, per frame, projection path.
+ * Each of them has an exact version, delegating on {@link Math}, and a fast approximation with a
+ * bounded error: a polynomial arc tangent, table based sine and cosine, and the fast inverse square root.
+ * Which one is used is chosen globally through {@link #setExact(boolean)}, exact by default.
+ * @author Hector Del Campo Pando
+ */
+public final class FastMath {
+
+    /**
+     * Largest error of the fast arc tangent, in radians.
+     */
+    public static final double ATAN2_ERROR = 1e-5;
+
+    /**
+     * Largest error of the fast sine and cosine.
+     */
+    public static final double SIN_ERROR = 1e-6;
+
+    /**
+     * Largest relative error of the fast inverse square root.
+     */
+    public static final double INV_SQRT_ERROR = 1e-5;
+
+    /**
+     * Sine table, covering a whole turn plus one entry to interpolate the last step.
+     */
+    private static final int TABLE_SIZE = 4096;
+    private static final float[] SINES = new float[TABLE_SIZE + 1];
+    private static final double TABLE_SCALE = TABLE_SIZE / (2 * Math.PI);
+
+    /**
+     * Largest angle, in radians, reduced through the table, bigger ones use {@link Math}.
+     */
+    private static final double MAX_TABLE_ANGLE = 1e6;
+
+    /**
+     * Coefficients of the arc tangent polynomial for [-1, 1], from Abramowitz and Stegun 4.4.49.
+     */
+    private static final double A1 = 0.9999772, A3 = -0.3326235, A5 = 0.1935435,
+            A7 = -0.1164329, A9 = 0.0526533, A11 = -0.0117212;
+
+    static {
+        for (int i = 0; i <= TABLE_SIZE; i++) {
+            SINES[i] = (float) Math.sin(i / TABLE_SCALE);
+        }
+    }
+
+    /**
+     * Whether the exact functions are used.
+     */
+    private static volatile boolean exact = true;
+
+    private FastMath() {
+
+    }
+
+    /**
+     * Chooses between the exact functions and the fast approximations.
+     * @param exact true to use {@link Math}, false to use the approximations.
+     */
+    public static void setExact(boolean exact) {
+        FastMath.exact = exact;
+    }
+
+    /**
+     * Checks whether exact functions are used or not.
+     * @return true if {@link Math} is used, false if the approximations are.
+     */
+    public static boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Arc tangent of y/x, using the signs of both to decide the quadrant.
+     * @param y ordinate.
+     * @param x abscissa.
+     * @return the angle in radians, from -pi to pi.
+     */
+    public static double atan2(double y, double x) {
+        return exact ? Math.atan2(y, x) : fastAtan2(y, x);
+    }
+
+    /**
+     * Sine of an angle.
+     * @param radians the angle.
+     * @return the sine.
+     */
+    public static double sin(double radians) {
+        return exact ? Math.sin(radians) : fastSin(radians);
+    }
+
+    /**
+     * Cosine of an angle.
+     * @param radians the angle.
+     * @return the cosine.
+     */
+    public static double cos(double radians) {
+        return exact ? Math.cos(radians) : fastSin(radians + Math.PI / 2);
+    }
+
+    /**
+     * Inverse of the square root.
+     * @param value a positive value.
+     * @return 1 / sqrt(value).
+     */
+    public static float invSqrt(float value) {
+        return exact ? (float) (1 / Math.sqrt(value)) : fastInvSqrt(value);
+    }
+
+    /**
+     * Polynomial arc tangent, with an error under {@link #ATAN2_ERROR}.
+     * @param y ordinate.
+     * @param x abscissa.
+     * @return the angle in radians, from -pi to pi.
+     */
+    public static double fastAtan2(double y, double x) {
+
+        final double absX = Math.abs(x), absY = Math.abs(y);
+
+        if (0 == absX && 0 == absY) {
+            return Math.atan2(y, x);
+        }
+
+        // Evaluate on [0, 1], then unfold the octant
+        final boolean swap = absY > absX;
+        final double z = swap ? absX / absY : absY / absX;
+        final double z2 = z * z;
+        double angle = z * (A1 + z2 * (A3 + z2 * (A5 + z2 * (A7 + z2 * (A9 + z2 * A11)))));
+
+        if (swap) {
+            angle = Math.PI / 2 - angle;
+        }
+        if (x < 0) {
+            angle = Math.PI - angle;
+        }
+
+        return y < 0 ? -angle : angle;
+
+    }
+
+    /**
+     * Table based sine, linearly interpolated, with an error under {@link #SIN_ERROR}.
+     * @param radians the angle.
+     * @return the sine.
+     */
+    public static double fastSin(double radians) {
+
+        if (radians > MAX_TABLE_ANGLE || radians < -MAX_TABLE_ANGLE) {
+            return Math.sin(radians);
+        }
+
+        final double position = radians * TABLE_SCALE;
+        long step = (long) position;
+
+        if (position < step) {
+            step--;
+        }
+
+        final double fraction = position - step;
+        final int index = (int) (step & (TABLE_SIZE - 1));
+        final float low = SINES[index];
+
+        return low + (SINES[index + 1] - low) * fraction;
+
+    }
+
+    /**
+     * Fast inverse square root, refined with two Newton steps,
+     * with a relative error under {@link #INV_SQRT_ERROR}.
+     * @param value a positive value.
+     * @return 1 / sqrt(value).
+     */
+    public static float fastInvSqrt(float value) {
+        final float half = 0.5f * value;
+        float guess = Float.intBitsToFloat(0x5f3759df - (Float.floatToIntBits(value) >> 1));
+        guess *= 1.5f - half * guess * guess;
+        guess *= 1.5f - half * guess * guess;
+        return guess;
+    }
+
+}
@@ -0,0 +1,305 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Looks for QR finder patterns, the three squares on the corners of every QR, on a downscaled center
+ * crop of a luminance frame. It is much cheaper than decoding, so frames with no candidate can be skipped.
+ * A candidate is a run of dark, light, dark, light and dark pixels in 1:1:3:1:1 proportions,
+ * both across a row and down the column through its center, found on at least three rows.
+ * @author Hector Del Campo Pando
+ */
+public class FinderPatternScanner {
+
+    /**
+     * Default settings, downscale factor and share of each dimension of the frame scanned.
+     */
+    public static final int DEFAULT_FACTOR = 2;
+    public static final float DEFAULT_CROP = 0.75f;
+
+    /**
+     * Maximum number of distinct candidates kept.
+     */
+    private static final int MAX_CANDIDATES = 32;
+
+    /**
+     * Number of rows a candidate must be found on, since the center of a pattern is three modules tall.
+     */
+    private static final int MIN_HITS = 3;
+
+    /**
+     * Downscale factor.
+     */
+    private final int factor;
+
+    /**
+     * Share of each dimension of the frame scanned.
+     */
+    private final float crop;
+
+    /**
+     * Downscaled crop of the last frame, and its size.
+     */
+    private byte[] image = new byte[0];
+    private int width, height;
+
+    /**
+     * Luminance under which a pixel is dark.
+     */
+    private int threshold;
+
+    /**
+     * Candidates found on the last frame, centers and sizes on the downscaled crop.
+     */
+    private final int[] candidateX = new int[MAX_CANDIDATES], candidateY = new int[MAX_CANDIDATES],
+            candidateSize = new int[MAX_CANDIDATES], candidateHits = new int[MAX_CANDIDATES];
+    private int candidates;
+
+    /**
+     * Run lengths being checked.
+     */
+    private final int[] runs = new int[5], crossRuns = new int[5];
+
+    /**
+     * Creates a new scanner with default settings.
+     */
+    public FinderPatternScanner() {
+        this(DEFAULT_FACTOR, DEFAULT_CROP);
+    }
+
+    /**
+     * Creates a new scanner.
+     * @param factor downscale factor, 1 to keep the full resolution.
+     * @param crop share, in (0, 1], of each dimension of the frame scanned around its center.
+     */
+    public FinderPatternScanner(int factor, float crop) {
+        if (factor < 1 || crop <= 0 || crop > 1) {
+            throw new IllegalArgumentException("Invalid scanner settings");
+        }
+
+        this.factor = factor;
+        this.crop = crop;
+    }
+
+    /**
+     * Scans a new frame.
+     * @param luminance of the frame, one byte per pixel row by row, as the start of an NV21 frame.
+     * @param frameWidth of the frame.
+     * @param frameHeight of the frame.
+     * @return number of distinct finder pattern candidates found.
+     */
+    public int scan(byte[] luminance, int frameWidth, int frameHeight) {
+
+        downscale(luminance, frameWidth, frameHeight);
+        candidates = 0;
+
+        for (int y = 0; y < height; y++) {
+            scanRow(y);
+        }
+
+        int confirmed = 0;
+        for (int i = 0; i < candidates; i++) {
+            if (candidateHits[i] >= MIN_HITS) {
+                confirmed++;
+            }
+        }
+
+        return confirmed;
+
+    }
+
+    /**
+     * Averages every factor x factor block of the center crop and sets the threshold halfway between the darkest and brightest blocks.
+     */
+    private void downscale(byte[] luminance, int frameWidth, int frameHeight) {
+
+        width = (int) (frameWidth * crop) / factor;
+        height = (int) (frameHeight * crop) / factor;
+
+        if (image.length < width * height) {
+            image = new byte[width * height];
+        }
+
+        final int left = (frameWidth - width * factor) / 2, top = (frameHeight - height * factor) / 2;
+        final int area = factor * factor;
+        int darkest = 255, brightest = 0;
+
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+
+                int block = 0;
+                int offset = (top + y * factor) * frameWidth + left + x * factor;
+
+                for (int j = 0; j < factor; j++, offset += frameWidth) {
+                    for (int i = 0; i < factor; i++) {
+                        block += luminance[offset + i] & 0xFF;
+                    }
+                }
+
+                block /= area;
+                image[y * width + x] = (byte) block;
+                darkest = Math.min(darkest, block);
+                brightest = Math.max(brightest, block);
+
+            }
+        }
+
+        // Blurred edges fall halfway, so they do not make dark or light runs longer
+        threshold = (darkest + brightest + 1) / 2;
+
+    }
+
+    /**
+     * Checks whether a pixel of the downscaled crop is dark.
+     */
+    private boolean isDark(int x, int y) {
+        return (image[y * width + x] & 0xFF) < threshold;
+    }
+
+    /**
+     * Looks for dark, light, dark, light, dark runs across a row.
+     */
+    private void scanRow(int y) {
+
+        final int[] runs = this.runs;
+        int state = 0;
+
+        for (int i = 0; i < runs.length; i++) {
+            runs[i] = 0;
+        }
+
+        for (int x = 0; x < width; x++) {
+
+            final boolean dark = isDark(x, y);
+
+            // Even states are dark runs, odd ones light runs
+            if (dark == ((state & 1) == 0)) {
+                runs[state]++;
+                continue;
+            }
+
+            if (state < 4) {
+                runs[++state]++;
+                continue;
+            }
+
+            // Pattern closed by a light pixel
+            check(x, y);
+
+            runs[0] = runs[2];
+            runs[1] = runs[3];
+            runs[2] = runs[4];
+            runs[3] = 1;
+            runs[4] = 0;
+            state = 3;
+
+        }
+
+        if (4 == state) {
+            check(width, y);
+        }
+
+    }
+
+    /**
+     * Checks the runs just closed at a row position, adding a candidate if they are a finder pattern.
+     */
+    private void check(int end, int y) {
+
+        if (!isFinderRatio(runs)) {
+            return;
+        }
+
+        final int total = runs[0] + runs[1] + runs[2] + runs[3] + runs[4];
+        final int x = end - runs[4] - runs[3] - runs[2] / 2 - 1;
+
+        if (crossCheck(x, y, total)) {
+            addCandidate(x, y, total);
+        }
+
+    }
+
+    /**
+     * Checks the runs down a column through a candidate's center.
+     */
+    private boolean crossCheck(int x, int y, int total) {
+
+        final int[] runs = crossRuns;
+
+        // Up from the center, then down from it
+        int row = y;
+        for (int run = 2; run >= 0; run--) {
+            runs[run] = 0;
+            while (row >= 0 && isDark(x, row) == (run != 1)) {
+                runs[run]++;
+                row--;
+            }
+        }
+
+        row = y + 1;
+        for (int run = 2; run < runs.length; run++) {
+            if (run > 2) {
+                runs[run] = 0;
+            }
+            while (row < height && isDark(x, row) == (run != 3)) {
+                runs[run]++;
+                row++;
+            }
+        }
+
+        final int crossTotal = runs[0] + runs[1] + runs[2] + runs[3] + runs[4];
+
+        // Both directions must have roughly the same size
+        return 5 * Math.abs(crossTotal - total) < 2 * total && isFinderRatio(runs);
+
+    }
+
+    /**
+     * Checks whether some runs are in 1:1:3:1:1 proportions, with half a module of tolerance.
+     */
+    private static boolean isFinderRatio(int[] runs) {
+
+        int total = 0;
+        for (int run : runs) {
+            if (0 == run) {
+                return false;
+            }
+            total += run;
+        }
+
+        if (total < 7) {
+            return false;
+        }
+
+        final float module = total / 7f, variance = module / 2;
+
+        return Math.abs(module - runs[0]) < variance
+                && Math.abs(module - runs[1]) < variance
+                && Math.abs(3 * module - runs[2]) < 3 * variance
+                && Math.abs(module - runs[3]) < variance
+                && Math.abs(module - runs[4]) < variance;
+
+    }
+
+    /**
+     * Adds a candidate, or a hit to it if it is another row of an already found one.
+     */
+    private void addCandidate(int x, int y, int size) {
+
+        for (int i = 0; i < candidates; i++) {
+            final int distance = candidateSize[i] / 2;
+            if (Math.abs(candidateX[i] - x) <= distance && Math.abs(candidateY[i] - y) <= distance) {
+                candidateHits[i]++;
+                return;
+            }
+        }
+
+        if (candidates < MAX_CANDIDATES) {
+            candidateX[candidates] = x;
+            candidateY[candidates] = y;
+            candidateSize[candidates] = size;
+            candidateHits[candidates] = 1;
+            candidates++;
+        }
+
+    }
+
+}
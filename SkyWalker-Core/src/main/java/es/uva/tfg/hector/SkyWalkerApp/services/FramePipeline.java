@@ -0,0 +1,236 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Hands camera frames to a detector, where the latest frame always wins: the camera overwrites
+ * a single pending slot and the detector takes it only once it is idle, so frames arriving while
+ * a frame is being decoded are dropped instead of queued.
+ * Decodes are spaced from the measured decode time, so the detector never takes more than
+ * a share of the time, and the pipeline can be disabled, dropping every frame without copying it.
+ * Frames are NV21 ones, width * height * 3 / 2 bytes long.
+ * @author Hector Del Campo Pando
+ */
+public class FramePipeline {
+
+    /**
+     * Default settings, minimum time between decodes in nanoseconds (30 fps)
+     * and maximum share of the time spent decoding.
+     */
+    public static final long DEFAULT_MIN_INTERVAL = 1000000000L / 30;
+    public static final double DEFAULT_LOAD = 0.5;
+
+    /**
+     * Weight of every new decode time on the average one.
+     */
+    private static final double LATENCY_SMOOTHING = 0.25;
+
+    /**
+     * Minimum time between the start of two decodes.
+     */
+    private final long minInterval;
+
+    /**
+     * Maximum share of the time spent decoding.
+     */
+    private final double load;
+
+    /**
+     * Pending frame, written by the camera, and the one being decoded.
+     */
+    private ByteBuffer pending, taken;
+    private int pendingWidth, pendingHeight, takenWidth, takenHeight;
+    private boolean framePending;
+
+    /**
+     * Whether frames are accepted or not.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Start of the last decode, if any.
+     */
+    private long lastTake;
+    private boolean hasTaken;
+
+    /**
+     * Counters.
+     */
+    private long framesIn, framesDecoded;
+    private double decodeLatency;
+
+    /**
+     * Creates a new pipeline with default settings.
+     */
+    public FramePipeline() {
+        this(DEFAULT_MIN_INTERVAL, DEFAULT_LOAD);
+    }
+
+    /**
+     * Creates a new pipeline.
+     * @param minInterval minimum time, in nanoseconds, between the start of two decodes.
+     * @param load maximum share of the time spent decoding, in (0, 1].
+     */
+    public FramePipeline(long minInterval, double load) {
+        if (minInterval < 0 || load <= 0 || load > 1) {
+            throw new IllegalArgumentException("Invalid pipeline settings");
+        }
+
+        this.minInterval = minInterval;
+        this.load = load;
+    }
+
+    /**
+     * Offers a new frame, overwriting the pending one if the detector did not take it yet.
+     * @param data of the frame, only read during the call.
+     * @param width of the frame.
+     * @param height of the frame.
+     * @return true if the frame was accepted, false if the pipeline is disabled.
+     */
+    public synchronized boolean offer(byte[] data, int width, int height) {
+
+        if (!enabled) {
+            return false;
+        }
+
+        final int size = width * height * 3 / 2;
+
+        if (null == pending || pending.capacity() != size) {
+            pending = ByteBuffer.allocate(size);
+        }
+
+        System.arraycopy(data, 0, pending.array(), 0, size);
+        pendingWidth = width;
+        pendingHeight = height;
+        framePending = true;
+        framesIn++;
+
+        notifyAll();
+        return true;
+
+    }
+
+    /**
+     * Waits for the next frame to decode, until there is a new one and enough time passed since the last decode.
+     * The frame belongs to the caller until the next call, which should report its decode time first.
+     * @return the frame, see {@link #getWidth()} and {@link #getHeight()} for its size.
+     * @throws InterruptedException if the thread was interrupted while waiting.
+     */
+    public synchronized ByteBuffer take() throws InterruptedException {
+
+        while (true) {
+
+            if (enabled && framePending) {
+                final long wait = hasTaken ? lastTake + getInterval() - System.nanoTime() : 0;
+
+                if (wait <= 0) {
+                    break;
+                }
+
+                wait(wait / 1000000, (int) (wait % 1000000));
+            } else {
+                wait();
+            }
+
+        }
+
+        final ByteBuffer frame = taken;
+        taken = pending;
+        pending = frame;
+        takenWidth = pendingWidth;
+        takenHeight = pendingHeight;
+        framePending = false;
+
+        lastTake = System.nanoTime();
+        hasTaken = true;
+
+        taken.rewind();
+        return taken;
+
+    }
+
+    /**
+     * Reports that the last taken frame was decoded.
+     * @param latency time, in nanoseconds, the decode took.
+     */
+    public synchronized void decoded(long latency) {
+
+        decodeLatency = 0 == framesDecoded ? latency
+                : decodeLatency + LATENCY_SMOOTHING * (latency - decodeLatency);
+        framesDecoded++;
+
+    }
+
+    /**
+     * Enables or disables the pipeline. While disabled, frames are dropped and the detector waits.
+     * @param enabled true to accept frames, false to drop them.
+     */
+    public synchronized void setEnabled(boolean enabled) {
+
+        this.enabled = enabled;
+
+        if (!enabled) {
+            framePending = false;
+        }
+
+        notifyAll();
+
+    }
+
+    /**
+     * Checks whether the pipeline accepts frames or not.
+     * @return true if it does, false otherwise.
+     */
+    public synchronized boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Retrieves the minimum time between the start of two decodes, from the measured decode time.
+     * @return the time in nanoseconds.
+     */
+    public synchronized long getInterval() {
+        return Math.max(minInterval, (long) (decodeLatency / load));
+    }
+
+    /**
+     * Retrieves the width of the last taken frame.
+     * @return the width in pixels.
+     */
+    public synchronized int getWidth() {
+        return takenWidth;
+    }
+
+    /**
+     * Retrieves the height of the last taken frame.
+     * @return the height in pixels.
+     */
+    public synchronized int getHeight() {
+        return takenHeight;
+    }
+
+    /**
+     * Retrieves the number of frames accepted so far.
+     * @return the number of frames.
+     */
+    public synchronized long getFramesIn() {
+        return framesIn;
+    }
+
+    /**
+     * Retrieves the number of frames decoded so far.
+     * @return the number of frames.
+     */
+    public synchronized long getFramesDecoded() {
+        return framesDecoded;
+    }
+
+    /**
+     * Retrieves the average decode time, weighting recent decodes the most.
+     * @return the time in nanoseconds, 0 if nothing was decoded yet.
+     */
+    public synchronized long getDecodeLatency() {
+        return (long) decodeLatency;
+    }
+
+}
@@ -0,0 +1,214 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Online estimation of the heading bias, the error of the map's north offset at some place.
+ * While walking, the device mostly looks ahead, so the mean view direction during a leg between two
+ * receivers is compared with the bearing from one receiver to the other, known from the map.
+ * Each leg's bias is weighted by its length, and all of them are merged as a circular weighted mean.
+ * @author Hector Del Campo Pando
+ */
+public class HeadingBiasEstimator {
+
+    /**
+     * Default total weight kept, older legs fade out once reached.
+     */
+    public static final double DEFAULT_MAX_WEIGHT = 100;
+
+    /**
+     * Minimum agreement, from 0 to 1, of the view directions during a leg to use it.
+     */
+    public static final double MIN_CONSISTENCY = 0.9;
+
+    /**
+     * Minimum number of view directions during a leg to use it.
+     */
+    public static final double MIN_LEG_SAMPLES = 25;
+
+    /**
+     * Largest deviation, in degrees, from the current bias accepted once it is reliable.
+     */
+    public static final double MAX_DEVIATION = 45;
+
+    /**
+     * Largest vertical component of a view direction used, steeper ones have no reliable heading.
+     */
+    private static final double MAX_VERTICAL = 0.7;
+
+    /**
+     * Factor to forget old view directions, so a leg only reflects the last seconds.
+     */
+    private static final double LEG_DECAY = 0.995;
+
+    /**
+     * Weight from which the bias is reliable.
+     */
+    private static final double RELIABLE_WEIGHT = 10;
+
+    /**
+     * Total weight kept.
+     */
+    private final double maxWeight;
+
+    /**
+     * Weighted sums of the bias' sine and cosine, and the total weight.
+     */
+    private double sumSin, sumCos, weight;
+
+    /**
+     * Sums of the current leg's view directions, and their weights.
+     */
+    private double legX, legY, legWeight;
+
+    /**
+     * Creates a new estimator with the default maximum weight.
+     */
+    public HeadingBiasEstimator() {
+        this(DEFAULT_MAX_WEIGHT);
+    }
+
+    /**
+     * Creates a new estimator.
+     * @param maxWeight total weight kept, older legs fade out once reached.
+     */
+    public HeadingBiasEstimator(double maxWeight) {
+        if (maxWeight <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive");
+        }
+
+        this.maxWeight = maxWeight;
+    }
+
+    /**
+     * Replaces the estimation, for instance with a cached one.
+     * @param bias in degrees.
+     * @param weight of the bias.
+     */
+    public void set(double bias, double weight) {
+        final double rad = Math.toRadians(bias);
+        this.weight = Math.max(0, Math.min(maxWeight, weight));
+        sumSin = this.weight * Math.sin(rad);
+        sumCos = this.weight * Math.cos(rad);
+        startLeg();
+    }
+
+    /**
+     * Retrieves the estimated bias, to be added to the map's north offset.
+     * @return the bias in degrees, from -180 to 180.
+     */
+    public double getBias() {
+        return 0 == weight ? 0 : Math.toDegrees(Math.atan2(sumSin, sumCos));
+    }
+
+    /**
+     * Retrieves the weight of the estimation.
+     * @return the weight.
+     */
+    public double getWeight() {
+        return weight;
+    }
+
+    /**
+     * Adds a bias observation.
+     * @param bias observed, in degrees.
+     * @param weight of the observation.
+     * @return true if the observation was used, false if it was rejected.
+     */
+    public boolean addSample(double bias, double weight) {
+
+        if (weight <= 0) {
+            return false;
+        }
+
+        if (this.weight >= RELIABLE_WEIGHT && Math.abs(difference(bias, getBias())) > MAX_DEVIATION) {
+            return false;
+        }
+
+        final double rad = Math.toRadians(bias);
+        sumSin += weight * Math.sin(rad);
+        sumCos += weight * Math.cos(rad);
+        this.weight += weight;
+
+        if (this.weight > maxWeight) {
+            final double scale = maxWeight / this.weight;
+            sumSin *= scale;
+            sumCos *= scale;
+            this.weight = maxWeight;
+        }
+
+        return true;
+
+    }
+
+    /**
+     * Starts a new leg, forgetting the view directions seen so far.
+     */
+    public void startLeg() {
+        legX = legY = legWeight = 0;
+    }
+
+    /**
+     * Adds a view direction, already corrected with the current bias, to the current leg.
+     * @param x component of the view direction on the map.
+     * @param y component of the view direction on the map.
+     * @param z vertical component of the view direction.
+     */
+    public void addHeading(double x, double y, double z) {
+
+        final double length = Math.sqrt(x*x + y*y);
+
+        if (Math.abs(z) > MAX_VERTICAL || 0 == length) {
+            return;
+        }
+
+        legX = legX * LEG_DECAY + x / length;
+        legY = legY * LEG_DECAY + y / length;
+        legWeight = legWeight * LEG_DECAY + 1;
+
+    }
+
+    /**
+     * Ends the current leg, comparing its view directions with the walked bearing.
+     * A new leg is started whether the leg was used or not.
+     * @param walkX X component of the walked displacement on the map.
+     * @param walkY Y component of the walked displacement on the map.
+     * @param weight of the leg, usually its length.
+     * @return true if the leg was used, false otherwise.
+     */
+    public boolean endLeg(double walkX, double walkY, double weight) {
+
+        final double x = legX, y = legY, samples = legWeight;
+        startLeg();
+
+        if (samples < MIN_LEG_SAMPLES || (0 == walkX && 0 == walkY)) {
+            return false;
+        }
+
+        final double consistency = Math.sqrt(x*x + y*y) / samples;
+
+        if (consistency < MIN_CONSISTENCY) {
+            return false;
+        }
+
+        final double residual = Math.toDegrees(Math.atan2(y, x) - Math.atan2(walkY, walkX));
+
+        return addSample(getBias() + residual, weight * consistency);
+
+    }
+
+    /**
+     * Signed difference between two angles.
+     * @return the difference in degrees, from -180 to 180.
+     */
+    private static double difference(double a, double b) {
+        double difference = (a - b) % 360;
+
+        if (difference > 180) {
+            difference -= 360;
+        } else if (difference < -180) {
+            difference += 360;
+        }
+
+        return difference;
+    }
+
+}
@@ -0,0 +1,141 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.util.Arrays;
+
+/**
+ * Angular binning of out of sight points, so the screen border shows one indicator per bucket
+ * instead of one per point. Each bucket covers the same arc of the screen's direction angle
+ * and keeps how many points fell on it, their mean direction and the nearest one.
+ * @author Hector Del Campo Pando
+ */
+public class IndicatorClusters {
+
+    /**
+     * Default number of buckets.
+     */
+    public static final int DEFAULT_BUCKETS = 12;
+
+    /**
+     * Marker of the nearest point of an empty bucket.
+     */
+    public static final int NONE = -1;
+
+    /**
+     * Arc covered by each bucket, in degrees.
+     */
+    private final double bucketArc;
+
+    /**
+     * Per bucket data.
+     */
+    private final int[] counts, nearest;
+    private final float[] nearestDistances;
+    private final double[] sines, cosines;
+
+    /**
+     * Creates a new set of clusters.
+     * @param buckets number of buckets along the screen border.
+     */
+    public IndicatorClusters(int buckets) {
+        if (buckets <= 0) {
+            throw new IllegalArgumentException("Number of buckets must be positive");
+        }
+
+        bucketArc = 360.0 / buckets;
+        counts = new int[buckets];
+        nearest = new int[buckets];
+        nearestDistances = new float[buckets];
+        sines = new double[buckets];
+        cosines = new double[buckets];
+
+        clear();
+    }
+
+    /**
+     * Empties every bucket, to start a new frame.
+     */
+    public void clear() {
+        Arrays.fill(counts, 0);
+        Arrays.fill(nearest, NONE);
+        Arrays.fill(nearestDistances, Float.MAX_VALUE);
+        Arrays.fill(sines, 0);
+        Arrays.fill(cosines, 0);
+    }
+
+    /**
+     * Adds an out of sight point to the bucket of its direction.
+     * @param index of the point.
+     * @param angle of the direction on screen, in degrees, as given by
+     *              {@link OverlayProjection#projectIndicator(Vector2D, Vector3D, float[])}.
+     * @param distance to the point.
+     */
+    public void add(int index, double angle, float distance) {
+
+        final int bucket = getBucket(angle);
+        final double radians = Math.toRadians(angle);
+
+        counts[bucket]++;
+        sines[bucket] += FastMath.sin(radians);
+        cosines[bucket] += FastMath.cos(radians);
+
+        if (distance < nearestDistances[bucket]) {
+            nearestDistances[bucket] = distance;
+            nearest[bucket] = index;
+        }
+
+    }
+
+    /**
+     * Retrieves the number of buckets.
+     * @return the number of buckets.
+     */
+    public int getBuckets() {
+        return counts.length;
+    }
+
+    /**
+     * Retrieves the bucket of a direction.
+     * @param angle of the direction on screen, in degrees.
+     * @return the bucket.
+     */
+    public int getBucket(double angle) {
+        final double normalized = ((angle % 360) + 360) % 360;
+        return Math.min(counts.length - 1, (int) (normalized / bucketArc));
+    }
+
+    /**
+     * Retrieves how many points fell on a bucket.
+     * @param bucket to check.
+     * @return the number of points.
+     */
+    public int getCount(int bucket) {
+        return counts[bucket];
+    }
+
+    /**
+     * Retrieves the nearest point of a bucket.
+     * @param bucket to check.
+     * @return the index of the point, or {@link #NONE} if the bucket is empty.
+     */
+    public int getNearest(int bucket) {
+        return nearest[bucket];
+    }
+
+    /**
+     * Retrieves the mean direction of the points of a bucket.
+     * @param bucket to check.
+     * @return the angle in degrees, values from [0, 360),
+     * the center of the bucket if it's empty.
+     */
+    public double getAngle(int bucket) {
+
+        if (0 == counts[bucket]) {
+            return (bucket + 0.5) * bucketArc;
+        }
+
+        final double angle = Math.toDegrees(FastMath.atan2(sines[bucket], cosines[bucket]));
+        return angle < 0 ? angle + 360 : angle;
+
+    }
+
+}
@@ -0,0 +1,400 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.util.Arrays;
+
+/**
+ * Greedy placement of labels around their anchors without overlapping.
+ * Labels are placed one by one, in priority order, on the first free candidate position,
+ * trying first the position each label had on the previous frame so labels don't jump around.
+ * Collisions are checked against a uniform grid of the screen, and the number of labels per frame
+ * is bounded, so the cost of a frame doesn't depend on how many points are visible.
+ * <p>
+ * Usage per frame: {@link #begin(int, int)}, any number of {@link #addObstacle(float, float, float, float)}
+ * and {@link #place(int, float, float, float, float)} calls, then {@link #end()}.
+ * @author Hector Del Campo Pando
+ */
+public class LabelLayout {
+
+    /**
+     * Candidate positions of a label relative to its anchor.
+     */
+    public static final int RIGHT = 0, LEFT = 1, BELOW = 2, ABOVE = 3;
+
+    /**
+     * Number of candidate positions.
+     */
+    private static final int CANDIDATES = 4;
+
+    /**
+     * Empty slot marker on the grid and on the memory tables.
+     */
+    private static final int EMPTY = -1;
+
+    /**
+     * Default settings.
+     */
+    public static final int DEFAULT_MAX_LABELS = 64;
+    public static final float DEFAULT_CELL_SIZE = 128f;
+
+    /**
+     * Distance between a label and its anchor.
+     */
+    private final float gap;
+
+    /**
+     * Size of the grid cells.
+     */
+    private final float cellSize;
+
+    /**
+     * Maximum number of labels placed per frame.
+     */
+    private final int maxLabels;
+
+    /**
+     * Maximum number of boxes, labels and obstacles, per frame.
+     */
+    private final int maxBoxes;
+
+    /**
+     * Grid, head of the entries list of every cell.
+     */
+    private int[] cells = new int[0];
+    private int columns, rows;
+
+    /**
+     * Grid entries, box they point to and next entry on the same cell.
+     */
+    private int[] entryBox, entryNext;
+    private int entries;
+
+    /**
+     * Placed boxes, as left, top, right and bottom.
+     */
+    private final float[] boxes;
+    private int boxCount;
+
+    /**
+     * Labels placed on the current frame.
+     */
+    private int labels;
+
+    /**
+     * Candidate used by each label on the previous and on the current frame, by label id.
+     */
+    private int[] previousIds, previousCandidates, currentIds, currentCandidates;
+
+    /**
+     * Result of the last placement.
+     */
+    private float left, top, width, height;
+    private int candidate;
+
+    /**
+     * Creates a new layout with default settings.
+     * @param gap distance between a label and its anchor.
+     */
+    public LabelLayout(float gap) {
+        this(gap, DEFAULT_CELL_SIZE, DEFAULT_MAX_LABELS);
+    }
+
+    /**
+     * Creates a new layout.
+     * @param gap distance between a label and its anchor.
+     * @param cellSize size of the collision grid cells, about the size of a label.
+     * @param maxLabels maximum number of labels placed per frame.
+     */
+    public LabelLayout(float gap, float cellSize, int maxLabels) {
+        this.gap = gap;
+        this.cellSize = cellSize;
+        this.maxLabels = maxLabels;
+
+        // Each label can be accompanied by its anchor's obstacle
+        maxBoxes = maxLabels * 2;
+        boxes = new float[maxBoxes * 4];
+
+        final int tableSize = Integer.highestOneBit(maxLabels * 2) * 2;
+        previousIds = new int[tableSize];
+        previousCandidates = new int[tableSize];
+        currentIds = new int[tableSize];
+        currentCandidates = new int[tableSize];
+        Arrays.fill(previousIds, EMPTY);
+        Arrays.fill(currentIds, EMPTY);
+
+        entryBox = new int[maxBoxes * 4];
+        entryNext = new int[maxBoxes * 4];
+    }
+
+    /**
+     * Starts a new frame.
+     * @param width of the screen.
+     * @param height of the screen.
+     */
+    public void begin(int width, int height) {
+
+        columns = Math.max(1, (int) Math.ceil(width / cellSize));
+        rows = Math.max(1, (int) Math.ceil(height / cellSize));
+
+        if (cells.length < columns * rows) {
+            cells = new int[columns * rows];
+        }
+
+        Arrays.fill(cells, 0, columns * rows, EMPTY);
+        entries = 0;
+        boxCount = 0;
+        labels = 0;
+
+    }
+
+    /**
+     * Marks an area where labels can't be placed, such as an icon.
+     * Obstacles are ignored once the frame is full.
+     * @param left of the area.
+     * @param top of the area.
+     * @param right of the area.
+     * @param bottom of the area.
+     */
+    public void addObstacle(float left, float top, float right, float bottom) {
+        if (boxCount < maxBoxes - (maxLabels - labels)) {
+            insert(left, top, right, bottom);
+        }
+    }
+
+    /**
+     * Tries to place a label, its position can be retrieved with {@link #getLeft()} and {@link #getTop()}.
+     * @param id of the label, stable across frames and not negative.
+     * @param anchorX abscissa the label refers to.
+     * @param anchorY ordinate the label refers to.
+     * @param width of the label.
+     * @param height of the label.
+     * @return true if the label was placed, false if there was no free room or the frame is full.
+     */
+    public boolean place(int id, float anchorX, float anchorY, float width, float height) {
+
+        if (labels >= maxLabels) {
+            return false;
+        }
+
+        final int previous = find(previousIds, previousCandidates, id);
+
+        if (EMPTY != previous && tryCandidate(previous, anchorX, anchorY, width, height)) {
+            return accept(id);
+        }
+
+        for (int i = 0; i < CANDIDATES; i++) {
+            if (i != previous && tryCandidate(i, anchorX, anchorY, width, height)) {
+                return accept(id);
+            }
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Finishes the frame, remembering where every label was placed.
+     */
+    public void end() {
+
+        int[] swap = previousIds;
+        previousIds = currentIds;
+        currentIds = swap;
+
+        swap = previousCandidates;
+        previousCandidates = currentCandidates;
+        currentCandidates = swap;
+
+        Arrays.fill(currentIds, EMPTY);
+
+    }
+
+    /**
+     * Retrieves the left side of the last placed label.
+     * @return the left side.
+     */
+    public float getLeft() {
+        return left;
+    }
+
+    /**
+     * Retrieves the top side of the last placed label.
+     * @return the top side.
+     */
+    public float getTop() {
+        return top;
+    }
+
+    /**
+     * Retrieves the candidate position used by the last placed label.
+     * @return one of {@link #RIGHT}, {@link #LEFT}, {@link #BELOW} or {@link #ABOVE}.
+     */
+    public int getCandidate() {
+        return candidate;
+    }
+
+    /**
+     * Checks a candidate position, keeping it as the last placement if it's free.
+     * @return true if the candidate is free, false otherwise.
+     */
+    private boolean tryCandidate(int candidate, float anchorX, float anchorY, float width, float height) {
+
+        final float left, top;
+
+        switch (candidate) {
+            case RIGHT:
+                left = anchorX + gap;
+                top = anchorY - height / 2;
+                break;
+            case LEFT:
+                left = anchorX - gap - width;
+                top = anchorY - height / 2;
+                break;
+            case BELOW:
+                left = anchorX - width / 2;
+                top = anchorY + gap;
+                break;
+            default:
+                left = anchorX - width / 2;
+                top = anchorY - gap - height;
+                break;
+        }
+
+        if (collides(left, top, left + width, top + height)) {
+            return false;
+        }
+
+        this.left = left;
+        this.top = top;
+        this.width = width;
+        this.height = height;
+        this.candidate = candidate;
+
+        return true;
+
+    }
+
+    /**
+     * Stores the last checked candidate as a placed label.
+     * @param id of the label.
+     * @return always true.
+     */
+    private boolean accept(int id) {
+        insert(left, top, left + width, top + height);
+        remember(id, candidate);
+        labels++;
+        return true;
+    }
+
+    /**
+     * Checks whether an area overlaps any box already on the grid.
+     * @return true if there is an overlap, false otherwise.
+     */
+    private boolean collides(float left, float top, float right, float bottom) {
+
+        final int firstColumn = column(left), lastColumn = column(right);
+        final int firstRow = row(top), lastRow = row(bottom);
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+                for (int e = cells[r * columns + c]; EMPTY != e; e = entryNext[e]) {
+                    final int box = entryBox[e] * 4;
+                    if (left < boxes[box + 2] && boxes[box] < right
+                            && top < boxes[box + 3] && boxes[box + 1] < bottom) {
+                        return true;
+                    }
+                }
+            }
+        }
+
+        return false;
+
+    }
+
+    /**
+     * Adds a box to the grid, on every cell it overlaps.
+     */
+    private void insert(float left, float top, float right, float bottom) {
+
+        final int box = boxCount++;
+        boxes[box * 4] = left;
+        boxes[box * 4 + 1] = top;
+        boxes[box * 4 + 2] = right;
+        boxes[box * 4 + 3] = bottom;
+
+        final int firstColumn = column(left), lastColumn = column(right);
+        final int firstRow = row(top), lastRow = row(bottom);
+
+        for (int r = firstRow; r <= lastRow; r++) {
+            for (int c = firstColumn; c <= lastColumn; c++) {
+
+                if (entries == entryBox.length) {
+                    entryBox = Arrays.copyOf(entryBox, entries * 2);
+                    entryNext = Arrays.copyOf(entryNext, entries * 2);
+                }
+
+                final int cell = r * columns + c;
+                entryBox[entries] = box;
+                entryNext[entries] = cells[cell];
+                cells[cell] = entries++;
+
+            }
+        }
+
+    }
+
+    /**
+     * Cell column of an abscissa, boxes out of the screen share the border cells.
+     */
+    private int column(float x) {
+        return Math.min(columns - 1, Math.max(0, (int) (x / cellSize)));
+    }
+
+    /**
+     * Cell row of an ordinate, boxes out of the screen share the border cells.
+     */
+    private int row(float y) {
+        return Math.min(rows - 1, Math.max(0, (int) (y / cellSize)));
+    }
+
+    /**
+     * Stores the candidate of a label on the current frame's table.
+     */
+    private void remember(int id, int candidate) {
+        final int mask = currentIds.length - 1;
+        int slot = hash(id) & mask;
+
+        while (EMPTY != currentIds[slot] && id != currentIds[slot]) {
+            slot = (slot + 1) & mask;
+        }
+
+        currentIds[slot] = id;
+        currentCandidates[slot] = candidate;
+    }
+
+    /**
+     * Looks for the candidate of a label on a table.
+     * @return the candidate, or {@link #EMPTY} if the label isn't on the table.
+     */
+    private static int find(int[] ids, int[] candidates, int id) {
+        final int mask = ids.length - 1;
+        int slot = hash(id) & mask;
+
+        while (EMPTY != ids[slot]) {
+            if (id == ids[slot]) {
+                return candidates[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return EMPTY;
+    }
+
+    /**
+     * Spreads the bits of an id.
+     */
+    private static int hash(int id) {
+        final int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+}
@@ -0,0 +1,216 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Detects magnetic disturbances, like the ones caused by steel structures indoors, watching the
+ * geomagnetic field's magnitude and inclination. Both barely change on a building's scale, so
+ * deviations from the reference learned while undisturbed mean the heading can't be trusted.
+ * The first sample may already be disturbed, so a field that stays steady away from the reference
+ * for a few seconds becomes the new reference.
+ * @author Hector Del Campo Pando
+ */
+public class MagneticDisturbanceDetector {
+
+    /**
+     * Range of the Earth's field magnitude, in microteslas.
+     */
+    public static final double MIN_FIELD = 20, MAX_FIELD = 70;
+
+    /**
+     * Default tolerances, in microteslas and degrees.
+     */
+    public static final double DEFAULT_MAGNITUDE_TOLERANCE = 8, DEFAULT_INCLINATION_TOLERANCE = 10;
+
+    /**
+     * Factor to follow slow changes of the reference field while undisturbed.
+     */
+    private static final double REFERENCE_SMOOTHING = 0.005;
+
+    /**
+     * Consecutive undisturbed samples needed to clear a disturbance.
+     */
+    private static final int CLEAR_SAMPLES = 25;
+
+    /**
+     * Consecutive steady samples, away from the reference, needed to take them as the new reference,
+     * about six seconds at the rate the magnetometer is read.
+     */
+    private static final int RECONVERGE_SAMPLES = 100;
+
+    /**
+     * Allowed deviations from the reference.
+     */
+    private final double magnitudeTolerance, inclinationTolerance;
+
+    /**
+     * Reference field.
+     */
+    private double referenceMagnitude, referenceInclination;
+    private boolean hasReference;
+
+    /**
+     * Mean of the steady samples away from the reference, candidate to replace it.
+     */
+    private double candidateMagnitude, candidateInclination;
+    private int steadySamples;
+
+    /**
+     * Last sample's field.
+     */
+    private double magnitude, inclination;
+
+    /**
+     * Current state.
+     */
+    private boolean disturbed;
+    private int cleanSamples;
+
+    /**
+     * Creates a new detector with default tolerances.
+     */
+    public MagneticDisturbanceDetector() {
+        this(DEFAULT_MAGNITUDE_TOLERANCE, DEFAULT_INCLINATION_TOLERANCE);
+    }
+
+    /**
+     * Creates a new detector.
+     * @param magnitudeTolerance allowed deviation of the magnitude, in microteslas.
+     * @param inclinationTolerance allowed deviation of the inclination, in degrees.
+     */
+    public MagneticDisturbanceDetector(double magnitudeTolerance, double inclinationTolerance) {
+        if (magnitudeTolerance <= 0 || inclinationTolerance <= 0) {
+            throw new IllegalArgumentException("Tolerances must be positive");
+        }
+
+        this.magnitudeTolerance = magnitudeTolerance;
+        this.inclinationTolerance = inclinationTolerance;
+    }
+
+    /**
+     * Processes a new magnetic field sample, on device coordinates.
+     * @param fieldX X component of the field, in microteslas.
+     * @param fieldY Y component of the field, in microteslas.
+     * @param fieldZ Z component of the field, in microteslas.
+     * @param upX X component of the world's up direction, on device coordinates.
+     * @param upY Y component of the world's up direction, on device coordinates.
+     * @param upZ Z component of the world's up direction, on device coordinates.
+     * @return true if the disturbance state changed, false otherwise.
+     */
+    public boolean update(double fieldX, double fieldY, double fieldZ, double upX, double upY, double upZ) {
+
+        final double length = Math.sqrt(fieldX*fieldX + fieldY*fieldY + fieldZ*fieldZ);
+        final double upLength = Math.sqrt(upX*upX + upY*upY + upZ*upZ);
+
+        if (0 == length || 0 == upLength) {
+            return false;
+        }
+
+        final double sin = (fieldX*upX + fieldY*upY + fieldZ*upZ) / (length * upLength);
+        magnitude = length;
+        inclination = Math.toDegrees(Math.asin(Math.max(-1, Math.min(1, sin))));
+
+        final boolean outOfRange = magnitude < MIN_FIELD || magnitude > MAX_FIELD;
+
+        if (!hasReference && !outOfRange) {
+            referenceMagnitude = magnitude;
+            referenceInclination = inclination;
+            hasReference = true;
+        }
+
+        if (outOfRange) {
+            steadySamples = cleanSamples = 0;
+            return setDisturbed(true);
+        }
+
+        if (isAway(referenceMagnitude, referenceInclination) && !reconverge()) {
+            cleanSamples = 0;
+            return setDisturbed(true);
+        }
+
+        steadySamples = 0;
+
+        referenceMagnitude += REFERENCE_SMOOTHING * (magnitude - referenceMagnitude);
+        referenceInclination += REFERENCE_SMOOTHING * (inclination - referenceInclination);
+
+        return (!disturbed || ++cleanSamples >= CLEAR_SAMPLES) && setDisturbed(false);
+
+    }
+
+    /**
+     * Forgets the reference field.
+     */
+    public void reset() {
+        hasReference = false;
+        disturbed = false;
+        cleanSamples = steadySamples = 0;
+    }
+
+    /**
+     * Checks whether the field is disturbed or not.
+     * @return true if the field is disturbed, false otherwise.
+     */
+    public boolean isDisturbed() {
+        return disturbed;
+    }
+
+    /**
+     * Retrieves the last sample's field magnitude.
+     * @return the magnitude, in microteslas.
+     */
+    public double getMagnitude() {
+        return magnitude;
+    }
+
+    /**
+     * Retrieves the last sample's field inclination, the angle over the horizon.
+     * @return the inclination, in degrees.
+     */
+    public double getInclination() {
+        return inclination;
+    }
+
+    /**
+     * Checks whether the last sample deviates from a field more than allowed.
+     */
+    private boolean isAway(double magnitude, double inclination) {
+        return Math.abs(this.magnitude - magnitude) > magnitudeTolerance
+                || Math.abs(this.inclination - inclination) > inclinationTolerance;
+    }
+
+    /**
+     * Follows the last sample, away from the reference, as a candidate reference.
+     * @return true if the field has been steady long enough to become the new reference, false otherwise.
+     */
+    private boolean reconverge() {
+
+        if (0 == steadySamples || isAway(candidateMagnitude, candidateInclination)) {
+            candidateMagnitude = magnitude;
+            candidateInclination = inclination;
+            steadySamples = 1;
+            return false;
+        }
+
+        steadySamples++;
+        candidateMagnitude += (magnitude - candidateMagnitude) / steadySamples;
+        candidateInclination += (inclination - candidateInclination) / steadySamples;
+
+        if (steadySamples < RECONVERGE_SAMPLES) {
+            return false;
+        }
+
+        referenceMagnitude = candidateMagnitude;
+        referenceInclination = candidateInclination;
+        return true;
+
+    }
+
+    /**
+     * Changes the state.
+     * @return true if the state changed, false otherwise.
+     */
+    private boolean setDisturbed(boolean disturbed) {
+        final boolean changed = this.disturbed != disturbed;
+        this.disturbed = disturbed;
+        return changed;
+    }
+
+}
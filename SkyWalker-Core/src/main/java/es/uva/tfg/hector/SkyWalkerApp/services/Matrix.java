@@ -0,0 +1,260 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.util.Arrays;
+
+/**
+ * Mathematical matrix class using doubles.
+ * Elements are stored row by row on a single array, so rows are contiguous in memory.
+ * @author Héctor Del Campo Pando
+ */
+public class Matrix {
+
+    /**
+     * Size from which the blocked multiplication is used.
+     */
+    private static final int BLOCKED_SIZE = 32;
+
+    /**
+     * Side of the blocks of the blocked multiplication.
+     */
+    private static final int BLOCK = 16;
+
+    /**
+     * Num of rows and columns.
+     */
+    private final int rows, cols;
+
+    /**
+     * Data of the matrix, row-major.
+     */
+    private final double[] data;
+
+    /**
+     * Constructs a new T Matrix with the given sizes and filled with 0.
+     */
+    public Matrix (final int rows, final int cols) {
+        this.rows = rows;
+        this.cols = cols;
+        data = new double[rows * cols];
+    }
+
+    /**
+     * Constructs a new T Matrix with the given values.
+     * @param data to set, copied.
+     */
+    public Matrix (final double[][] data) {
+        this(data.length, data[0].length);
+
+        for (int i = 0; i < rows; i++) {
+            System.arraycopy(data[i], 0, this.data, i * cols, cols);
+        }
+    }
+
+    /**
+     * Retrieves the matrix multiplication as this*rightFactor.
+     * @param rightFactor the right multiplier matrix.
+     */
+    public Matrix multiply(final Matrix rightFactor) {
+
+        if (cols != rightFactor.rows) {
+            throw new IllegalArgumentException("Cannot multiply with this sizes");
+        }
+
+        final Matrix result = new Matrix(rows, rightFactor.cols);
+        multiplyInto(rightFactor, result);
+        return result;
+
+    }
+
+    /**
+     * Stores the matrix multiplication this*rightFactor into a matrix, without allocating
+     * for 3x3 and 4x4 matrices.
+     * @param rightFactor the right multiplier matrix.
+     * @param destination where the result will be stored, may be any of the factors for 3x3 and 4x4 matrices.
+     */
+    public void multiplyInto(final Matrix rightFactor, final Matrix destination) {
+
+        if (cols != rightFactor.rows) {
+            throw new IllegalArgumentException("Cannot multiply with this sizes");
+        }
+
+        if (destination.rows != rows || destination.cols != rightFactor.cols) {
+            throw new IllegalArgumentException("Invalid destination size");
+        }
+
+        final int size = rows;
+
+        if (size == cols && size == rightFactor.cols) {
+            if (3 == size) {
+                multiply3x3(data, rightFactor.data, destination.data);
+                return;
+            } else if (4 == size) {
+                multiply4x4(data, rightFactor.data, destination.data);
+                return;
+            }
+        }
+
+        // The general paths write while reading, so aliasing needs a copy
+        final double[] left = destination == this ? data.clone() : data;
+        final double[] right = destination == rightFactor ? rightFactor.data.clone() : rightFactor.data;
+
+        if (rows >= BLOCKED_SIZE && cols >= BLOCKED_SIZE && rightFactor.cols >= BLOCKED_SIZE) {
+            multiplyBlocked(left, right, destination.data, rows, cols, rightFactor.cols);
+        } else {
+            multiplyRows(left, right, destination.data, rows, cols, rightFactor.cols);
+        }
+
+    }
+
+    /**
+     * Sets the matrix position to the given element.
+     * @param row of the position.
+     * @param col of the position.
+     * @param element to save.
+     */
+    public void set(final int row, final int col, double element) {
+        data[row * cols + col] = element;
+    }
+
+    /**
+     * Retrieves a matrix element.
+     * @param row of the element.
+     * @param col of the element.
+     * @return the element itself.
+     */
+    public double get(final int row, final int col) {
+        return data[row * cols + col];
+    }
+
+    /**
+     * Retrieves the number of rows.
+     * @return the number of rows.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Retrieves the number of columns.
+     * @return the number of columns.
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Multiplies row by row, walking both factors sequentially: each element of a row of the left factor
+     * scales a whole row of the right one, accumulated into the result's row.
+     */
+    private static void multiplyRows(double[] a, double[] b, double[] out, int n, int m, int p) {
+
+        for (int i = 0; i < n; i++) {
+            final int outRow = i * p;
+
+            for (int j = 0; j < p; j++) {
+                out[outRow + j] = 0;
+            }
+
+            for (int k = 0; k < m; k++) {
+                final double factor = a[i * m + k];
+                final int bRow = k * p;
+
+                for (int j = 0; j < p; j++) {
+                    out[outRow + j] += factor * b[bRow + j];
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Multiplies big matrices by blocks, with the right factor transposed so both factors
+     * are walked sequentially, keeping the blocks in cache.
+     */
+    private static void multiplyBlocked(double[] a, double[] b, double[] out, int n, int m, int p) {
+
+        final double[] transposed = new double[m * p];
+
+        for (int k = 0; k < m; k++) {
+            for (int j = 0; j < p; j++) {
+                transposed[j * m + k] = b[k * p + j];
+            }
+        }
+
+        Arrays.fill(out, 0, n * p, 0);
+
+        for (int i0 = 0; i0 < n; i0 += BLOCK) {
+            final int iEnd = Math.min(i0 + BLOCK, n);
+
+            for (int j0 = 0; j0 < p; j0 += BLOCK) {
+                final int jEnd = Math.min(j0 + BLOCK, p);
+
+                for (int k0 = 0; k0 < m; k0 += BLOCK) {
+                    final int kEnd = Math.min(k0 + BLOCK, m);
+
+                    for (int i = i0; i < iEnd; i++) {
+                        final int aRow = i * m;
+
+                        for (int j = j0; j < jEnd; j++) {
+                            final int tRow = j * m;
+                            double sum = 0;
+
+                            for (int k = k0; k < kEnd; k++) {
+                                sum += a[aRow + k] * transposed[tRow + k];
+                            }
+
+                            out[i * p + j] += sum;
+                        }
+                    }
+                }
+            }
+        }
+
+    }
+
+    /**
+     * Unrolled 3x3 multiplication, safe when the result is any of the factors.
+     */
+    private static void multiply3x3(double[] a, double[] b, double[] out) {
+
+        final double a00 = a[0], a01 = a[1], a02 = a[2],
+                a10 = a[3], a11 = a[4], a12 = a[5],
+                a20 = a[6], a21 = a[7], a22 = a[8];
+        final double b00 = b[0], b01 = b[1], b02 = b[2],
+                b10 = b[3], b11 = b[4], b12 = b[5],
+                b20 = b[6], b21 = b[7], b22 = b[8];
+
+        out[0] = a00*b00 + a01*b10 + a02*b20;
+        out[1] = a00*b01 + a01*b11 + a02*b21;
+        out[2] = a00*b02 + a01*b12 + a02*b22;
+        out[3] = a10*b00 + a11*b10 + a12*b20;
+        out[4] = a10*b01 + a11*b11 + a12*b21;
+        out[5] = a10*b02 + a11*b12 + a12*b22;
+        out[6] = a20*b00 + a21*b10 + a22*b20;
+        out[7] = a20*b01 + a21*b11 + a22*b21;
+        out[8] = a20*b02 + a21*b12 + a22*b22;
+
+    }
+
+    /**
+     * Unrolled 4x4 multiplication, safe when the result is any of the factors.
+     */
+    private static void multiply4x4(double[] a, double[] b, double[] out) {
+
+        final double b00 = b[0], b01 = b[1], b02 = b[2], b03 = b[3],
+                b10 = b[4], b11 = b[5], b12 = b[6], b13 = b[7],
+                b20 = b[8], b21 = b[9], b22 = b[10], b23 = b[11],
+                b30 = b[12], b31 = b[13], b32 = b[14], b33 = b[15];
+
+        // Each row of the left factor is read before its row of the result is written
+        for (int row = 0; row < 16; row += 4) {
+            final double a0 = a[row], a1 = a[row + 1], a2 = a[row + 2], a3 = a[row + 3];
+            out[row] = a0*b00 + a1*b10 + a2*b20 + a3*b30;
+            out[row + 1] = a0*b01 + a1*b11 + a2*b21 + a3*b31;
+            out[row + 2] = a0*b02 + a1*b12 + a2*b22 + a3*b32;
+            out[row + 3] = a0*b03 + a1*b13 + a2*b23 + a3*b33;
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Decides whether the device is moving or still from its angular speed, with hysteresis:
+ * it becomes moving as soon as the speed goes over a threshold, but only becomes still
+ * once the speed has stayed under a lower one for a while.
+ * @author Hector Del Campo Pando
+ */
+public class MotionDetector {
+
+    /**
+     * Default settings, speeds in radians per second and time in nanoseconds.
+     */
+    public static final double DEFAULT_MOVING_SPEED = 0.35, DEFAULT_STILL_SPEED = 0.1;
+    public static final long DEFAULT_STILL_TIME = 2000000000L;
+
+    /**
+     * Speed over which the device is moving.
+     */
+    private final double movingSpeed;
+
+    /**
+     * Speed under which the device may be still.
+     */
+    private final double stillSpeed;
+
+    /**
+     * Time the speed must stay under {@link #stillSpeed} to be still.
+     */
+    private final long stillTime;
+
+    /**
+     * Current state.
+     */
+    private boolean moving = true;
+
+    /**
+     * Timestamp since when the speed is under {@link #stillSpeed}, if it is.
+     */
+    private long slowSince;
+    private boolean slow;
+
+    /**
+     * Creates a new detector with default settings.
+     */
+    public MotionDetector() {
+        this(DEFAULT_MOVING_SPEED, DEFAULT_STILL_SPEED, DEFAULT_STILL_TIME);
+    }
+
+    /**
+     * Creates a new detector.
+     * @param movingSpeed speed, in radians per second, over which the device is moving.
+     * @param stillSpeed speed, in radians per second, under which the device may be still.
+     * @param stillTime time, in nanoseconds, the speed must stay under stillSpeed to be still.
+     */
+    public MotionDetector(double movingSpeed, double stillSpeed, long stillTime) {
+        if (stillSpeed > movingSpeed || stillTime < 0) {
+            throw new IllegalArgumentException("Invalid detector settings");
+        }
+
+        this.movingSpeed = movingSpeed;
+        this.stillSpeed = stillSpeed;
+        this.stillTime = stillTime;
+    }
+
+    /**
+     * Processes a new speed sample.
+     * @param timestamp of the sample, in nanoseconds.
+     * @param speed angular speed, in radians per second.
+     * @return true if the state changed, false otherwise.
+     */
+    public boolean update(long timestamp, double speed) {
+
+        if (speed > movingSpeed) {
+            slow = false;
+            return setMoving(true);
+        }
+
+        if (speed >= stillSpeed) {
+            slow = false;
+            return false;
+        }
+
+        if (!slow) {
+            slow = true;
+            slowSince = timestamp;
+        }
+
+        return timestamp - slowSince >= stillTime && setMoving(false);
+
+    }
+
+    /**
+     * Goes back to the initial state, moving.
+     */
+    public void reset() {
+        moving = true;
+        slow = false;
+    }
+
+    /**
+     * Checks whether the device is moving or not.
+     * @return true if the device is moving, false if it's still.
+     */
+    public boolean isMoving() {
+        return moving;
+    }
+
+    /**
+     * Changes the state.
+     * @return true if the state changed, false otherwise.
+     */
+    private boolean setMoving(boolean moving) {
+        final boolean changed = this.moving != moving;
+        this.moving = moving;
+        return changed;
+    }
+
+}
@@ -0,0 +1,95 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Turns rotation vector samples into the device's orientation on the map.
+ * Subclasses estimate the view direction in the device's world coordinates,
+ * this class rotates it to the map's north.
+ * @author Hector Del Campo Pando
+ */
+public abstract class OrientationEstimator {
+
+    /**
+     * Rotation from the magnetic north to the map's north.
+     */
+    private double northCos, northSin;
+
+    /**
+     * Current orientation on the map, normalized.
+     */
+    private double x, y = 1, z;
+
+    /**
+     * Creates a new estimator.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    protected OrientationEstimator(float mapNorthOffset) {
+        setMapNorthOffset(mapNorthOffset);
+    }
+
+    /**
+     * Changes the map's north, applied from the next sample on.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    public void setMapNorthOffset(float mapNorthOffset) {
+        final double rad = -Math.toRadians(mapNorthOffset);
+        northCos = Math.cos(rad);
+        northSin = Math.sin(rad);
+    }
+
+    /**
+     * Processes a new rotation vector sample.
+     * @param rotationVector the sample, as given by the rotation vector sensor.
+     */
+    public abstract void update(float[] rotationVector);
+
+    /**
+     * Forgets the filtered data, next sample will be taken as is.
+     */
+    public abstract void reset();
+
+    /**
+     * Retrieves the X component of the orientation.
+     * @return the X component.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Retrieves the Y component of the orientation.
+     * @return the Y component.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Retrieves the Z component of the orientation.
+     * @return the Z component.
+     */
+    public double getZ() {
+        return z;
+    }
+
+    /**
+     * Sets the orientation from the view direction, the third column of the rotation matrix.
+     * @param directionX first component of the view direction.
+     * @param directionY second component of the view direction.
+     * @param directionZ third component of the view direction.
+     */
+    protected void setViewDirection(double directionX, double directionY, double directionZ) {
+
+        // Map vector, rotated clockwise to the map's north
+        final double mapX = -directionX, mapY = -directionY;
+        final double newX = mapX * northCos - mapY * northSin;
+        final double newY = mapX * northSin + mapY * northCos;
+        final double newZ = -directionZ;
+
+        final double length = Math.sqrt(newX*newX + newY*newY + newZ*newZ);
+        x = newX / length;
+        y = newY / length;
+        z = newZ / length;
+
+    }
+
+}
@@ -0,0 +1,114 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Orientation estimator that low pass filters, component by component,
+ * the view direction taken from the rotation matrix.
+ * All buffers are allocated once, so processing a sample allocates nothing.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationFilter extends OrientationEstimator {
+
+    /**
+     * Value to filter data.
+     */
+    public static final float ALPHA = .25f;
+
+    /**
+     * Reusable rotation matrix.
+     */
+    private final float[] rotationMatrix = new float[9];
+
+    /**
+     * Filtered view direction, in device's world coordinates.
+     */
+    private final float[] filtered = new float[3];
+    private boolean primed;
+
+    /**
+     * Creates a new filter.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    public OrientationFilter(float mapNorthOffset) {
+        super(mapNorthOffset);
+    }
+
+    @Override
+    public void update(float[] rotationVector) {
+
+        getRotationMatrixFromVector(rotationMatrix, rotationVector);
+
+        lowFilter(rotationMatrix[2], rotationMatrix[5], rotationMatrix[8]);
+
+        setViewDirection(filtered[0], filtered[1], filtered[2]);
+
+    }
+
+    @Override
+    public void reset() {
+        primed = false;
+    }
+
+    /**
+     * Low pass filters the input data into the filtered values.
+     */
+    private void lowFilter(float inputX, float inputY, float inputZ) {
+
+        if (!primed) {
+            filtered[0] = inputX;
+            filtered[1] = inputY;
+            filtered[2] = inputZ;
+            primed = true;
+            return;
+        }
+
+        filtered[0] += ALPHA * (inputX - filtered[0]);
+        filtered[1] += ALPHA * (inputY - filtered[1]);
+        filtered[2] += ALPHA * (inputZ - filtered[2]);
+
+    }
+
+    /**
+     * Computes the rotation matrix of a rotation vector, same as Android's
+     * {@code SensorManager.getRotationMatrixFromVector} for 3x3 matrices.
+     * @param matrix array of 9 elements where the matrix will be stored.
+     * @param rotationVector of 3, 4 or 5 elements, the scalar component is computed if missing.
+     */
+    public static void getRotationMatrixFromVector(float[] matrix, float[] rotationVector) {
+
+        final float q1 = rotationVector[0];
+        final float q2 = rotationVector[1];
+        final float q3 = rotationVector[2];
+        float q0;
+
+        if (rotationVector.length >= 4) {
+            q0 = rotationVector[3];
+        } else {
+            q0 = 1 - q1*q1 - q2*q2 - q3*q3;
+            q0 = (q0 > 0) ? (float) Math.sqrt(q0) : 0;
+        }
+
+        final float sqQ1 = 2 * q1 * q1;
+        final float sqQ2 = 2 * q2 * q2;
+        final float sqQ3 = 2 * q3 * q3;
+        final float q1Q2 = 2 * q1 * q2;
+        final float q3Q0 = 2 * q3 * q0;
+        final float q1Q3 = 2 * q1 * q3;
+        final float q2Q0 = 2 * q2 * q0;
+        final float q2Q3 = 2 * q2 * q3;
+        final float q1Q0 = 2 * q1 * q0;
+
+        matrix[0] = 1 - sqQ2 - sqQ3;
+        matrix[1] = q1Q2 - q3Q0;
+        matrix[2] = q1Q3 + q2Q0;
+
+        matrix[3] = q1Q2 + q3Q0;
+        matrix[4] = 1 - sqQ1 - sqQ3;
+        matrix[5] = q2Q3 - q1Q0;
+
+        matrix[6] = q1Q3 - q2Q0;
+        matrix[7] = q2Q3 + q1Q0;
+        matrix[8] = 1 - sqQ1 - sqQ2;
+
+    }
+
+}
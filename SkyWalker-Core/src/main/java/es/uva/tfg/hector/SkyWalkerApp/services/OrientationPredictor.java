@@ -0,0 +1,252 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Short horizon orientation prediction, to compensate the time between a sensor sample
+ * and the frame showing it. The angular velocity is estimated from consecutive rotation
+ * quaternions, already expressed on the map, so readers only need to rotate the last view
+ * direction around it.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationPredictor {
+
+    /**
+     * Default factor to smooth the angular velocity between samples.
+     */
+    public static final double DEFAULT_SMOOTHING = 0.5;
+
+    /**
+     * Longest prediction ever made, in seconds, longer ones amplify noise more than they help.
+     */
+    public static final double MAX_PREDICTION = 0.1;
+
+    /**
+     * Angular speeds, in radians per second, under which nothing is predicted and
+     * from which the prediction is complete.
+     */
+    public static final double DEAD_ZONE = 0.2, FULL_SPEED = 0.6;
+
+    /**
+     * Oldest sample age, in nanoseconds, taken into account, older ones mean the sample's clock is
+     * not the expected one.
+     */
+    private static final long MAX_SAMPLE_AGE = 1000000000L;
+
+    /**
+     * Longest gap between samples, in nanoseconds, from which the velocity is estimated.
+     */
+    private static final long MAX_GAP = 200000000L;
+
+    /**
+     * Rotation from the magnetic north to the map's north.
+     */
+    private double northCos, northSin;
+
+    /**
+     * Factor to smooth the angular velocity.
+     */
+    private final double smoothing;
+
+    /**
+     * Previous sample.
+     */
+    private long timestamp;
+    private double qx, qy, qz, qw;
+    private boolean primed;
+
+    /**
+     * Angular velocity on the map, in radians per second.
+     */
+    private double velocityX, velocityY, velocityZ;
+
+    /**
+     * Creates a new predictor with default smoothing.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    public OrientationPredictor(float mapNorthOffset) {
+        this(mapNorthOffset, DEFAULT_SMOOTHING);
+    }
+
+    /**
+     * Creates a new predictor.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     * @param smoothing factor for new velocities, from (0, 1], 1 means no smoothing.
+     */
+    public OrientationPredictor(float mapNorthOffset, double smoothing) {
+        if (smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Smoothing must be in (0, 1]");
+        }
+
+        setMapNorthOffset(mapNorthOffset);
+        this.smoothing = smoothing;
+    }
+
+    /**
+     * Changes the map's north, applied from the next sample on.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    public void setMapNorthOffset(float mapNorthOffset) {
+        final double rad = -Math.toRadians(mapNorthOffset);
+        northCos = Math.cos(rad);
+        northSin = Math.sin(rad);
+    }
+
+    /**
+     * Processes a new orientation sample.
+     * @param timestamp of the sample, in nanoseconds.
+     * @param x X component of the rotation quaternion.
+     * @param y Y component of the rotation quaternion.
+     * @param z Z component of the rotation quaternion.
+     * @param w scalar component of the rotation quaternion.
+     */
+    public void update(long timestamp, double x, double y, double z, double w) {
+
+        final long gap = timestamp - this.timestamp;
+
+        if (primed && 0 < gap && gap <= MAX_GAP) {
+
+            // Rotation from the previous sample to this one, on world coordinates: q * conj(previous)
+            double dw = w*qw + x*qx + y*qy + z*qz;
+            double dx = x*qw - w*qx - y*qz + z*qy;
+            double dy = y*qw - w*qy - z*qx + x*qz;
+            double dz = z*qw - w*qz - x*qy + y*qx;
+
+            // Shortest path
+            if (dw < 0) {
+                dw = -dw;
+                dx = -dx;
+                dy = -dy;
+                dz = -dz;
+            }
+
+            final double sin = Math.sqrt(dx*dx + dy*dy + dz*dz);
+            final double seconds = gap * 1e-9;
+            double newX = 0, newY = 0, newZ = 0;
+
+            if (sin > 0) {
+                final double rate = 2 * Math.atan2(sin, dw) / (sin * seconds);
+                newX = dx * rate;
+                newY = dy * rate;
+                newZ = dz * rate;
+            }
+
+            // Velocity on the map, the map is rotated around the vertical axis
+            final double mapX = newX * northCos - newY * northSin;
+            final double mapY = newX * northSin + newY * northCos;
+
+            velocityX += smoothing * (mapX - velocityX);
+            velocityY += smoothing * (mapY - velocityY);
+            velocityZ += smoothing * (newZ - velocityZ);
+
+        } else {
+            velocityX = velocityY = velocityZ = 0;
+        }
+
+        this.timestamp = timestamp;
+        qx = x;
+        qy = y;
+        qz = z;
+        qw = w;
+        primed = true;
+
+    }
+
+    /**
+     * Forgets previous samples.
+     */
+    public void reset() {
+        primed = false;
+        velocityX = velocityY = velocityZ = 0;
+    }
+
+    /**
+     * Retrieves the X component of the angular velocity on the map.
+     * @return the X component, in radians per second.
+     */
+    public double getVelocityX() {
+        return velocityX;
+    }
+
+    /**
+     * Retrieves the Y component of the angular velocity on the map.
+     * @return the Y component, in radians per second.
+     */
+    public double getVelocityY() {
+        return velocityY;
+    }
+
+    /**
+     * Retrieves the Z component of the angular velocity on the map.
+     * @return the Z component, in radians per second.
+     */
+    public double getVelocityZ() {
+        return velocityZ;
+    }
+
+    /**
+     * Retrieves how far a sample must be extrapolated, its age plus the horizon.
+     * If the age makes no sense, as some devices use another clock for sensors, only the horizon is used.
+     * @param sampleTimestamp timestamp of the sample, in nanoseconds.
+     * @param now current time, on the same clock as the sample.
+     * @param horizon expected time, in nanoseconds, until the frame is presented.
+     * @return the prediction in seconds, from 0 to {@link #MAX_PREDICTION}.
+     */
+    public static double predictionTime(long sampleTimestamp, long now, long horizon) {
+        long age = now - sampleTimestamp;
+
+        if (age < 0 || age > MAX_SAMPLE_AGE) {
+            age = 0;
+        }
+
+        final double seconds = (age + horizon) * 1e-9;
+        return Math.max(0, Math.min(MAX_PREDICTION, seconds));
+    }
+
+    /**
+     * Predicts the view direction of a reading some time ahead.
+     * @param reading with the view direction and the angular velocity.
+     * @param seconds to predict.
+     * @param out where the predicted direction will be stored.
+     */
+    public static void predict(OrientationSnapshot.Reading reading, double seconds, Vector3D out) {
+        predict(reading.getX(), reading.getY(), reading.getZ(), reading.getVelocityX(),
+                reading.getVelocityY(), reading.getVelocityZ(), seconds, out);
+    }
+
+    /**
+     * Predicts a view direction some time ahead, rotating it around the angular velocity.
+     * @param x component of the view direction.
+     * @param y component of the view direction.
+     * @param z component of the view direction.
+     * @param velocityX component of the angular velocity, in radians per second.
+     * @param velocityY component of the angular velocity, in radians per second.
+     * @param velocityZ component of the angular velocity, in radians per second.
+     * @param seconds to predict.
+     * @param out where the predicted direction will be stored.
+     */
+    public static void predict(double x, double y, double z,
+                               double velocityX, double velocityY, double velocityZ,
+                               double seconds, Vector3D out) {
+
+        final double speed = Math.sqrt(velocityX*velocityX + velocityY*velocityY + velocityZ*velocityZ);
+
+        // Slow velocities are mostly noise, fade the prediction in from the dead zone
+        final double weight = Math.max(0, Math.min(1, (speed - DEAD_ZONE) / (FULL_SPEED - DEAD_ZONE)));
+        final double angle = speed * seconds * weight;
+
+        if (0 == angle) {
+            out.set(x, y, z);
+            return;
+        }
+
+        // Rodrigues' rotation around the velocity's axis
+        final double kx = velocityX / speed, ky = velocityY / speed, kz = velocityZ / speed;
+        final double cos = Math.cos(angle), sin = Math.sin(angle);
+        final double dot = (kx*x + ky*y + kz*z) * (1 - cos);
+
+        out.set(x*cos + (ky*z - kz*y)*sin + kx*dot,
+                y*cos + (kz*x - kx*z)*sin + ky*dot,
+                z*cos + (kx*y - ky*x)*sin + kz*dot);
+
+    }
+
+}
@@ -0,0 +1,185 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Turns raw sensor samples into the published orientation: filtering, angular velocity,
+ * motion and magnetic disturbance detection, and heading calibration input.
+ * It doesn't depend on where samples come from, the device's sensors or a replayed {@link SensorTrace}.
+ * All methods, except {@link #read(OrientationSnapshot.Reading)}, must be called from a single thread.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationProcessor implements SensorSampleListener {
+
+    /**
+     * Filter turning samples into orientations.
+     */
+    private final QuaternionFilter filter;
+
+    /**
+     * Angular velocity estimation.
+     */
+    private final OrientationPredictor predictor;
+
+    /**
+     * Device's orientation, readable from any thread.
+     */
+    private final OrientationSnapshot orientation = new OrientationSnapshot();
+
+    /**
+     * Decides when the device is still.
+     */
+    private final MotionDetector motionDetector = new MotionDetector();
+
+    /**
+     * Heading calibration.
+     */
+    private final MagneticDisturbanceDetector disturbanceDetector = new MagneticDisturbanceDetector();
+    private final HeadingBiasEstimator biasEstimator = new HeadingBiasEstimator();
+
+    /**
+     * Creates a new processor.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    public OrientationProcessor(float mapNorthOffset) {
+        filter = new QuaternionFilter(mapNorthOffset);
+        predictor = new OrientationPredictor(mapNorthOffset);
+    }
+
+    @Override
+    public void onSensorSample(int type, long timestamp, float[] values) {
+        switch (type) {
+            case SensorTrace.TYPE_ROTATION_VECTOR:
+                onRotationVector(timestamp, values);
+                break;
+            case SensorTrace.TYPE_MAGNETIC_FIELD:
+                onMagneticField(values);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Processes a rotation vector sample.
+     * @param timestamp of the sample, in nanoseconds.
+     * @param rotationVector the sample.
+     */
+    public void onRotationVector(long timestamp, float[] rotationVector) {
+
+        filter.update(rotationVector);
+
+        final double x = filter.getX(), y = filter.getY(), z = filter.getZ();
+
+        predictor.update(timestamp, filter.getQuaternionX(), filter.getQuaternionY(),
+                filter.getQuaternionZ(), filter.getQuaternionW());
+
+        final double vx = predictor.getVelocityX(), vy = predictor.getVelocityY(),
+                vz = predictor.getVelocityZ();
+
+        orientation.publish(timestamp, x, y, z,
+                filter.getQuaternionX(), filter.getQuaternionY(),
+                filter.getQuaternionZ(), filter.getQuaternionW(),
+                vx, vy, vz);
+
+        motionDetector.update(timestamp, Math.sqrt(vx*vx + vy*vy + vz*vz));
+
+        if (!disturbanceDetector.isDisturbed()) {
+            biasEstimator.addHeading(x, y, z);
+        }
+
+    }
+
+    /**
+     * Processes a magnetic field sample.
+     * @param field the sample, on device coordinates.
+     */
+    public void onMagneticField(float[] field) {
+
+        // World's up direction on device coordinates, the last row of the rotation matrix
+        final double qx = filter.getQuaternionX(), qy = filter.getQuaternionY(),
+                qz = filter.getQuaternionZ(), qw = filter.getQuaternionW();
+        final double upX = 2 * (qx*qz - qw*qy);
+        final double upY = 2 * (qy*qz + qw*qx);
+        final double upZ = 1 - 2 * (qx*qx + qy*qy);
+
+        if (disturbanceDetector.update(field[0], field[1], field[2], upX, upY, upZ)
+                && disturbanceDetector.isDisturbed()) {
+            biasEstimator.startLeg();
+        }
+
+    }
+
+    /**
+     * Forgets the motion and magnetic state, as after a pause.
+     */
+    public void reset() {
+        motionDetector.reset();
+        disturbanceDetector.reset();
+        biasEstimator.startLeg();
+    }
+
+    /**
+     * Changes the map's north, applied from the next sample on.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    public void setMapNorthOffset(float mapNorthOffset) {
+        filter.setMapNorthOffset(mapNorthOffset);
+        predictor.setMapNorthOffset(mapNorthOffset);
+    }
+
+    /**
+     * Retrieves the last orientation, can be called from any thread without blocking.
+     * @param out where the orientation will be copied.
+     */
+    public void read(OrientationSnapshot.Reading out) {
+        orientation.read(out);
+    }
+
+    /**
+     * Retrieves the X component of the last orientation.
+     * @return the X component.
+     */
+    public double getX() {
+        return filter.getX();
+    }
+
+    /**
+     * Retrieves the Y component of the last orientation.
+     * @return the Y component.
+     */
+    public double getY() {
+        return filter.getY();
+    }
+
+    /**
+     * Retrieves the Z component of the last orientation.
+     * @return the Z component.
+     */
+    public double getZ() {
+        return filter.getZ();
+    }
+
+    /**
+     * Checks whether the device is moving or not.
+     * @return true if the device is moving, false if it's still.
+     */
+    public boolean isMoving() {
+        return motionDetector.isMoving();
+    }
+
+    /**
+     * Checks whether the magnetic field is disturbed or not.
+     * @return true if the field is disturbed, false otherwise.
+     */
+    public boolean isDisturbed() {
+        return disturbanceDetector.isDisturbed();
+    }
+
+    /**
+     * Retrieves the heading bias estimation, fed with the view directions while undisturbed.
+     * @return the estimator.
+     */
+    public HeadingBiasEstimator getBiasEstimator() {
+        return biasEstimator;
+    }
+
+}
@@ -0,0 +1,195 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Lock free publication of the orientation from a single writer thread to any number of readers.
+ * Works as a sequence lock: the writer makes the sequence odd while it's writing and even
+ * again once it's done, readers retry whenever the sequence was odd or changed during the read.
+ * Neither side blocks nor allocates.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationSnapshot {
+
+    /**
+     * Sequence number, odd while a write is in progress.
+     */
+    private volatile int sequence;
+
+    /**
+     * Published data, volatile so reads can't be reordered around the sequence checks.
+     */
+    private volatile long timestamp;
+    private volatile double x, y = 1, z;
+    private volatile double qx, qy, qz, qw = 1;
+    private volatile double velocityX, velocityY, velocityZ;
+
+    /**
+     * Publishes a new orientation, must always be called from the same thread.
+     * @param timestamp of the orientation, in nanoseconds.
+     * @param x component of the view direction.
+     * @param y component of the view direction.
+     * @param z component of the view direction.
+     * @param qx X component of the rotation quaternion.
+     * @param qy Y component of the rotation quaternion.
+     * @param qz Z component of the rotation quaternion.
+     * @param qw scalar component of the rotation quaternion.
+     * @param velocityX X component of the angular velocity on the map, in radians per second.
+     * @param velocityY Y component of the angular velocity on the map, in radians per second.
+     * @param velocityZ Z component of the angular velocity on the map, in radians per second.
+     */
+    public void publish(long timestamp, double x, double y, double z,
+                        double qx, double qy, double qz, double qw,
+                        double velocityX, double velocityY, double velocityZ) {
+
+        final int start = sequence;
+        sequence = start + 1;
+
+        this.timestamp = timestamp;
+        this.x = x;
+        this.y = y;
+        this.z = z;
+        this.qx = qx;
+        this.qy = qy;
+        this.qz = qz;
+        this.qw = qw;
+        this.velocityX = velocityX;
+        this.velocityY = velocityY;
+        this.velocityZ = velocityZ;
+
+        sequence = start + 2;
+
+    }
+
+    /**
+     * Reads the last published orientation, consistent as a whole.
+     * @param out where the orientation will be copied.
+     */
+    public void read(Reading out) {
+
+        int start;
+
+        do {
+
+            start = sequence;
+
+            // A write is in progress
+            if ((start & 1) != 0) {
+                continue;
+            }
+
+            out.timestamp = timestamp;
+            out.x = x;
+            out.y = y;
+            out.z = z;
+            out.qx = qx;
+            out.qy = qy;
+            out.qz = qz;
+            out.qw = qw;
+            out.velocityX = velocityX;
+            out.velocityY = velocityY;
+            out.velocityZ = velocityZ;
+
+        } while ((start & 1) != 0 || start != sequence);
+
+    }
+
+    /**
+     * Copy of a published orientation, owned by a reader thread.
+     */
+    public static class Reading {
+
+        private long timestamp;
+        private double x, y = 1, z;
+        private double qx, qy, qz, qw = 1;
+        private double velocityX, velocityY, velocityZ;
+
+        /**
+         * Retrieves the timestamp of the orientation.
+         * @return the timestamp in nanoseconds.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Retrieves the X component of the view direction.
+         * @return the X component.
+         */
+        public double getX() {
+            return x;
+        }
+
+        /**
+         * Retrieves the Y component of the view direction.
+         * @return the Y component.
+         */
+        public double getY() {
+            return y;
+        }
+
+        /**
+         * Retrieves the Z component of the view direction.
+         * @return the Z component.
+         */
+        public double getZ() {
+            return z;
+        }
+
+        /**
+         * Retrieves the X component of the rotation quaternion.
+         * @return the X component.
+         */
+        public double getQuaternionX() {
+            return qx;
+        }
+
+        /**
+         * Retrieves the Y component of the rotation quaternion.
+         * @return the Y component.
+         */
+        public double getQuaternionY() {
+            return qy;
+        }
+
+        /**
+         * Retrieves the Z component of the rotation quaternion.
+         * @return the Z component.
+         */
+        public double getQuaternionZ() {
+            return qz;
+        }
+
+        /**
+         * Retrieves the scalar component of the rotation quaternion.
+         * @return the scalar component.
+         */
+        public double getQuaternionW() {
+            return qw;
+        }
+
+        /**
+         * Retrieves the X component of the angular velocity on the map.
+         * @return the X component, in radians per second.
+         */
+        public double getVelocityX() {
+            return velocityX;
+        }
+
+        /**
+         * Retrieves the Y component of the angular velocity on the map.
+         * @return the Y component, in radians per second.
+         */
+        public double getVelocityY() {
+            return velocityY;
+        }
+
+        /**
+         * Retrieves the Z component of the angular velocity on the map.
+         * @return the Z component, in radians per second.
+         */
+        public double getVelocityZ() {
+            return velocityZ;
+        }
+
+    }
+
+}
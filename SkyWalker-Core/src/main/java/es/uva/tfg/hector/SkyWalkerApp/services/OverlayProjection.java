@@ -0,0 +1,354 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Projection of map directions onto the overlay screen, shared by every overlay renderer.
+ * In sight directions are projected as a pinhole camera would. For batches of points,
+ * {@link #setOrientation(Vector3D)} computes the camera basis once per frame, so each point
+ * just needs a couple of dot products.
+ * @author Hector Del Campo Pando
+ */
+public class OverlayProjection {
+
+    /**
+     * Screen edges where an out of sight indicator can be placed.
+     */
+    public static final int EDGE_RIGHT = 0, EDGE_BOTTOM = 1, EDGE_LEFT = 2, EDGE_TOP = 3;
+
+    /**
+     * Fraction of the screen used by indicators, measured from the opposite edge.
+     */
+    public static final float MARGIN = 0.9f;
+
+    /**
+     * Field of view, already adapted to the screen orientation, in degrees.
+     */
+    private float fovWidth, fovHeight;
+
+    /**
+     * Size of the screen in pixels.
+     */
+    private int width, height;
+
+    /**
+     * Values derived from the field of view, focal lengths and center in pixels.
+     */
+    private double cosHalfFovWidth, focalX, centerX, focalY, centerY;
+
+    /**
+     * Projection matrix the viewport was last set from, if any.
+     */
+    private Matrix projectionMatrix;
+
+    /**
+     * Camera basis of the current frame, forward direction on the map and the
+     * ordinate shared by every in sight point.
+     */
+    private double forwardX, forwardY;
+    private float screenY;
+    private boolean verticalInSight;
+
+    /**
+     * Single precision copies of the frame values, for {@link #inSightFloat(float, float, float)}
+     * and {@link #projectXFloat(float, float)}.
+     */
+    private float floatForwardX, floatForwardY, floatCosHalfFovWidth, floatFocalX, floatCenterX;
+
+    /**
+     * Sets the screen and the field of view to project on.
+     * @param width of the screen in pixels.
+     * @param height of the screen in pixels.
+     * @param fovWidth horizontal field of view in degrees.
+     * @param fovHeight vertical field of view in degrees.
+     */
+    public void setViewport(int width, int height, float fovWidth, float fovHeight) {
+
+        if (this.width == width && this.height == height &&
+                this.fovWidth == fovWidth && this.fovHeight == fovHeight) {
+            return;
+        }
+
+        this.width = width;
+        this.height = height;
+        this.fovWidth = fovWidth;
+        this.fovHeight = fovHeight;
+        projectionMatrix = null;
+
+        final double halfFovWidth = Math.toRadians(fovWidth / 2);
+        cosHalfFovWidth = Math.cos(halfFovWidth);
+        setProjection(width / 2.0 / Math.tan(halfFovWidth), width / 2.0,
+                height / 2.0 / Math.tan(Math.toRadians(fovHeight / 2)), height / 2.0);
+
+    }
+
+    /**
+     * Sets the screen and the camera to project on, reusing the camera's precomputed projection matrix.
+     * @param width of the screen in pixels.
+     * @param height of the screen in pixels.
+     * @param intrinsics of the camera.
+     * @param portrait whether the screen is in portrait, so the camera is rotated on it.
+     */
+    public void setViewport(int width, int height, CameraIntrinsics intrinsics, boolean portrait) {
+
+        final Matrix projection = intrinsics.getProjection(width, height, portrait);
+
+        // Same matrix, same screen and camera
+        if (projection == projectionMatrix) {
+            return;
+        }
+
+        setViewport(width, height, intrinsics.getScreenFOVWidth(portrait), intrinsics.getScreenFOVHeight(portrait));
+        setProjection(projection.get(0, 0), projection.get(0, 2), projection.get(1, 1), projection.get(1, 2));
+        projectionMatrix = projection;
+
+    }
+
+    /**
+     * Sets the focal lengths and center used to project directions.
+     * @param focalX horizontal focal length in pixels.
+     * @param centerX center abscissa in pixels.
+     * @param focalY vertical focal length in pixels.
+     * @param centerY center ordinate in pixels.
+     */
+    private void setProjection(double focalX, double centerX, double focalY, double centerY) {
+        this.focalX = focalX;
+        this.centerX = centerX;
+        this.focalY = focalY;
+        this.centerY = centerY;
+        floatFocalX = (float) focalX;
+        floatCenterX = (float) centerX;
+        floatCosHalfFovWidth = (float) cosHalfFovWidth;
+    }
+
+    /**
+     * Sets the camera basis of the current frame, used by {@link #inSight(double, double, double)},
+     * {@link #projectX(double, double)} and {@link #getScreenY()}.
+     * Must be called after {@link #setViewport(int, int, float, float)}.
+     * @param orientationVector device's orientation.
+     */
+    public void setOrientation(Vector3D orientationVector) {
+
+        final double x = orientationVector.getX(), y = orientationVector.getY();
+        final double length = Math.sqrt(x*x + y*y);
+
+        //Vertical
+        final double verticalTheta = -90.0*orientationVector.getZ();
+
+        // Looking straight up or down there is no horizontal direction
+        if (0 == length) {
+            forwardX = forwardY = 0;
+            verticalInSight = false;
+        } else {
+            forwardX = x / length;
+            forwardY = y / length;
+            verticalInSight = Math.abs(verticalTheta) <= fovHeight/2;
+        }
+
+        screenY = screenY(verticalTheta);
+        floatForwardX = (float) forwardX;
+        floatForwardY = (float) forwardY;
+
+    }
+
+    /**
+     * Decide whether a direction is in sight or not with the current frame's camera basis.
+     * @param dx abscissa of the direction, not normalized.
+     * @param dy ordinate of the direction, not normalized.
+     * @param length of the direction.
+     * @return true if the direction is inside the field of view, false otherwise.
+     */
+    public boolean inSight(double dx, double dy, double length) {
+        return verticalInSight && forwardX*dx + forwardY*dy >= cosHalfFovWidth*length;
+    }
+
+    /**
+     * Retrieves the screen abscissa of an in sight direction with the current frame's camera basis.
+     * @param dx abscissa of the direction, not normalized.
+     * @param dy ordinate of the direction, not normalized.
+     * @return the abscissa in pixels.
+     */
+    public float projectX(double dx, double dy) {
+        return screenX(forwardX*dx + forwardY*dy, forwardY*dx - forwardX*dy);
+    }
+
+    /**
+     * Same as {@link #inSight(double, double, double)}, in single precision.
+     * @param dx abscissa of the direction, not normalized.
+     * @param dy ordinate of the direction, not normalized.
+     * @param length of the direction.
+     * @return true if the direction is inside the field of view, false otherwise.
+     */
+    public boolean inSightFloat(float dx, float dy, float length) {
+        return verticalInSight && floatForwardX*dx + floatForwardY*dy >= floatCosHalfFovWidth*length;
+    }
+
+    /**
+     * Same as {@link #projectX(double, double)}, in single precision.
+     * @param dx abscissa of the direction, not normalized.
+     * @param dy ordinate of the direction, not normalized.
+     * @return the abscissa in pixels.
+     */
+    public float projectXFloat(float dx, float dy) {
+        final float depth = floatForwardX*dx + floatForwardY*dy, side = floatForwardY*dx - floatForwardX*dy;
+        return floatCenterX + floatFocalX*side/depth;
+    }
+
+    /**
+     * Retrieves the screen ordinate of every in sight point with the current frame's camera basis.
+     * @return the ordinate in pixels.
+     */
+    public float getScreenY() {
+        return screenY;
+    }
+
+    /**
+     * Decide whether a direction is in sight or not.
+     * @param vectorToPoint normalized direction vector from the user to the point.
+     * @param orientationVector device's orientation.
+     * @return true if the direction is inside the field of view, false otherwise.
+     */
+    public boolean inSight(Vector2D vectorToPoint, Vector3D orientationVector) {
+
+        // Horizontal
+        final double horizontalCos = Vector2D.normalizedDot(orientationVector.getX(), orientationVector.getY(),
+                vectorToPoint.getX(), vectorToPoint.getY());
+
+        //Vertical
+        final double verticalTheta = Math.abs(-90.0*orientationVector.getZ());
+
+        return ( horizontalCos >= cosHalfFovWidth &&
+                 verticalTheta <= fovHeight/2 );
+
+    }
+
+    /**
+     * Retrieves the screen position of an in sight direction.
+     * @param vectorToPoint normalized direction vector from the user to the point.
+     * @param orientationVector device's orientation.
+     * @param out array of, at least, 2 elements where abscissa and ordinate will be stored.
+     */
+    public void project(Vector2D vectorToPoint, Vector3D orientationVector, float[] out) {
+
+        // Horizontal
+        final double x = orientationVector.getX(), y = orientationVector.getY();
+        final double depth = x*vectorToPoint.getX() + y*vectorToPoint.getY();
+        final double side = y*vectorToPoint.getX() - x*vectorToPoint.getY();
+
+        //Vertical
+        final double verticalTheta = -90.0*orientationVector.getZ();
+
+        out[0] = screenX(depth, side);
+        out[1] = screenY(verticalTheta);
+
+    }
+
+    /**
+     * Retrieves the position on the screen border of an out of sight direction.
+     * @param vectorToPoint normalized direction vector from the user to the point.
+     * @param orientationVector device's orientation.
+     * @param out array of, at least, 3 elements where abscissa, ordinate
+     *            and the angle, in degrees, of the direction on screen will be stored.
+     * @return the edge where the indicator lies.
+     */
+    public int projectIndicator(Vector2D vectorToPoint, Vector3D orientationVector, float[] out) {
+
+        // Horizontal
+        final float x = (float) Vector2D.angleWithSign(orientationVector.getX(), orientationVector.getY(),
+                vectorToPoint.getX(), vectorToPoint.getY()) / 180;
+
+        //Vertical
+        final float y = (float) orientationVector.getZ();
+
+        final double angle = Vector2D.getAngle(x, y);
+        out[2] = (float) angle;
+
+        return edgePosition(angle, out);
+
+    }
+
+    /**
+     * Maps an angle to a position on the screen border.
+     * So once we get angle, we must remap it to coordinates. There are 2 kinds:
+     *  -Left screen and down screen, they go in reverse coordinates system
+     *  -Up and right screen are "normal" cases. However, right screen is special due to [0,360) angles
+     *
+     * Once we get corrected angle, we start coordinates from size*margin, and we multiply current angle to
+     * size of the "rect", size of rect is size of height or weight subtracting twice the margin.
+     * @param angle in degrees, values from [0, 360).
+     * @param out array of, at least, 2 elements where abscissa and ordinate will be stored.
+     * @return the edge where the position lies.
+     */
+    public int edgePosition(double angle, float[] out) {
+
+        final int edge;
+
+        if (0 <= angle && angle <= 45 ||
+                315 <= angle && angle <= 360) {
+            double correctedAngle;
+
+            // As angle can be > 315, correct it
+            if (315 <= angle && angle <= 360) {
+                correctedAngle = Math.abs(360-angle-45);
+            } else {
+                correctedAngle = angle + 45;
+            }
+
+            out[0] = width*MARGIN;
+            out[1] = (float) (height*(1 - MARGIN) + ((correctedAngle/(45*2))) * height*(1- (1 - MARGIN) * 2));   //Decimal part from div by 45 angles
+            edge = EDGE_RIGHT;
+        } else if (45 < angle && angle <= 135) {
+            final double correctedAngle =  135 - angle;
+            out[0] = (float) (width*(1 - MARGIN) + (correctedAngle/(45*2)) * width*(1- (1 - MARGIN) * 2));
+            out[1] = height*MARGIN;
+            edge = EDGE_BOTTOM;
+        } else if (135 < angle && angle <= 225) {
+            final double correctedAngle = 225 - angle;
+            out[0] = width*(1-MARGIN);
+            out[1] = (float) (height*(1 - MARGIN) + (correctedAngle/(45*2)) * height*(1- (1 - MARGIN) * 2));
+            edge = EDGE_LEFT;
+        } else {
+            final double correctedAngle = angle - 225;
+            out[0] = (float) (width*(1 - MARGIN) + (correctedAngle/(45*2)) * width*(1- (1 - MARGIN) * 2));
+            out[1] = height*(1-MARGIN);
+            edge = EDGE_TOP;
+        }
+
+        return edge;
+
+    }
+
+    /**
+     * Pinhole projection of a direction in camera space, only the ratio between both components matters.
+     * @param depth component along the view direction.
+     * @param side component to the right of the view direction.
+     * @return the abscissa in pixels.
+     */
+    private float screenX(double depth, double side) {
+        return (float) (centerX + focalX*side/depth);
+    }
+
+    /**
+     * Pinhole projection of the view direction's elevation, in sight points lie on the horizon.
+     * @param verticalTheta angle, in degrees, of the view direction below the horizon.
+     * @return the ordinate in pixels.
+     */
+    private float screenY(double verticalTheta) {
+        return (float) (centerY - focalY*Math.tan(Math.toRadians(verticalTheta)));
+    }
+
+    /**
+     * Retrieves the screen width.
+     * @return the width in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retrieves the screen height.
+     * @return the height in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+}
@@ -0,0 +1,121 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Chooses the camera preview size that best fits a view, among the ones supported by the camera.
+ * Supported sizes never change for a camera, so every choice is remembered for its view size,
+ * and the same view size, as on every rotation or resume, does not scan the sizes again.
+ * Sizes are landscape ones, as cameras report them, while view sizes are portrait ones.
+ * @author Hector Del Campo Pando
+ */
+public class PreviewSizeSelector {
+
+    /**
+     * Maximum difference between the aspect ratio of the view and the chosen size's one.
+     */
+    private static final double ASPECT_TOLERANCE = 0.1;
+
+    /**
+     * Supported sizes.
+     */
+    private final int[] widths, heights;
+
+    /**
+     * Chosen sizes by view size.
+     */
+    private final Map<Long, Integer> choices = new HashMap<>();
+
+    /**
+     * Creates a new selector.
+     * @param widths of the supported sizes.
+     * @param heights of the supported sizes, in the same order.
+     */
+    public PreviewSizeSelector(int[] widths, int[] heights) {
+        if (widths.length != heights.length) {
+            throw new IllegalArgumentException("Every size needs a width and a height");
+        }
+
+        this.widths = widths.clone();
+        this.heights = heights.clone();
+    }
+
+    /**
+     * Chooses the size that best fits a view: one with the view's size, otherwise one with its aspect ratio
+     * and the closest height, otherwise just the one with the closest height.
+     * @param w width of the view, its shortest side.
+     * @param h height of the view, its longest side.
+     * @return index of the chosen size, -1 if there are no sizes.
+     */
+    public int select(int w, int h) {
+
+        final Long key = ((long) w << 32) | (h & 0xFFFFFFFFL);
+        Integer choice = choices.get(key);
+
+        if (null == choice) {
+            choice = choose(w, h);
+            choices.put(key, choice);
+        }
+
+        return choice;
+
+    }
+
+    /**
+     * Retrieves the width of a supported size.
+     * @param index of the size.
+     * @return the width in pixels.
+     */
+    public int getWidth(int index) {
+        return widths[index];
+    }
+
+    /**
+     * Retrieves the height of a supported size.
+     * @param index of the size.
+     * @return the height in pixels.
+     */
+    public int getHeight(int index) {
+        return heights[index];
+    }
+
+    /**
+     * Scans the sizes for the one that best fits a view.
+     */
+    private int choose(int w, int h) {
+
+        final double targetRatio = (double) h / w;
+
+        for (int i = 0; i < widths.length; i++) {
+            if (widths[i] == h && heights[i] == w) {
+                return i;
+            }
+        }
+
+        int optimal = -1;
+        double minDiff = Double.MAX_VALUE;
+
+        for (int i = 0; i < widths.length; i++) {
+            final double ratio = (double) widths[i] / heights[i];
+            if (Math.abs(ratio - targetRatio) > ASPECT_TOLERANCE) continue;
+            if (Math.abs(heights[i] - h) < minDiff) {
+                optimal = i;
+                minDiff = Math.abs(heights[i] - h);
+            }
+        }
+
+        if (optimal == -1) {
+            for (int i = 0; i < widths.length; i++) {
+                if (Math.abs(heights[i] - h) < minDiff) {
+                    optimal = i;
+                    minDiff = Math.abs(heights[i] - h);
+                }
+            }
+        }
+
+        return optimal;
+
+    }
+
+}
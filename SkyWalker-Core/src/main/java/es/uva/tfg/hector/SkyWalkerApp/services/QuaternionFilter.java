@@ -0,0 +1,174 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Orientation estimator that smooths the rotation vector as a quaternion.
+ * Each sample is interpolated with SLERP from the previous estimate, with a factor that
+ * grows with the rotation between both: small jitter is heavily smoothed while fast turns
+ * are followed without lag. Unlike filtering the rotation matrix component by component,
+ * the estimate is always a valid rotation, so it doesn't wobble near the poles.
+ * @author Hector Del Campo Pando
+ */
+public class QuaternionFilter extends OrientationEstimator {
+
+    /**
+     * Default interpolation factors, for still and for fast moving devices.
+     */
+    public static final double DEFAULT_MIN_ALPHA = 0.15, DEFAULT_MAX_ALPHA = 0.8;
+
+    /**
+     * Default rotation, in degrees, from which samples are followed with the maximum factor.
+     */
+    public static final double DEFAULT_FAST_ANGLE = 10;
+
+    /**
+     * Dot product over which quaternions are linearly interpolated, as SLERP becomes unstable.
+     */
+    private static final double LERP_THRESHOLD = 0.9995;
+
+    /**
+     * Interpolation settings.
+     */
+    private final double minAlpha, maxAlpha, fastAngle;
+
+    /**
+     * Current estimate, as a unit quaternion.
+     */
+    private double qx, qy, qz, qw = 1;
+    private boolean primed;
+
+    /**
+     * Creates a new filter with default settings.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     */
+    public QuaternionFilter(float mapNorthOffset) {
+        this(mapNorthOffset, DEFAULT_MIN_ALPHA, DEFAULT_MAX_ALPHA, DEFAULT_FAST_ANGLE);
+    }
+
+    /**
+     * Creates a new filter.
+     * @param mapNorthOffset angle, in degrees, from the magnetic north to the map's north clockwise.
+     * @param minAlpha interpolation factor when the device is still, from (0, 1].
+     * @param maxAlpha interpolation factor when the device moves fast, from [minAlpha, 1].
+     * @param fastAngle rotation between samples, in degrees, from which the device is moving fast.
+     */
+    public QuaternionFilter(float mapNorthOffset, double minAlpha, double maxAlpha, double fastAngle) {
+        super(mapNorthOffset);
+
+        if (minAlpha <= 0 || maxAlpha > 1 || minAlpha > maxAlpha || fastAngle <= 0) {
+            throw new IllegalArgumentException("Invalid filter settings");
+        }
+
+        this.minAlpha = minAlpha;
+        this.maxAlpha = maxAlpha;
+        this.fastAngle = Math.toRadians(fastAngle);
+    }
+
+    @Override
+    public void update(float[] rotationVector) {
+
+        double x = rotationVector[0], y = rotationVector[1], z = rotationVector[2], w;
+
+        if (rotationVector.length >= 4) {
+            w = rotationVector[3];
+        } else {
+            w = 1 - x*x - y*y - z*z;
+            w = (w > 0) ? Math.sqrt(w) : 0;
+        }
+
+        final double length = Math.sqrt(x*x + y*y + z*z + w*w);
+        x /= length;
+        y /= length;
+        z /= length;
+        w /= length;
+
+        if (!primed) {
+            setQuaternion(x, y, z, w);
+            primed = true;
+            return;
+        }
+
+        double dot = qx*x + qy*y + qz*z + qw*w;
+
+        // q and -q are the same rotation, take the shortest path
+        if (dot < 0) {
+            x = -x;
+            y = -y;
+            z = -z;
+            w = -w;
+            dot = -dot;
+        }
+
+        // Half the rotation angle between the estimate and the sample
+        final double theta = Math.acos(Math.min(1, dot));
+        final double alpha = minAlpha + (maxAlpha - minAlpha) * Math.min(1, 2 * theta / fastAngle);
+        final double a, b;
+
+        if (dot > LERP_THRESHOLD) {
+            a = 1 - alpha;
+            b = alpha;
+        } else {
+            final double sin = Math.sin(theta);
+            a = Math.sin((1 - alpha) * theta) / sin;
+            b = Math.sin(alpha * theta) / sin;
+        }
+
+        final double newX = a*qx + b*x, newY = a*qy + b*y, newZ = a*qz + b*z, newW = a*qw + b*w;
+        final double newLength = Math.sqrt(newX*newX + newY*newY + newZ*newZ + newW*newW);
+
+        setQuaternion(newX / newLength, newY / newLength, newZ / newLength, newW / newLength);
+
+    }
+
+    @Override
+    public void reset() {
+        primed = false;
+    }
+
+    /**
+     * Retrieves the X component of the estimated quaternion.
+     * @return the X component.
+     */
+    public double getQuaternionX() {
+        return qx;
+    }
+
+    /**
+     * Retrieves the Y component of the estimated quaternion.
+     * @return the Y component.
+     */
+    public double getQuaternionY() {
+        return qy;
+    }
+
+    /**
+     * Retrieves the Z component of the estimated quaternion.
+     * @return the Z component.
+     */
+    public double getQuaternionZ() {
+        return qz;
+    }
+
+    /**
+     * Retrieves the scalar component of the estimated quaternion.
+     * @return the scalar component.
+     */
+    public double getQuaternionW() {
+        return qw;
+    }
+
+    /**
+     * Stores a new estimate and derives the view direction from it,
+     * the third column of its rotation matrix.
+     */
+    private void setQuaternion(double x, double y, double z, double w) {
+
+        qx = x;
+        qy = y;
+        qz = z;
+        qw = w;
+
+        setViewDirection(2 * (x*z + w*y), 2 * (y*z - w*x), 1 - 2 * (x*x + y*y));
+
+    }
+
+}
@@ -0,0 +1,179 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Tracks the region of the frame where a QR was last found, so the following frames are only
+ * searched around it. The region is the QR's bounds grown by a margin, and it is dropped once
+ * the QR has been missed on a few frames in a row.
+ * Regions can be cropped from NV21 frames into a reused NV21 buffer, with neutral chroma.
+ * @author Hector Del Campo Pando
+ */
+public class RegionTracker {
+
+    /**
+     * Default settings, margin as a share of the QR's biggest side and number of misses allowed.
+     */
+    public static final float DEFAULT_MARGIN = 0.5f;
+    public static final int DEFAULT_MAX_MISSES = 5;
+
+    /**
+     * Neutral chroma value.
+     */
+    private static final byte NO_CHROMA = (byte) 128;
+
+    /**
+     * Margin around the QR, as a share of its biggest side.
+     */
+    private final float margin;
+
+    /**
+     * Number of consecutive misses after which the region is dropped.
+     */
+    private final int maxMisses;
+
+    /**
+     * Current region, even aligned.
+     */
+    private int left, top, width, height;
+    private boolean tracking;
+    private int misses;
+
+    /**
+     * Cropped region.
+     */
+    private ByteBuffer region;
+
+    /**
+     * Creates a new tracker with default settings.
+     */
+    public RegionTracker() {
+        this(DEFAULT_MARGIN, DEFAULT_MAX_MISSES);
+    }
+
+    /**
+     * Creates a new tracker.
+     * @param margin added around the QR on every side, as a share of its biggest side.
+     * @param maxMisses number of consecutive frames the QR may be missed before the region is dropped.
+     */
+    public RegionTracker(float margin, int maxMisses) {
+        if (margin < 0 || maxMisses < 0) {
+            throw new IllegalArgumentException("Invalid tracker settings");
+        }
+
+        this.margin = margin;
+        this.maxMisses = maxMisses;
+    }
+
+    /**
+     * Reports a QR found on the frame.
+     * @param qrLeft left bound of the QR, in frame pixels.
+     * @param qrTop top bound of the QR.
+     * @param qrRight right bound of the QR, exclusive.
+     * @param qrBottom bottom bound of the QR, exclusive.
+     * @param frameWidth width of the frame.
+     * @param frameHeight height of the frame.
+     */
+    public void found(int qrLeft, int qrTop, int qrRight, int qrBottom, int frameWidth, int frameHeight) {
+
+        final int grow = (int) (Math.max(qrRight - qrLeft, qrBottom - qrTop) * margin);
+
+        // NV21 chroma is subsampled by two, so the region starts and ends on even pixels
+        left = Math.max(0, qrLeft - grow) & ~1;
+        top = Math.max(0, qrTop - grow) & ~1;
+        width = (Math.min(frameWidth, qrRight + grow) - left) & ~1;
+        height = (Math.min(frameHeight, qrBottom + grow) - top) & ~1;
+
+        tracking = width > 0 && height > 0;
+        misses = 0;
+
+    }
+
+    /**
+     * Reports the QR was not found on the region.
+     */
+    public void missed() {
+
+        if (++misses > maxMisses) {
+            tracking = false;
+        }
+
+    }
+
+    /**
+     * Drops the region.
+     */
+    public void reset() {
+        tracking = false;
+        misses = 0;
+    }
+
+    /**
+     * Checks whether there is a region to search.
+     * @return true if there is, false if the whole frame should be searched.
+     */
+    public boolean isTracking() {
+        return tracking;
+    }
+
+    /**
+     * Crops the region from a frame.
+     * @param frame NV21 frame, only its luminance is read.
+     * @param frameWidth width of the frame, the region must fit into it.
+     * @return NV21 crop, {@link #getWidth()} x {@link #getHeight()}, valid until the next call.
+     */
+    public ByteBuffer crop(byte[] frame, int frameWidth) {
+
+        final int size = width * height;
+
+        if (null == region || region.capacity() != size * 3 / 2) {
+            region = ByteBuffer.allocate(size * 3 / 2);
+            for (int i = size; i < size * 3 / 2; i++) {
+                region.put(i, NO_CHROMA);
+            }
+        }
+
+        final byte[] data = region.array();
+
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(frame, (top + y) * frameWidth + left, data, y * width, width);
+        }
+
+        region.rewind();
+        return region;
+
+    }
+
+    /**
+     * Retrieves the left bound of the region.
+     * @return the bound in frame pixels.
+     */
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * Retrieves the top bound of the region.
+     * @return the bound in frame pixels.
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * Retrieves the width of the region.
+     * @return the width in pixels.
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Retrieves the height of the region.
+     * @return the height in pixels.
+     */
+    public int getHeight() {
+        return height;
+    }
+
+}
@@ -0,0 +1,17 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Receiver of raw sensor samples, either live from the device or replayed from a {@link SensorTrace}.
+ * @author Hector Del Campo Pando
+ */
+public interface SensorSampleListener {
+
+    /**
+     * Callback for a new sample.
+     * @param type of the sensor, as defined by Android's Sensor class.
+     * @param timestamp of the sample, in nanoseconds.
+     * @param values of the sample, only valid during the call.
+     */
+    void onSensorSample(int type, long timestamp, float[] values);
+
+}
@@ -0,0 +1,273 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Compact binary recording of raw sensor samples, to replay real motion deterministically.
+ * A trace is a header followed by records of: sensor type (byte), number of values (byte),
+ * timestamp in nanoseconds (long) and the values (floats), all big endian.
+ * @author Hector Del Campo Pando
+ */
+public final class SensorTrace {
+
+    /**
+     * Sensor types, same values as Android's Sensor class.
+     */
+    public static final int TYPE_MAGNETIC_FIELD = 2, TYPE_ROTATION_VECTOR = 11;
+
+    /**
+     * Header: "SWTR" and the format version.
+     */
+    private static final int MAGIC = 0x53575452;
+    private static final int VERSION = 1;
+
+    /**
+     * Largest number of values of a sample.
+     */
+    private static final int MAX_VALUES = 16;
+
+    /**
+     * Extension of trace files.
+     */
+    public static final String EXTENSION = ".trace";
+
+    private SensorTrace() {
+
+    }
+
+    /**
+     * Replays a whole trace as fast as possible, in recording order.
+     * @param reader of the trace.
+     * @param listener to send the samples to.
+     * @return the number of replayed samples.
+     * @throws IOException if the trace can't be read.
+     */
+    public static int replay(Reader reader, SensorSampleListener listener) throws IOException {
+        int samples = 0;
+
+        while (reader.next()) {
+            listener.onSensorSample(reader.getType(), reader.getTimestamp(), reader.getValues());
+            samples++;
+        }
+
+        return samples;
+    }
+
+    /**
+     * Deletes the oldest traces of a directory, named by their start time, so only the newest ones are kept.
+     * @param directory with the traces.
+     * @param keep number of traces to keep.
+     * @return the number of deleted traces.
+     */
+    public static int prune(File directory, int keep) {
+
+        final File[] traces = directory.listFiles();
+
+        if (null == traces) {
+            return 0;
+        }
+
+        int count = 0;
+        for (File trace : traces) {
+            if (trace.getName().endsWith(EXTENSION)) {
+                traces[count++] = trace;
+            }
+        }
+
+        // Names are start times of the same length, so they sort by age
+        Arrays.sort(traces, 0, count);
+
+        int deleted = 0;
+        for (int i = 0; i < count - keep; i++) {
+            if (traces[i].delete()) {
+                deleted++;
+            }
+        }
+
+        return deleted;
+
+    }
+
+    /**
+     * Writes samples into a trace.
+     */
+    public static class Writer implements Closeable {
+
+        /**
+         * Where the trace is written.
+         */
+        private final DataOutputStream out;
+
+        /**
+         * Starts a new trace, writing its header.
+         * @param stream where the trace will be written.
+         * @throws IOException if the header can't be written.
+         */
+        public Writer(OutputStream stream) throws IOException {
+            out = new DataOutputStream(new BufferedOutputStream(stream));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+        }
+
+        /**
+         * Writes a sample.
+         * @param type of the sensor.
+         * @param timestamp of the sample, in nanoseconds.
+         * @param values of the sample.
+         * @throws IOException if the sample can't be written.
+         */
+        public void write(int type, long timestamp, float[] values) throws IOException {
+            if (values.length > MAX_VALUES) {
+                throw new IllegalArgumentException("Too many values: " + values.length);
+            }
+
+            out.writeByte(type);
+            out.writeByte(values.length);
+            out.writeLong(timestamp);
+
+            for (float value : values) {
+                out.writeFloat(value);
+            }
+        }
+
+        /**
+         * Retrieves the size of the trace written so far.
+         * @return the size in bytes.
+         */
+        public int getSize() {
+            return out.size();
+        }
+
+        /**
+         * Writes pending samples.
+         * @throws IOException if they can't be written.
+         */
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+    }
+
+    /**
+     * Reads samples from a trace, without allocating once every sample size was seen.
+     */
+    public static class Reader implements Closeable {
+
+        /**
+         * Where the trace is read from.
+         */
+        private final DataInputStream in;
+
+        /**
+         * Current sample.
+         */
+        private int type;
+        private long timestamp;
+        private float[] values;
+
+        /**
+         * Values buffers, by number of values.
+         */
+        private final float[][] buffers = new float[MAX_VALUES + 1][];
+
+        /**
+         * Opens a trace, checking its header.
+         * @param stream where the trace is read from.
+         * @throws IOException if the stream isn't a supported trace.
+         */
+        public Reader(InputStream stream) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(stream));
+
+            if (MAGIC != in.readInt()) {
+                throw new IOException("Not a sensor trace");
+            }
+
+            final int version = in.readUnsignedByte();
+            if (VERSION != version) {
+                throw new IOException("Unsupported trace version: " + version);
+            }
+        }
+
+        /**
+         * Moves to the next sample.
+         * @return true if there was another sample, false at the end of the trace.
+         * @throws IOException if the trace can't be read or is truncated.
+         */
+        public boolean next() throws IOException {
+            final int type = in.read();
+
+            if (-1 == type) {
+                return false;
+            }
+
+            final int count = in.readUnsignedByte();
+
+            if (count > MAX_VALUES) {
+                throw new IOException("Corrupted trace");
+            }
+
+            if (null == buffers[count]) {
+                buffers[count] = new float[count];
+            }
+
+            try {
+                timestamp = in.readLong();
+                for (int i = 0; i < count; i++) {
+                    buffers[count][i] = in.readFloat();
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated trace", e);
+            }
+
+            this.type = type;
+            values = buffers[count];
+            return true;
+        }
+
+        /**
+         * Retrieves the current sample's sensor type.
+         * @return the type.
+         */
+        public int getType() {
+            return type;
+        }
+
+        /**
+         * Retrieves the current sample's timestamp.
+         * @return the timestamp, in nanoseconds.
+         */
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Retrieves the current sample's values, only valid until {@link #next()} is called again.
+         * @return the values.
+         */
+        public float[] getValues() {
+            return values;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
+}
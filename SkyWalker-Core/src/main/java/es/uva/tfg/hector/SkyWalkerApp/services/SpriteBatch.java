@@ -0,0 +1,94 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Growable buffer of sprite instances, ready to be uploaded as per-instance vertex attributes.
+ * Each instance is stored as {@link #FLOATS_PER_SPRITE} consecutive floats:
+ * center abscissa and ordinate, half width and half height, rotation in radians
+ * and the texture rect as left, top, right and bottom.
+ * @author Hector Del Campo Pando
+ */
+public class SpriteBatch {
+
+    /**
+     * Number of floats used by each sprite.
+     */
+    public static final int FLOATS_PER_SPRITE = 9;
+
+    /**
+     * Instances data.
+     */
+    private float[] data;
+
+    /**
+     * Number of sprites in the batch.
+     */
+    private int size;
+
+    /**
+     * Creates a new empty batch.
+     * @param capacity initial number of sprites the batch can hold without growing.
+     */
+    public SpriteBatch(int capacity) {
+        data = new float[Math.max(1, capacity) * FLOATS_PER_SPRITE];
+    }
+
+    /**
+     * Adds a new sprite to the batch.
+     * @param x center abscissa.
+     * @param y center ordinate.
+     * @param width of the sprite.
+     * @param height of the sprite.
+     * @param degrees clockwise rotation of the sprite.
+     * @param u0 texture left coordinate.
+     * @param v0 texture top coordinate.
+     * @param u1 texture right coordinate.
+     * @param v1 texture bottom coordinate.
+     */
+    public void add(float x, float y, float width, float height, float degrees,
+                    float u0, float v0, float u1, float v1) {
+
+        if ((size + 1) * FLOATS_PER_SPRITE > data.length) {
+            final float[] newData = new float[data.length * 2];
+            System.arraycopy(data, 0, newData, 0, size * FLOATS_PER_SPRITE);
+            data = newData;
+        }
+
+        int i = size * FLOATS_PER_SPRITE;
+        data[i++] = x;
+        data[i++] = y;
+        data[i++] = width / 2;
+        data[i++] = height / 2;
+        data[i++] = (float) Math.toRadians(degrees);
+        data[i++] = u0;
+        data[i++] = v0;
+        data[i++] = u1;
+        data[i] = v1;
+
+        size++;
+
+    }
+
+    /**
+     * Removes all sprites, keeping the allocated memory.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Retrieves the number of sprites in the batch.
+     * @return the number of sprites.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the backing array, only the first {@code size() * FLOATS_PER_SPRITE} elements are valid.
+     * @return the instances data.
+     */
+    public float[] getData() {
+        return data;
+    }
+
+}
@@ -0,0 +1,269 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Geometric 2D vector.
+ * @author Héctor Del Campo Pando
+ */
+public class Vector2D {
+
+    /**
+     * Vector's components.
+     */
+    private double x, y;
+
+    /**
+     * Retrieves angle in degrees, values from [0, 360).
+     * @param x the abscissa coordinate.
+     * @param y the ordinate coordinate.
+     * @return the angle
+     */
+    public static double getAngle(double x, double y){
+        double angle = Math.toDegrees(FastMath.atan2(y, x));
+
+        if (angle < 0) {
+            // Sum complete circle
+            angle += 360;
+        }
+
+        return angle;
+    }
+
+    /**
+     * Geometric's dot product of two vectors given by their components.
+     * @param ax abscissa of the first vector.
+     * @param ay ordinate of the first vector.
+     * @param bx abscissa of the second vector.
+     * @param by ordinate of the second vector.
+     * @return the dot product result.
+     */
+    public static double dot(double ax, double ay, double bx, double by) {
+        return ax*bx + ay*by;
+    }
+
+    /**
+     * Cosine of the inner angle of two vectors given by their components,
+     * the dot product of both once normalized, without normalizing them.
+     * @param ax abscissa of the first vector.
+     * @param ay ordinate of the first vector.
+     * @param bx abscissa of the second vector.
+     * @param by ordinate of the second vector.
+     * @return the cosine, or NaN if any of the vectors is null.
+     */
+    public static double normalizedDot(double ax, double ay, double bx, double by) {
+        return (ax*bx + ay*by) / Math.sqrt((ax*ax + ay*ay) * (bx*bx + by*by));
+    }
+
+    /**
+     * Inner angle with sign of two vectors given by their components.
+     * @param ax abscissa of the first vector.
+     * @param ay ordinate of the first vector.
+     * @param bx abscissa of the second vector.
+     * @param by ordinate of the second vector.
+     * @return the inner angle in degrees,
+     * negative values means the second vector is counter clockwise,
+     * positive values means clockwise.
+     */
+    public static double angleWithSign(double ax, double ay, double bx, double by) {
+        final double cos = ax*bx + ay*by;
+        final double det = ax*by - bx*ay;
+        return -Math.toDegrees(FastMath.atan2(det, cos));
+    }
+
+    /**
+     * Normalizes vectors given by their components, in place.
+     * @param xs abscissas of the vectors.
+     * @param ys ordinates of the vectors.
+     * @param count number of vectors.
+     */
+    public static void normalize(float[] xs, float[] ys, int count) {
+        for (int i = 0; i < count; i++) {
+            final float x = xs[i], y = ys[i];
+            final float inverse = FastMath.invSqrt(x*x + y*y);
+            xs[i] = x * inverse;
+            ys[i] = y * inverse;
+        }
+    }
+
+    /**
+     * Computes the displacements from an origin to several points.
+     * @param xs abscissas of the points.
+     * @param ys ordinates of the points.
+     * @param count number of points.
+     * @param originX abscissa of the origin.
+     * @param originY ordinate of the origin.
+     * @param outXs where the displacements' abscissas will be stored.
+     * @param outYs where the displacements' ordinates will be stored.
+     * @param outLengths where the displacements' lengths will be stored, may be null.
+     */
+    public static void subtract(float[] xs, float[] ys, int count, float originX, float originY,
+                                double[] outXs, double[] outYs, double[] outLengths) {
+        for (int i = 0; i < count; i++) {
+            final double dx = xs[i] - originX, dy = ys[i] - originY;
+            outXs[i] = dx;
+            outYs[i] = dy;
+            if (null != outLengths) {
+                outLengths[i] = Math.sqrt(dx*dx + dy*dy);
+            }
+        }
+    }
+
+    /**
+     * Computes the dot product of several vectors with a given one.
+     * @param xs abscissas of the vectors.
+     * @param ys ordinates of the vectors.
+     * @param count number of vectors.
+     * @param x abscissa of the other vector.
+     * @param y ordinate of the other vector.
+     * @param out where the products will be stored.
+     */
+    public static void dot(double[] xs, double[] ys, int count, double x, double y, double[] out) {
+        for (int i = 0; i < count; i++) {
+            out[i] = xs[i]*x + ys[i]*y;
+        }
+    }
+
+    /**
+     * Constructs a new vector in 2D.
+     * @param x component of the vector.
+     * @param y component of the vector.
+     */
+    public Vector2D (double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Sets all the components of the vector.
+     * @param x component of the vector.
+     * @param y component of the vector.
+     */
+    public void set(double x, double y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Copies the components of another vector.
+     * @param v vector to copy.
+     */
+    public void set(Vector2D v) {
+        x = v.x;
+        y = v.y;
+    }
+
+    /**
+     * Normalizes this vector.
+     */
+    public void normalize() {
+        final double length = module();
+        x /= length;
+        y /= length;
+    }
+
+    /**
+     * Stores this vector, normalized, into another one, leaving this one unchanged.
+     * @param out where the normalized vector will be stored, may be this vector.
+     */
+    public void normalize(Vector2D out) {
+        final double length = module();
+        out.set(x / length, y / length);
+    }
+
+    /**
+     * Geometric's dot product.
+     * @param v other vector.
+     * @return the dot product result.
+     */
+    public double dotProduct(Vector2D v) {
+        return (x*v.getX()) + (y*v.getY());
+    }
+
+    /**
+     * Retrieves vector's inner angle.
+     * @param v other vector.
+     * @return the inner angle in degrees.
+     */
+    public double angle(Vector2D v) {
+        if (FastMath.isExact()) {
+            return Math.toDegrees(Math.acos(normalizedDot(x, y, v.x, v.y)));
+        }
+
+        // Same angle, avoiding the arc cosine
+        return Math.toDegrees(FastMath.atan2(Math.abs(x*v.y - y*v.x), x*v.x + y*v.y));
+    }
+
+    /**
+     * Retrieves vector's inner angle with sign.
+     * @param v other vector.
+     * @return the inner angle in degrees,
+     * negative values means parameter is counter clockwise,
+     * positive values means clockwise.
+     */
+    public double angleWithSign(Vector2D v) {
+        return angleWithSign(x, y, v.x, v.y);
+    }
+
+    /**
+     * Returns the vector's length.
+     * @return the vector's length.
+     */
+    public double module() {
+        return Math.sqrt((x*x) + (y*y));
+    }
+
+    /**
+     * Rotates the vector clockwise conserving its module.
+     * @param degrees to be rotated.
+     */
+    public void rotateClockwise (double degrees) {
+        rotateClockwise(degrees, this);
+    }
+
+    /**
+     * Stores this vector, rotated clockwise, into another one, leaving this one unchanged.
+     * @param degrees to be rotated.
+     * @param out where the rotated vector will be stored, may be this vector.
+     */
+    public void rotateClockwise (double degrees, Vector2D out) {
+
+        final double rad = -Math.toRadians(degrees);
+        final double cos = FastMath.cos(rad);
+        final double sin = FastMath.sin(rad);
+
+        out.set(x * cos - y * sin, x * sin + y * cos);
+
+    }
+
+    /**
+     * Retrieves the inner angle with sign from this vector, once rotated clockwise, to another one,
+     * without modifying nor allocating vectors.
+     * @param degrees this vector is rotated.
+     * @param v other vector.
+     * @return the inner angle in degrees, with the same sign as {@link #angleWithSign(Vector2D)}.
+     */
+    public double rotatedAngleWithSign (double degrees, Vector2D v) {
+
+        final double rad = -Math.toRadians(degrees);
+        final double cos = FastMath.cos(rad);
+        final double sin = FastMath.sin(rad);
+
+        return angleWithSign(x * cos - y * sin, x * sin + y * cos, v.x, v.y);
+
+    }
+
+    /**
+     * Retrieves the X component.
+     * @return the X component.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Retrieves the Y component.
+     * @return the Y component.
+     */
+    public double getY() {
+        return y;
+    }
+}
@@ -0,0 +1,180 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+/**
+ * Geometric 3D vector.
+ * @author Héctor Del Campo Pando
+ */
+public class Vector3D {
+
+    /**
+     * Vector components.
+     */
+    private double x, y, z;
+
+    /**
+     * Geometric's dot product of two vectors given by their components.
+     * @return the dot product result.
+     */
+    public static double dot(double ax, double ay, double az, double bx, double by, double bz) {
+        return ax*bx + ay*by + az*bz;
+    }
+
+    /**
+     * Cosine of the inner angle of two vectors given by their components,
+     * the dot product of both once normalized, without normalizing them.
+     * @return the cosine, or NaN if any of the vectors is null.
+     */
+    public static double normalizedDot(double ax, double ay, double az, double bx, double by, double bz) {
+        return (ax*bx + ay*by + az*bz) / Math.sqrt((ax*ax + ay*ay + az*az) * (bx*bx + by*by + bz*bz));
+    }
+
+    /**
+     * Normalizes vectors given by their components, in place.
+     * @param xs X components of the vectors.
+     * @param ys Y components of the vectors.
+     * @param zs Z components of the vectors.
+     * @param count number of vectors.
+     */
+    public static void normalize(double[] xs, double[] ys, double[] zs, int count) {
+        for (int i = 0; i < count; i++) {
+            final double x = xs[i], y = ys[i], z = zs[i];
+            final double inverse = 1 / Math.sqrt(x*x + y*y + z*z);
+            xs[i] = x * inverse;
+            ys[i] = y * inverse;
+            zs[i] = z * inverse;
+        }
+    }
+
+    /**
+     * Computes the dot product of several vectors with a given one.
+     * @param xs X components of the vectors.
+     * @param ys Y components of the vectors.
+     * @param zs Z components of the vectors.
+     * @param count number of vectors.
+     * @param v other vector.
+     * @param out where the products will be stored.
+     */
+    public static void dot(double[] xs, double[] ys, double[] zs, int count, Vector3D v, double[] out) {
+        final double x = v.x, y = v.y, z = v.z;
+        for (int i = 0; i < count; i++) {
+            out[i] = xs[i]*x + ys[i]*y + zs[i]*z;
+        }
+    }
+
+    /**
+     * Constructs a new 3D vector.
+     * @param x component of the vector.
+     * @param y component of the vector.
+     * @param z component of the vector.
+     */
+    public Vector3D (double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Sets all the components of the vector.
+     * @param x component of the vector.
+     * @param y component of the vector.
+     * @param z component of the vector.
+     */
+    public void set (double x, double y, double z) {
+        this.x = x;
+        this.y = y;
+        this.z = z;
+    }
+
+    /**
+     * Copies the components of another vector.
+     * @param v vector to copy.
+     */
+    public void set (Vector3D v) {
+        x = v.x;
+        y = v.y;
+        z = v.z;
+    }
+
+    /**
+     * Normalizes the vector.
+     */
+    public void normalize () {
+        final double length = Math.sqrt((x*x) + (y*y) + (z*z));
+        x /= length;
+        y /= length;
+        z /= length;
+    }
+
+    /**
+     * Stores this vector, normalized, into another one, leaving this one unchanged.
+     * @param out where the normalized vector will be stored, may be this vector.
+     */
+    public void normalize (Vector3D out) {
+        final double length = module();
+        out.set(x / length, y / length, z / length);
+    }
+
+    /**
+     * Geometric's cross product.
+     * @param v other vector.
+     * @param out where the result will be stored, may be any of both vectors.
+     */
+    public void crossProduct (Vector3D v, Vector3D out) {
+        out.set(y*v.z - z*v.y, z*v.x - x*v.z, x*v.y - y*v.x);
+    }
+
+    /**
+     * Geometric's dot product.
+     * @param v other vector.
+     * @return the dot product result.
+     */
+    public double dotProduct (Vector3D v) {
+
+        return (x * v.getX())
+                + (y * v.getY())
+                + (z * v.getZ());
+
+    }
+
+    /**
+     * Returns the inner angle between vectors
+     * @param v other vector.
+     * @return the inner angle in degrees.
+     */
+    public double angle(Vector3D v) {
+        return Math.toDegrees(Math.acos(normalizedDot(x, y, z, v.x, v.y, v.z)));
+    }
+
+    /**
+     * Returns the vector's length.
+     * @return vector's length.
+     */
+    public double module() {
+        return Math.sqrt((x*x) + (y*y) + (z*z));
+    }
+
+    /**
+     * Returns the X value.
+     * @return the X value.
+     */
+    public double getX() {
+        return x;
+    }
+
+    /**
+     * Returns the Y value.
+     * @return the Y value.
+     */
+    public double getY() {
+        return y;
+    }
+
+    /**
+     * Returns the Z value.
+     * @return the Z value.
+     */
+    public double getZ() {
+        return z;
+    }
+
+}
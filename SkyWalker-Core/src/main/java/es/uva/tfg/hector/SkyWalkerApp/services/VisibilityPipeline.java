@@ -0,0 +1,283 @@
+package es.uva.tfg.hector.SkyWalkerApp.services;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Per frame culling of the overlay's points.
+ * Points outside the field of view become indicators, the rest are sorted by distance
+ * and only the nearest ones, up to the frame budget, are kept with a level of detail each.
+ * Settings can be changed from any thread, they are applied on the next processed frame.
+ * @author Hector Del Campo Pando
+ */
+public class VisibilityPipeline {
+
+    /**
+     * Levels of detail, full label or just the icon.
+     */
+    public static final int LOD_FULL = 0, LOD_ICON = 1;
+
+    /**
+     * Default settings.
+     */
+    public static final int DEFAULT_BUDGET = 50, DEFAULT_INDICATOR_BUDGET = Integer.MAX_VALUE;
+    public static final float DEFAULT_FULL_LABEL_DISTANCE = 30f;
+
+    /**
+     * Maximum number of in sight points drawn per frame.
+     */
+    private volatile int budget = DEFAULT_BUDGET;
+
+    /**
+     * Maximum number of out of sight points indicated per frame,
+     * not limited by default as indicators are grouped by {@link IndicatorClusters}.
+     */
+    private volatile int indicatorBudget = DEFAULT_INDICATOR_BUDGET;
+
+    /**
+     * Distance, in meters, under which points show their full label.
+     */
+    private volatile float fullLabelDistance = DEFAULT_FULL_LABEL_DISTANCE;
+
+    /**
+     * Projects every point of the frame.
+     */
+    private final BatchProjector projector;
+
+    /**
+     * Sorting keys, distance bits on the high half and index of the point on the low half.
+     */
+    private long[] visibleKeys, indicatorKeys;
+
+    /**
+     * Results of the last processed frame.
+     */
+    private int visibleCount, indicatorCount, culledCount, hiddenIndicatorCount;
+    private int[] visible, indicators, levels;
+    private float[] screenXs;
+    private float screenY;
+
+    /**
+     * Creates a new pipeline.
+     * @param capacity initial number of points it can process without growing.
+     */
+    public VisibilityPipeline(int capacity) {
+        projector = new BatchProjector(capacity);
+        ensureCapacity(Math.max(1, capacity));
+    }
+
+    /**
+     * Sets the pool where big frames are projected, see {@link BatchProjector#setPool(ForkJoinPool)}.
+     * @param pool to use, null to project every frame on the calling thread.
+     */
+    public void setPool(ForkJoinPool pool) {
+        projector.setPool(pool);
+    }
+
+    /**
+     * Chooses the precision used to project the frames, see {@link BatchProjector#setFloatPrecision(boolean)}.
+     * @param floatPrecision true to project in single precision, false to use double precision.
+     */
+    public void setFloatPrecision(boolean floatPrecision) {
+        projector.setFloatPrecision(floatPrecision);
+    }
+
+    /**
+     * Processes a new frame.
+     * @param xs abscissas of the points, in map coordinates.
+     * @param ys ordinates of the points, in map coordinates.
+     * @param count number of points.
+     * @param originX abscissa of the user.
+     * @param originY ordinate of the user.
+     * @param scale map length in meters.
+     * @param orientationVector device's orientation.
+     * @param projection to decide whether the points are in sight or not, and where they are on screen.
+     */
+    public void process(float[] xs, float[] ys, int count, float originX, float originY, float scale,
+                        Vector3D orientationVector, OverlayProjection projection) {
+
+        ensureCapacity(count);
+
+        final int budget = this.budget, indicatorBudget = this.indicatorBudget;
+        final float fullLabelDistance = this.fullLabelDistance;
+
+        projection.setOrientation(orientationVector);
+        screenY = projection.getScreenY();
+
+        projector.project(xs, ys, count, originX, originY, scale, projection);
+
+        int inSight = 0, outOfSight = 0;
+
+        for (int i = 0; i < count; i++) {
+
+            final byte state = projector.getState(i);
+
+            // Same position, skip.
+            if (BatchProjector.SAME_POSITION == state) {
+                continue;
+            }
+
+            final float distance = projector.getDistance(i);
+
+            // Positive floats keep their order when compared as integers
+            final long key = ((long) Float.floatToIntBits(distance) << 32) | i;
+
+            if (BatchProjector.IN_SIGHT == state) {
+                visibleKeys[inSight++] = key;
+            } else {
+                indicatorKeys[outOfSight++] = key;
+            }
+
+        }
+
+        Arrays.sort(visibleKeys, 0, inSight);
+        Arrays.sort(indicatorKeys, 0, outOfSight);
+
+        visibleCount = Math.min(inSight, budget);
+        culledCount = inSight - visibleCount;
+
+        for (int i = 0; i < visibleCount; i++) {
+            final int index = (int) visibleKeys[i];
+            visible[i] = index;
+            screenXs[i] = projector.getScreenX(index);
+            levels[i] = projector.getDistance(index) <= fullLabelDistance ? LOD_FULL : LOD_ICON;
+        }
+
+        indicatorCount = Math.min(outOfSight, indicatorBudget);
+        hiddenIndicatorCount = outOfSight - indicatorCount;
+
+        for (int i = 0; i < indicatorCount; i++) {
+            indicators[i] = (int) indicatorKeys[i];
+        }
+
+    }
+
+    /**
+     * Number of in sight points to draw on the last frame.
+     * @return the number of points.
+     */
+    public int getVisibleCount() {
+        return visibleCount;
+    }
+
+    /**
+     * Retrieves an in sight point to draw, sorted from nearest to farthest.
+     * @param i position of the point, from 0 to {@link #getVisibleCount()}.
+     * @return the index of the point on the processed arrays.
+     */
+    public int getVisible(int i) {
+        return visible[i];
+    }
+
+    /**
+     * Retrieves the level of detail of an in sight point to draw.
+     * @param i position of the point, from 0 to {@link #getVisibleCount()}.
+     * @return the level of detail, {@link #LOD_FULL} or {@link #LOD_ICON}.
+     */
+    public int getLevel(int i) {
+        return levels[i];
+    }
+
+    /**
+     * Retrieves the screen abscissa of an in sight point to draw.
+     * @param i position of the point, from 0 to {@link #getVisibleCount()}.
+     * @return the abscissa in pixels.
+     */
+    public float getScreenX(int i) {
+        return screenXs[i];
+    }
+
+    /**
+     * Retrieves the screen ordinate of the in sight points to draw.
+     * @return the ordinate in pixels.
+     */
+    public float getScreenY() {
+        return screenY;
+    }
+
+    /**
+     * Number of out of sight points to indicate on the last frame.
+     * @return the number of points.
+     */
+    public int getIndicatorCount() {
+        return indicatorCount;
+    }
+
+    /**
+     * Retrieves an out of sight point to indicate, sorted from nearest to farthest.
+     * @param i position of the point, from 0 to {@link #getIndicatorCount()}.
+     * @return the index of the point on the processed arrays.
+     */
+    public int getIndicator(int i) {
+        return indicators[i];
+    }
+
+    /**
+     * Retrieves the distance to a point of the last frame.
+     * @param index of the point on the processed arrays.
+     * @return the distance in meters.
+     */
+    public float getDistance(int index) {
+        return projector.getDistance(index);
+    }
+
+    /**
+     * Number of in sight points discarded by the budget on the last frame.
+     * @return the number of points.
+     */
+    public int getCulledCount() {
+        return culledCount;
+    }
+
+    /**
+     * Number of out of sight points discarded by the indicators budget on the last frame.
+     * @return the number of points.
+     */
+    public int getHiddenIndicatorCount() {
+        return hiddenIndicatorCount;
+    }
+
+    /**
+     * Sets the maximum number of in sight points drawn per frame.
+     * @param budget the number of points.
+     */
+    public void setBudget(int budget) {
+        this.budget = Math.max(0, budget);
+    }
+
+    /**
+     * Sets the maximum number of out of sight points indicated per frame.
+     * @param indicatorBudget the number of points.
+     */
+    public void setIndicatorBudget(int indicatorBudget) {
+        this.indicatorBudget = Math.max(0, indicatorBudget);
+    }
+
+    /**
+     * Sets the distance under which points show their full label.
+     * @param fullLabelDistance in meters.
+     */
+    public void setFullLabelDistance(float fullLabelDistance) {
+        this.fullLabelDistance = fullLabelDistance;
+    }
+
+    /**
+     * Grows the buffers if needed.
+     * @param count number of points to process.
+     */
+    private void ensureCapacity(int count) {
+
+        if (null != screenXs && screenXs.length >= count) {
+            return;
+        }
+
+        visibleKeys = new long[count];
+        indicatorKeys = new long[count];
+        visible = new int[count];
+        indicators = new int[count];
+        levels = new int[count];
+        screenXs = new float[count];
+
+    }
+
+}
@@ -0,0 +1,145 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.BatchProjector;
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BatchProjector class tests.
+ * @author Hector Del Campo Pando
+ */
+public class BatchProjectorUnitTests {
+
+    private static final float SCALE = 100;
+
+    private OverlayProjection projection;
+
+    @Before
+    public void setUp() {
+        projection = new OverlayProjection();
+        projection.setViewport(1000, 500, 60, 40);
+        projection.setOrientation(new Vector3D(0.3, 0.9, 0.1));
+    }
+
+    private static float[] random(int count, long seed) {
+        final Random random = new Random(seed);
+        final float[] values = new float[count];
+        for (int i = 0; i < count; i++) {
+            values[i] = random.nextFloat();
+        }
+        return values;
+    }
+
+    /*
+     * Project method
+     */
+    @Test
+    public void projectMatchesProjection() {
+        final float[] xs = random(500, 1), ys = random(500, 2);
+        final BatchProjector projector = new BatchProjector(1);
+
+        projector.project(xs, ys, xs.length, 0.5f, 0.5f, SCALE, projection);
+
+        for (int i = 0; i < xs.length; i++) {
+            final double dx = xs[i] - 0.5f, dy = ys[i] - 0.5f;
+            final double length = Math.sqrt(dx*dx + dy*dy);
+
+            assertEquals((float) (length * SCALE), projector.getDistance(i), 0);
+
+            if (projection.inSight(dx, dy, length)) {
+                assertEquals(BatchProjector.IN_SIGHT, projector.getState(i));
+                assertEquals(projection.projectX(dx, dy), projector.getScreenX(i), 0);
+            } else {
+                assertEquals(BatchProjector.OUT_OF_SIGHT, projector.getState(i));
+            }
+        }
+    }
+
+    @Test
+    public void projectMarksSamePosition() {
+        final BatchProjector projector = new BatchProjector(2);
+
+        projector.project(new float[] {0.5f, 0.5f}, new float[] {0.5f, 0.9f}, 2, 0.5f, 0.5f, SCALE, projection);
+
+        assertEquals(BatchProjector.SAME_POSITION, projector.getState(0));
+        assertEquals(0, projector.getDistance(0), 0);
+    }
+
+    @Test
+    public void parallelMatchesSequential() {
+        final int count = BatchProjector.PARALLEL_THRESHOLD * 3 + 17;
+        final float[] xs = random(count, 3), ys = random(count, 4);
+        final BatchProjector sequential = new BatchProjector(count), parallel = new BatchProjector(count);
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        parallel.setPool(pool);
+        sequential.project(xs, ys, count, 0.5f, 0.5f, SCALE, projection);
+        parallel.project(xs, ys, count, 0.5f, 0.5f, SCALE, projection);
+        pool.shutdown();
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(sequential.getState(i), parallel.getState(i));
+            assertEquals(sequential.getDistance(i), parallel.getDistance(i), 0);
+            if (BatchProjector.IN_SIGHT == sequential.getState(i)) {
+                assertEquals(sequential.getScreenX(i), parallel.getScreenX(i), 0);
+            }
+        }
+    }
+
+    @Test
+    public void projectGrows() {
+        final BatchProjector projector = new BatchProjector(1);
+
+        final float[] xs = random(100, 5), ys = random(100, 6);
+
+        projector.project(xs, ys, 100, 0.5f, 0.5f, SCALE, projection);
+
+        final double dx = xs[99] - 0.5f, dy = ys[99] - 0.5f;
+        assertEquals((float) (Math.sqrt(dx*dx + dy*dy) * SCALE), projector.getDistance(99), 0);
+    }
+
+    /*
+     * Float precision
+     */
+    @Test
+    public void floatPrecisionStaysWithinAPixel() {
+        final int count = 20000;
+        final float[] xs = random(count, 7), ys = random(count, 8);
+        final BatchProjector exact = new BatchProjector(count), single = new BatchProjector(count);
+        final Random random = new Random(9);
+        int flipped = 0;
+
+        single.setFloatPrecision(true);
+
+        for (int frame = 0; frame < 20; frame++) {
+            final double angle = random.nextDouble() * 2 * Math.PI;
+            projection.setOrientation(new Vector3D(Math.cos(angle), Math.sin(angle), 0.05));
+
+            exact.project(xs, ys, count, 0.5f, 0.5f, SCALE, projection);
+            single.project(xs, ys, count, 0.5f, 0.5f, SCALE, projection);
+
+            for (int i = 0; i < count; i++) {
+                assertEquals(exact.getDistance(i), single.getDistance(i), 1e-4);
+
+                if (exact.getState(i) != single.getState(i)) {
+                    flipped++;
+                } else if (BatchProjector.IN_SIGHT == exact.getState(i)) {
+                    assertEquals(exact.getScreenX(i), single.getScreenX(i), 0.5);
+                }
+            }
+        }
+
+        // Only points right on the border of the field of view may change
+        assertTrue("Flipped " + flipped, flipped <= count * 20 / 10000);
+    }
+
+}
@@ -0,0 +1,117 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.CameraIntrinsics;
+import es.uva.tfg.hector.SkyWalkerApp.services.Matrix;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * CameraIntrinsics class tests.
+ * @author Hector Del Campo Pando
+ */
+public class CameraIntrinsicsUnitTests {
+
+    private static final float DELTA = 0.001f;
+
+    /*
+     * 4:3 sensor of 4.8 x 3.6 mm, 4000 x 3000 pixels, behind a 4 mm lens
+     */
+    private static final float FOCAL = 4, PHYSICAL_WIDTH = 4.8f, PHYSICAL_HEIGHT = 3.6f;
+    private static final int PIXELS_WIDTH = 4000, PIXELS_HEIGHT = 3000;
+
+    private static float fov(double size) {
+        return (float) Math.toDegrees(2 * Math.atan(size / (2 * FOCAL)));
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsNoFov() {
+        new CameraIntrinsics(0, 40);
+    }
+
+    /*
+     * From sensor method
+     */
+    @Test
+    public void fromSensorWholeArray() {
+        final CameraIntrinsics intrinsics = CameraIntrinsics.fromSensor(FOCAL, PHYSICAL_WIDTH, PHYSICAL_HEIGHT,
+                PIXELS_WIDTH, PIXELS_HEIGHT, PIXELS_WIDTH, PIXELS_HEIGHT, 0, 0);
+
+        assertEquals(fov(PHYSICAL_WIDTH), intrinsics.getFOVWidth(), DELTA);
+        assertEquals(fov(PHYSICAL_HEIGHT), intrinsics.getFOVHeight(), DELTA);
+    }
+
+    @Test
+    public void fromSensorActiveArray() {
+        final CameraIntrinsics intrinsics = CameraIntrinsics.fromSensor(FOCAL, PHYSICAL_WIDTH, PHYSICAL_HEIGHT,
+                PIXELS_WIDTH, PIXELS_HEIGHT, 3600, 2700, 0, 0);
+
+        assertEquals(fov(PHYSICAL_WIDTH * 0.9), intrinsics.getFOVWidth(), DELTA);
+        assertEquals(fov(PHYSICAL_HEIGHT * 0.9), intrinsics.getFOVHeight(), DELTA);
+    }
+
+    @Test
+    public void fromSensorWideStreamCropsHeight() {
+        final CameraIntrinsics intrinsics = CameraIntrinsics.fromSensor(FOCAL, PHYSICAL_WIDTH, PHYSICAL_HEIGHT,
+                PIXELS_WIDTH, PIXELS_HEIGHT, PIXELS_WIDTH, PIXELS_HEIGHT, 1920, 1080);
+
+        assertEquals(fov(PHYSICAL_WIDTH), intrinsics.getFOVWidth(), DELTA);
+        assertEquals(fov(PHYSICAL_WIDTH * 9 / 16), intrinsics.getFOVHeight(), DELTA);
+    }
+
+    @Test
+    public void fromSensorNarrowStreamCropsWidth() {
+        final CameraIntrinsics intrinsics = CameraIntrinsics.fromSensor(FOCAL, PHYSICAL_WIDTH, PHYSICAL_HEIGHT,
+                PIXELS_WIDTH, PIXELS_HEIGHT, PIXELS_WIDTH, PIXELS_HEIGHT, 1000, 1000);
+
+        assertEquals(fov(PHYSICAL_HEIGHT), intrinsics.getFOVWidth(), DELTA);
+        assertEquals(fov(PHYSICAL_HEIGHT), intrinsics.getFOVHeight(), DELTA);
+    }
+
+    /*
+     * Projection
+     */
+    @Test
+    public void projectionMatrix() {
+        final CameraIntrinsics intrinsics = new CameraIntrinsics(90, 60);
+
+        final Matrix landscape = intrinsics.getProjection(1000, 500, false);
+
+        assertEquals(500, landscape.get(0, 0), DELTA);
+        assertEquals(500, landscape.get(0, 2), DELTA);
+        assertEquals(250 / Math.tan(Math.toRadians(30)), landscape.get(1, 1), DELTA);
+        assertEquals(250, landscape.get(1, 2), DELTA);
+        assertEquals(1, landscape.get(2, 2), DELTA);
+
+        final Matrix portrait = intrinsics.getProjection(500, 1000, true);
+
+        assertEquals(250 / Math.tan(Math.toRadians(30)), portrait.get(0, 0), DELTA);
+        assertEquals(500, portrait.get(1, 1), DELTA);
+    }
+
+    @Test
+    public void projectionIsReused() {
+        final CameraIntrinsics intrinsics = new CameraIntrinsics(60, 45);
+
+        final Matrix projection = intrinsics.getProjection(1080, 1920, true);
+
+        assertSame(projection, intrinsics.getProjection(1080, 1920, true));
+        assertNotSame(projection, intrinsics.getProjection(1920, 1080, false));
+    }
+
+    @Test
+    public void screenFov() {
+        final CameraIntrinsics intrinsics = new CameraIntrinsics(60, 45);
+
+        assertEquals(60, intrinsics.getScreenFOVWidth(false), 0);
+        assertEquals(45, intrinsics.getScreenFOVWidth(true), 0);
+        assertEquals(60, intrinsics.getScreenFOVHeight(true), 0);
+    }
+
+}
@@ -0,0 +1,162 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.After;
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.FastMath;
+import es.uva.tfg.hector.SkyWalkerApp.services.IndicatorClusters;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FastMath class tests, checking the approximations' error bounds.
+ * @author Hector Del Campo Pando
+ */
+public class FastMathUnitTests {
+
+    @After
+    public void tearDown() {
+        FastMath.setExact(true);
+    }
+
+    /*
+     * Fast arc tangent
+     */
+    @Test
+    public void fastAtan2ErrorIsBounded() {
+        double maxError = 0;
+
+        for (int i = 0; i < 100000; i++) {
+            final double angle = i * 2 * Math.PI / 100000 - Math.PI;
+            final double length = 0.001 + (i % 97) * 10;
+            final double y = Math.sin(angle) * length, x = Math.cos(angle) * length;
+            maxError = Math.max(maxError, Math.abs(FastMath.fastAtan2(y, x) - Math.atan2(y, x)));
+        }
+
+        assertTrue("Error " + maxError, maxError <= FastMath.ATAN2_ERROR);
+    }
+
+    @Test
+    public void fastAtan2Quadrants() {
+        assertEquals(0, FastMath.fastAtan2(0, 1), FastMath.ATAN2_ERROR);
+        assertEquals(Math.PI / 2, FastMath.fastAtan2(1, 0), FastMath.ATAN2_ERROR);
+        assertEquals(Math.PI, FastMath.fastAtan2(0, -1), FastMath.ATAN2_ERROR);
+        assertEquals(-Math.PI / 2, FastMath.fastAtan2(-1, 0), FastMath.ATAN2_ERROR);
+        assertEquals(-3 * Math.PI / 4, FastMath.fastAtan2(-1, -1), FastMath.ATAN2_ERROR);
+        assertEquals(0, FastMath.fastAtan2(0, 0), 0);
+    }
+
+    /*
+     * Fast sine and cosine
+     */
+    @Test
+    public void fastSinErrorIsBounded() {
+        double maxError = 0;
+
+        for (int i = -100000; i < 100000; i++) {
+            final double angle = i * 0.0007;
+            maxError = Math.max(maxError, Math.abs(FastMath.fastSin(angle) - Math.sin(angle)));
+        }
+
+        assertTrue("Error " + maxError, maxError <= FastMath.SIN_ERROR);
+    }
+
+    @Test
+    public void cosErrorIsBounded() {
+        FastMath.setExact(false);
+        double maxError = 0;
+
+        for (int i = -100000; i < 100000; i++) {
+            final double angle = i * 0.0007;
+            maxError = Math.max(maxError, Math.abs(FastMath.cos(angle) - Math.cos(angle)));
+        }
+
+        assertTrue("Error " + maxError, maxError <= FastMath.SIN_ERROR);
+    }
+
+    @Test
+    public void fastSinHugeAngles() {
+        assertEquals(Math.sin(1e9), FastMath.fastSin(1e9), 0);
+    }
+
+    /*
+     * Fast inverse square root
+     */
+    @Test
+    public void fastInvSqrtErrorIsBounded() {
+        double maxError = 0;
+
+        for (float value = 1e-6f; value < 1e6f; value *= 1.001f) {
+            final double exact = 1 / Math.sqrt(value);
+            maxError = Math.max(maxError, Math.abs(FastMath.fastInvSqrt(value) - exact) / exact);
+        }
+
+        assertTrue("Error " + maxError, maxError <= FastMath.INV_SQRT_ERROR);
+    }
+
+    /*
+     * Mode selection
+     */
+    @Test
+    public void exactByDefault() {
+        assertTrue(FastMath.isExact());
+        assertEquals(Math.atan2(0.3, 0.7), FastMath.atan2(0.3, 0.7), 0);
+        assertEquals(Math.sin(0.3), FastMath.sin(0.3), 0);
+    }
+
+    @Test
+    public void setExactSelectsApproximations() {
+        FastMath.setExact(false);
+
+        assertFalse(FastMath.isExact());
+        assertEquals(FastMath.fastAtan2(0.3, 0.7), FastMath.atan2(0.3, 0.7), 0);
+        assertEquals(FastMath.fastSin(0.3), FastMath.sin(0.3), 0);
+        assertEquals(FastMath.fastInvSqrt(3), FastMath.invSqrt(3), 0);
+    }
+
+    /*
+     * Callers in fast mode
+     */
+    @Test
+    public void vectorAnglesStayWithinBounds() {
+        final double degreesError = Math.toDegrees(FastMath.ATAN2_ERROR) + 1e-9;
+
+        for (int i = 0; i < 360; i += 7) {
+            final Vector2D vector = new Vector2D(Math.cos(Math.toRadians(i)), Math.sin(Math.toRadians(i)));
+            final Vector2D other = new Vector2D(0.3, -0.8);
+
+            FastMath.setExact(true);
+            final double angle = vector.angle(other), withSign = vector.angleWithSign(other);
+            final double toAxis = Vector2D.getAngle(vector.getX(), vector.getY());
+
+            FastMath.setExact(false);
+            assertEquals(angle, vector.angle(other), degreesError);
+            assertEquals(withSign, vector.angleWithSign(other), degreesError);
+            assertEquals(toAxis, Vector2D.getAngle(vector.getX(), vector.getY()), degreesError);
+        }
+    }
+
+    @Test
+    public void clustersStayWithinBounds() {
+        final IndicatorClusters exact = new IndicatorClusters(12), fast = new IndicatorClusters(12);
+
+        for (int i = 0; i < 50; i++) {
+            exact.add(i, i * 7.3, i);
+        }
+        FastMath.setExact(false);
+        for (int i = 0; i < 50; i++) {
+            fast.add(i, i * 7.3, i);
+        }
+
+        for (int bucket = 0; bucket < 12; bucket++) {
+            FastMath.setExact(true);
+            final double angle = exact.getAngle(bucket);
+            FastMath.setExact(false);
+            assertEquals(angle, fast.getAngle(bucket), 0.01);
+        }
+    }
+
+}
@@ -0,0 +1,105 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.FinderPatternScanner;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * FinderPatternScanner class tests.
+ * @author Hector Del Campo Pando
+ */
+public class FinderPatternScannerUnitTests {
+
+    private static final int WIDTH = 640, HEIGHT = 480;
+
+    private static byte[] blank() {
+        final byte[] frame = new byte[WIDTH * HEIGHT * 3 / 2];
+        for (int i = 0; i < frame.length; i++) {
+            frame[i] = (byte) 220;
+        }
+        return frame;
+    }
+
+    /**
+     * Draws a finder pattern, a dark 7x7 modules square with a light ring and a dark 3x3 center.
+     */
+    private static void drawFinder(byte[] frame, int left, int top, int module) {
+        for (int y = 0; y < 7 * module; y++) {
+            for (int x = 0; x < 7 * module; x++) {
+                final int ring = Math.min(Math.min(x, y), Math.min(7 * module - 1 - x, 7 * module - 1 - y)) / module;
+                frame[(top + y) * WIDTH + left + x] = (byte) (1 == ring ? 220 : 20);
+            }
+        }
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsNoFactor() {
+        new FinderPatternScanner(0, 0.5f);
+    }
+
+    /*
+     * Scan method
+     */
+    @Test
+    public void blankFrameHasNoCandidates() {
+        assertEquals(0, new FinderPatternScanner().scan(blank(), WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void noiseHasNoCandidates() {
+        final byte[] frame = blank();
+        final Random random = new Random(1);
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            frame[i] = (byte) (100 + random.nextInt(60));
+        }
+
+        assertEquals(0, new FinderPatternScanner().scan(frame, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void findsFinderPattern() {
+        final byte[] frame = blank();
+        drawFinder(frame, 300, 200, 6);
+
+        assertEquals(1, new FinderPatternScanner().scan(frame, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void findsQRCorners() {
+        final byte[] frame = blank();
+        drawFinder(frame, 200, 150, 4);
+        drawFinder(frame, 200 + 21 * 4, 150, 4);
+        drawFinder(frame, 200, 150 + 21 * 4, 4);
+
+        assertEquals(3, new FinderPatternScanner().scan(frame, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void ignoresOutsideCrop() {
+        final byte[] frame = blank();
+        drawFinder(frame, 5, 5, 6);
+
+        assertEquals(0, new FinderPatternScanner().scan(frame, WIDTH, HEIGHT));
+        assertEquals(1, new FinderPatternScanner(2, 1).scan(frame, WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void ignoresSolidSquare() {
+        final byte[] frame = blank();
+        for (int y = 200; y < 260; y++) {
+            for (int x = 300; x < 360; x++) {
+                frame[y * WIDTH + x] = 20;
+            }
+        }
+
+        assertEquals(0, new FinderPatternScanner().scan(frame, WIDTH, HEIGHT));
+    }
+
+}
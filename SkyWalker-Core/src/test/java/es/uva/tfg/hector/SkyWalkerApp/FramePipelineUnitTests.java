@@ -0,0 +1,181 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.FramePipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * FramePipeline class tests.
+ * @author Hector Del Campo Pando
+ */
+public class FramePipelineUnitTests {
+
+    private static byte[] frame(int width, int height, int value) {
+        final byte[] data = new byte[width * height * 3 / 2];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) value;
+        }
+        return data;
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsNoLoad() {
+        new FramePipeline(0, 0);
+    }
+
+    /*
+     * Offer and take methods
+     */
+    @Test
+    public void latestFrameWins() throws InterruptedException {
+        final FramePipeline pipeline = new FramePipeline(0, 1);
+
+        assertTrue(pipeline.offer(frame(4, 2, 1), 4, 2));
+        assertTrue(pipeline.offer(frame(4, 2, 2), 4, 2));
+        assertTrue(pipeline.offer(frame(8, 4, 3), 8, 4));
+
+        final ByteBuffer taken = pipeline.take();
+
+        assertEquals(8 * 4 * 3 / 2, taken.remaining());
+        assertEquals(3, taken.get(0));
+        assertEquals(8, pipeline.getWidth());
+        assertEquals(4, pipeline.getHeight());
+        assertEquals(3, pipeline.getFramesIn());
+    }
+
+    @Test
+    public void takenFrameIsNotOverwritten() throws InterruptedException {
+        final FramePipeline pipeline = new FramePipeline(0, 1);
+
+        pipeline.offer(frame(4, 2, 1), 4, 2);
+        final ByteBuffer taken = pipeline.take();
+        pipeline.offer(frame(4, 2, 2), 4, 2);
+
+        assertEquals(1, taken.get(0));
+    }
+
+    @Test
+    public void buffersAreReused() throws InterruptedException {
+        final FramePipeline pipeline = new FramePipeline(0, 1);
+
+        pipeline.offer(frame(4, 2, 1), 4, 2);
+        final ByteBuffer first = pipeline.take();
+        pipeline.offer(frame(4, 2, 2), 4, 2);
+        pipeline.take();
+        pipeline.offer(frame(4, 2, 3), 4, 2);
+
+        assertSame(first, pipeline.take());
+    }
+
+    @Test
+    public void takeWaitsForFrame() throws InterruptedException {
+        final FramePipeline pipeline = new FramePipeline(0, 1);
+
+        final Thread camera = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                pipeline.offer(frame(4, 2, 7), 4, 2);
+            }
+        };
+        camera.start();
+
+        assertEquals(7, pipeline.take().get(0));
+        camera.join();
+    }
+
+    @Test
+    public void takeSpacesDecodes() throws InterruptedException {
+        final long interval = 50000000L;
+        final FramePipeline pipeline = new FramePipeline(interval, 1);
+
+        pipeline.offer(frame(4, 2, 1), 4, 2);
+        final long start = System.nanoTime();
+        pipeline.take();
+        pipeline.offer(frame(4, 2, 2), 4, 2);
+        pipeline.take();
+
+        assertTrue(System.nanoTime() - start >= interval);
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void takeIsInterruptible() throws InterruptedException {
+        final FramePipeline pipeline = new FramePipeline();
+
+        Thread.currentThread().interrupt();
+        pipeline.take();
+    }
+
+    /*
+     * Decoded method
+     */
+    @Test
+    public void intervalAdaptsToDecodeTime() {
+        final FramePipeline pipeline = new FramePipeline(1000, 0.5);
+
+        assertEquals(1000, pipeline.getInterval());
+
+        pipeline.decoded(4000);
+        assertEquals(4000, pipeline.getDecodeLatency());
+        assertEquals(8000, pipeline.getInterval());
+
+        pipeline.decoded(8000);
+        assertEquals(5000, pipeline.getDecodeLatency());
+        assertEquals(10000, pipeline.getInterval());
+        assertEquals(2, pipeline.getFramesDecoded());
+    }
+
+    /*
+     * Enabled
+     */
+    @Test
+    public void disabledDropsFrames() {
+        final FramePipeline pipeline = new FramePipeline();
+
+        pipeline.offer(frame(4, 2, 1), 4, 2);
+        pipeline.setEnabled(false);
+
+        assertFalse(pipeline.isEnabled());
+        assertFalse(pipeline.offer(frame(4, 2, 2), 4, 2));
+        assertEquals(1, pipeline.getFramesIn());
+    }
+
+    @Test
+    public void disabledTakeWaitsUntilEnabled() throws InterruptedException {
+        final FramePipeline pipeline = new FramePipeline(0, 1);
+
+        pipeline.setEnabled(false);
+
+        final Thread enabler = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    sleep(50);
+                } catch (InterruptedException e) {
+                    return;
+                }
+                pipeline.setEnabled(true);
+                pipeline.offer(frame(4, 2, 5), 4, 2);
+            }
+        };
+        enabler.start();
+
+        assertEquals(5, pipeline.take().get(0));
+        enabler.join();
+    }
+
+}
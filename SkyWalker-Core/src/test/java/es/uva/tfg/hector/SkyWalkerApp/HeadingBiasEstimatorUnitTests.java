@@ -0,0 +1,159 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.HeadingBiasEstimator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * HeadingBiasEstimator class tests.
+ * @author Hector Del Campo Pando
+ */
+public class HeadingBiasEstimatorUnitTests {
+
+    private static final double DELTA = 1e-6;
+
+    private HeadingBiasEstimator estimator;
+
+    @Before
+    public void setUp() {
+        estimator = new HeadingBiasEstimator();
+    }
+
+    /**
+     * Walks a leg looking at the given angle, in degrees.
+     */
+    private void look(double degrees, int samples) {
+        final double rad = Math.toRadians(degrees);
+        for (int i = 0; i < samples; i++) {
+            estimator.addHeading(Math.cos(rad), Math.sin(rad), 0);
+        }
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsInvalidWeight() {
+        new HeadingBiasEstimator(0);
+    }
+
+    /*
+     * Add sample method
+     */
+    @Test
+    public void addSampleStartsUnbiased() {
+        assertEquals(0, estimator.getBias(), 0);
+        assertEquals(0, estimator.getWeight(), 0);
+    }
+
+    @Test
+    public void addSampleWeightedMean() {
+        estimator.addSample(10, 1);
+        estimator.addSample(20, 1);
+
+        assertEquals(15, estimator.getBias(), DELTA);
+        assertEquals(2, estimator.getWeight(), DELTA);
+    }
+
+    @Test
+    public void addSampleIsCircular() {
+        estimator.addSample(170, 1);
+        estimator.addSample(-170, 1);
+
+        assertEquals(180, Math.abs(estimator.getBias()), DELTA);
+    }
+
+    @Test
+    public void addSampleRejectsOutliersOnceReliable() {
+        estimator.addSample(5, 20);
+
+        assertFalse(estimator.addSample(90, 5));
+        assertTrue(estimator.addSample(20, 5));
+    }
+
+    @Test
+    public void addSampleForgetsOldLegs() {
+        final HeadingBiasEstimator estimator = new HeadingBiasEstimator(10);
+        estimator.addSample(0, 10);
+
+        for (int i = 0; i < 50; i++) {
+            estimator.addSample(30, 5);
+        }
+
+        assertEquals(30, estimator.getBias(), 0.01);
+        assertEquals(10, estimator.getWeight(), DELTA);
+    }
+
+    /*
+     * Set method
+     */
+    @Test
+    public void setRestoresEstimation() {
+        estimator.set(-12, 40);
+
+        assertEquals(-12, estimator.getBias(), DELTA);
+        assertEquals(40, estimator.getWeight(), DELTA);
+    }
+
+    /*
+     * End leg method
+     */
+    @Test
+    public void endLegMeasuresBias() {
+        // Walking along the X axis while the heading says 10 degrees
+        look(10, 100);
+
+        assertTrue(estimator.endLeg(1, 0, 5));
+        assertEquals(10, estimator.getBias(), DELTA);
+    }
+
+    @Test
+    public void endLegAccumulatesOverTheCurrentBias() {
+        estimator.set(10, 5);
+
+        // Once corrected, the heading still says 4 degrees too much
+        look(94, 100);
+        estimator.endLeg(0, 1, 5);
+
+        assertEquals(12, estimator.getBias(), DELTA);
+    }
+
+    @Test
+    public void endLegRejectsShortLegs() {
+        look(10, 5);
+
+        assertFalse(estimator.endLeg(1, 0, 5));
+    }
+
+    @Test
+    public void endLegRejectsLookingAround() {
+        for (int i = 0; i < 100; i++) {
+            look(i * 36, 1);
+        }
+
+        assertFalse(estimator.endLeg(1, 0, 5));
+    }
+
+    @Test
+    public void endLegIgnoresVerticalHeadings() {
+        for (int i = 0; i < 100; i++) {
+            estimator.addHeading(0.1, 0, -0.99);
+        }
+
+        assertFalse(estimator.endLeg(1, 0, 5));
+    }
+
+    @Test
+    public void endLegStartsANewLeg() {
+        look(10, 100);
+        estimator.endLeg(1, 0, 5);
+
+        assertFalse(estimator.endLeg(1, 0, 5));
+    }
+
+}
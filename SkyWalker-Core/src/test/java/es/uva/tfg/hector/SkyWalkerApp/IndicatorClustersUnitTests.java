@@ -0,0 +1,99 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.IndicatorClusters;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * IndicatorClusters class tests.
+ * @author Hector Del Campo Pando
+ */
+public class IndicatorClustersUnitTests {
+
+    private static final double DELTA = 1e-6;
+
+    private IndicatorClusters clusters;
+
+    @Before
+    public void setUp() {
+        clusters = new IndicatorClusters(12);
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsNoBuckets() {
+        new IndicatorClusters(0);
+    }
+
+    /*
+     * Add method
+     */
+    @Test
+    public void addGroupsNearDirections() {
+        clusters.add(0, 10, 5);
+        clusters.add(1, 20, 3);
+        clusters.add(2, 100, 1);
+
+        final int first = clusters.getBucket(15);
+        assertEquals(2, clusters.getCount(first));
+        assertEquals(1, clusters.getNearest(first));
+        assertEquals(15, clusters.getAngle(first), DELTA);
+
+        final int second = clusters.getBucket(100);
+        assertEquals(1, clusters.getCount(second));
+        assertEquals(2, clusters.getNearest(second));
+        assertEquals(100, clusters.getAngle(second), DELTA);
+    }
+
+    @Test
+    public void addBoundsIndicators() {
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 10000; i++) {
+            clusters.add(i, random.nextDouble() * 360, random.nextFloat());
+        }
+
+        int total = 0, nonEmpty = 0;
+        for (int i = 0; i < clusters.getBuckets(); i++) {
+            total += clusters.getCount(i);
+            if (clusters.getCount(i) > 0) {
+                nonEmpty++;
+            }
+        }
+
+        assertEquals(10000, total);
+        assertEquals(12, nonEmpty);
+    }
+
+    /*
+     * GetBucket method
+     */
+    @Test
+    public void getBucketWrapsAngles() {
+        assertEquals(0, clusters.getBucket(0));
+        assertEquals(0, clusters.getBucket(360));
+        assertEquals(11, clusters.getBucket(-1));
+        assertEquals(11, clusters.getBucket(359.999));
+    }
+
+    /*
+     * Clear method
+     */
+    @Test
+    public void clearEmptiesBuckets() {
+        clusters.add(0, 10, 5);
+        clusters.clear();
+
+        assertEquals(0, clusters.getCount(0));
+        assertEquals(IndicatorClusters.NONE, clusters.getNearest(0));
+        assertEquals(15, clusters.getAngle(0), DELTA);
+    }
+
+}
@@ -0,0 +1,135 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Random;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.LabelLayout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * LabelLayout class tests.
+ * @author Hector Del Campo Pando
+ */
+public class LabelLayoutUnitTests {
+
+    private static final int WIDTH = 1920, HEIGHT = 1080;
+    private static final float GAP = 10, LABEL_WIDTH = 200, LABEL_HEIGHT = 80;
+
+    private LabelLayout layout;
+
+    @Before
+    public void setUp() {
+        layout = new LabelLayout(GAP);
+    }
+
+    /*
+     * Place method
+     */
+    @Test
+    public void placeFreeLabelOnTheRight() {
+        layout.begin(WIDTH, HEIGHT);
+
+        assertTrue(layout.place(0, 500, 500, LABEL_WIDTH, LABEL_HEIGHT));
+        assertEquals(LabelLayout.RIGHT, layout.getCandidate());
+        assertEquals(500 + GAP, layout.getLeft(), 0);
+        assertEquals(500 - LABEL_HEIGHT / 2, layout.getTop(), 0);
+    }
+
+    @Test
+    public void placeAvoidsObstacles() {
+        layout.begin(WIDTH, HEIGHT);
+        layout.addObstacle(520, 400, 800, 600);
+
+        assertTrue(layout.place(0, 500, 500, LABEL_WIDTH, LABEL_HEIGHT));
+        assertEquals(LabelLayout.LEFT, layout.getCandidate());
+    }
+
+    @Test
+    public void placeFailsWithoutRoom() {
+        layout.begin(WIDTH, HEIGHT);
+        layout.addObstacle(0, 0, WIDTH, HEIGHT);
+
+        assertFalse(layout.place(0, 500, 500, LABEL_WIDTH, LABEL_HEIGHT));
+    }
+
+    @Test
+    public void placeNeverOverlaps() {
+        final Random random = new Random(42);
+        final float[] placed = new float[LabelLayout.DEFAULT_MAX_LABELS * 4];
+        int count = 0;
+
+        layout.begin(WIDTH, HEIGHT);
+
+        for (int i = 0; i < 500; i++) {
+            final float x = random.nextFloat() * WIDTH, y = random.nextFloat() * HEIGHT;
+
+            if (layout.place(i, x, y, LABEL_WIDTH, LABEL_HEIGHT)) {
+                placed[count * 4] = layout.getLeft();
+                placed[count * 4 + 1] = layout.getTop();
+                placed[count * 4 + 2] = layout.getLeft() + LABEL_WIDTH;
+                placed[count * 4 + 3] = layout.getTop() + LABEL_HEIGHT;
+                count++;
+            }
+        }
+
+        layout.end();
+
+        assertTrue(count > 0);
+
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count; j++) {
+                assertFalse(placed[i * 4] < placed[j * 4 + 2] && placed[j * 4] < placed[i * 4 + 2]
+                        && placed[i * 4 + 1] < placed[j * 4 + 3] && placed[j * 4 + 1] < placed[i * 4 + 3]);
+            }
+        }
+    }
+
+    @Test
+    public void placeIsBoundedPerFrame() {
+        final LabelLayout bounded = new LabelLayout(GAP, LabelLayout.DEFAULT_CELL_SIZE, 3);
+        int count = 0;
+
+        bounded.begin(WIDTH, HEIGHT);
+
+        for (int i = 0; i < 10; i++) {
+            if (bounded.place(i, 100 + i * 150, 100 + i * 90, 10, 10)) {
+                count++;
+            }
+        }
+
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void placeKeepsPreviousCandidate() {
+        // First frame, the right side is taken so the label goes to the left
+        layout.begin(WIDTH, HEIGHT);
+        layout.addObstacle(520, 400, 800, 600);
+        assertTrue(layout.place(7, 500, 500, LABEL_WIDTH, LABEL_HEIGHT));
+        assertEquals(LabelLayout.LEFT, layout.getCandidate());
+        layout.end();
+
+        // Once the right side is free the label stays where it was
+        layout.begin(WIDTH, HEIGHT);
+        assertTrue(layout.place(7, 502, 501, LABEL_WIDTH, LABEL_HEIGHT));
+        assertEquals(LabelLayout.LEFT, layout.getCandidate());
+        layout.end();
+
+        // Labels not placed on the previous frame use the default order
+        layout.begin(WIDTH, HEIGHT);
+        assertTrue(layout.place(8, 1000, 500, LABEL_WIDTH, LABEL_HEIGHT));
+        assertEquals(LabelLayout.RIGHT, layout.getCandidate());
+        layout.end();
+
+        // Memory only lasts one frame
+        layout.begin(WIDTH, HEIGHT);
+        assertTrue(layout.place(7, 500, 500, LABEL_WIDTH, LABEL_HEIGHT));
+        assertEquals(LabelLayout.RIGHT, layout.getCandidate());
+    }
+
+}
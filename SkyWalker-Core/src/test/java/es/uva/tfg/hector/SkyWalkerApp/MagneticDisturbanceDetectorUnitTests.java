@@ -0,0 +1,157 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.MagneticDisturbanceDetector;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MagneticDisturbanceDetector class tests.
+ * @author Hector Del Campo Pando
+ */
+public class MagneticDisturbanceDetectorUnitTests {
+
+    private static final double DELTA = 1e-6;
+
+    private MagneticDisturbanceDetector detector;
+
+    @Before
+    public void setUp() {
+        detector = new MagneticDisturbanceDetector();
+    }
+
+    /**
+     * Feeds a field of the given magnitude and inclination, with the device lying flat.
+     */
+    private boolean feed(double magnitude, double inclination) {
+        final double rad = Math.toRadians(inclination);
+        return detector.update(magnitude * Math.cos(rad), 0, magnitude * Math.sin(rad), 0, 0, 1);
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsInvalidTolerances() {
+        new MagneticDisturbanceDetector(0, 10);
+    }
+
+    /*
+     * Update method
+     */
+    @Test
+    public void updateMeasuresTheField() {
+        feed(45, -60);
+
+        assertEquals(45, detector.getMagnitude(), DELTA);
+        assertEquals(-60, detector.getInclination(), DELTA);
+    }
+
+    @Test
+    public void updateInclinationIndependentOfDeviceAttitude() {
+        // Device standing upright, the world's up is its Y axis
+        final double rad = Math.toRadians(-60);
+        detector.update(45 * Math.cos(rad), 45 * Math.sin(rad), 0, 0, 1, 0);
+
+        assertEquals(-60, detector.getInclination(), DELTA);
+    }
+
+    @Test
+    public void updateAcceptsStableField() {
+        for (int i = 0; i < 100; i++) {
+            assertFalse(feed(45 + (i % 3), -60 + (i % 5)));
+        }
+
+        assertFalse(detector.isDisturbed());
+    }
+
+    @Test
+    public void updateDetectsMagnitudeChanges() {
+        for (int i = 0; i < 50; i++) {
+            feed(45, -60);
+        }
+
+        assertTrue(feed(60, -60));
+        assertTrue(detector.isDisturbed());
+    }
+
+    @Test
+    public void updateDetectsInclinationChanges() {
+        for (int i = 0; i < 50; i++) {
+            feed(45, -60);
+        }
+
+        assertTrue(feed(45, -40));
+        assertTrue(detector.isDisturbed());
+    }
+
+    @Test
+    public void updateRejectsImpossibleFields() {
+        assertTrue(feed(120, -60));
+        assertTrue(detector.isDisturbed());
+    }
+
+    @Test
+    public void updateClearsAfterSomeCleanSamples() {
+        for (int i = 0; i < 50; i++) {
+            feed(45, -60);
+        }
+        feed(60, -60);
+
+        int samples = 0;
+        while (!feed(45, -60)) {
+            samples++;
+            assertTrue(detector.isDisturbed());
+        }
+
+        assertFalse(detector.isDisturbed());
+        assertTrue(samples > 5);
+    }
+
+    @Test
+    public void updateReconvergesFromDisturbedFirstSample() {
+        // Started next to steel
+        feed(60, -40);
+
+        int samples = 0;
+        feed(45, -60);
+        assertTrue(detector.isDisturbed());
+
+        while (detector.isDisturbed()) {
+            feed(45, -60);
+            assertTrue("Never re-converged", ++samples < 1000);
+        }
+
+        assertTrue(samples > 50);
+    }
+
+    @Test
+    public void updateKeepsDisturbedWhileUnsteady() {
+        for (int i = 0; i < 50; i++) {
+            feed(45, -60);
+        }
+
+        // Wandering near steel never settles on a new reference
+        for (int i = 0; i < 1000; i++) {
+            feed(i % 2 == 0 ? 60 : 30, -60);
+            assertTrue(detector.isDisturbed());
+        }
+    }
+
+    /*
+     * Reset method
+     */
+    @Test
+    public void resetForgetsReference() {
+        feed(45, -60);
+        detector.reset();
+
+        assertFalse(feed(60, -30));
+        assertFalse(detector.isDisturbed());
+    }
+
+}
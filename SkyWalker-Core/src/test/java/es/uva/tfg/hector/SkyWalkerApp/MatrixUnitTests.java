@@ -0,0 +1,211 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.Matrix;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Matrix class tests.
+ * @author Héctor Del Campo Pando
+ */
+public class MatrixUnitTests {
+
+    /*
+     * Constructors
+     */
+    @Test
+    public void constructWithData () {
+
+        final double[][] data = new double[5][5];
+        for (int i = 0; i < data.length; i++) {
+            for (int j = 0; j < data[0].length; j++) {
+                data[i][j] = 1;
+            }
+        }
+
+        final Matrix matrix = new Matrix(data);
+
+        for (int i = 0; i < data.length; i++) {
+            for (int j = 0; j < data[0].length; j++) {
+                assertEquals(data[i][j], matrix.get(i,j), 0);
+            }
+        }
+
+    }
+
+    @Test
+    public void constructEmpty () {
+
+        final int rows = 5, cols = 10;
+
+        final Matrix matrix = new Matrix(rows, cols);
+
+        assertEquals(rows, matrix.getRows());
+        assertEquals(cols, matrix.getCols());
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                assertEquals(0, matrix.get(i,j), 0);
+            }
+        }
+
+    }
+
+    /*
+     * Multiply method
+     */
+    @Test
+    public void multiply3x3 () {
+
+        final double[][] data1 = new double[][] {{1,2,3}, {4,5,6}, {7,8,9}};
+        final double[][] data2 = new double[][] {{9,8,7}, {6,5,4}, {3,2,1}};
+        final double[][] expected = new double[][] {{30,24,18}, {84,69,54}, {138,114,90}};
+
+        final Matrix m1 = new Matrix(data1);
+        final Matrix m2 = new Matrix(data2);
+
+        final Matrix result = m1.multiply(m2);
+
+        for (int i = 0; i < expected.length; i++) {
+            for (int j = 0; j < expected[0].length; j++) {
+                assertEquals(expected[i][j], result.get(i,j), 0);
+            }
+        }
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiplyInvalidSize () {
+
+        final double[][] data1 = new double[][] {{1,2,3}};
+        final double[][] data2 = new double[][] {{9,8,7}};
+
+        final Matrix m1 = new Matrix(data1);
+        final Matrix m2 = new Matrix(data2);
+
+        m1.multiply(m2);
+
+    }
+
+    /*
+     * Multiply into method
+     */
+    @Test
+    public void multiplyIntoSameAsMultiply () {
+
+        final Matrix m1 = new Matrix(new double[][] {{1,2,3}, {4,5,6}, {7,8,9}});
+        final Matrix m2 = new Matrix(new double[][] {{9,8,7}, {6,5,4}, {3,2,1}});
+        final Matrix expected = m1.multiply(m2);
+
+        m1.multiplyInto(m2, m1);
+
+        assertMatrixEquals(expected, m1);
+
+    }
+
+    @Test
+    public void multiply4x4IntoRightFactor () {
+
+        final Matrix m1 = random(4, 4, 1);
+        final Matrix m2 = random(4, 4, 2);
+        final Matrix expected = reference(m1, m2);
+
+        m1.multiplyInto(m2, m2);
+
+        assertMatrixEquals(expected, m2);
+
+    }
+
+    @Test
+    public void multiplyRectangular () {
+
+        final Matrix m1 = random(2, 5, 3);
+        final Matrix m2 = random(5, 3, 4);
+
+        assertMatrixEquals(reference(m1, m2), m1.multiply(m2));
+
+    }
+
+    @Test
+    public void multiplyBlocked () {
+
+        final Matrix m1 = random(70, 45, 5);
+        final Matrix m2 = random(45, 33, 6);
+
+        assertMatrixEquals(reference(m1, m2), m1.multiply(m2));
+
+    }
+
+    @Test
+    public void constructWithDataCopies () {
+
+        final double[][] data = new double[][] {{1, 2}};
+        final Matrix matrix = new Matrix(data);
+        data[0][0] = 5;
+
+        assertEquals(1, matrix.get(0, 0), 0);
+
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void multiplyIntoInvalidDestination () {
+
+        new Matrix(2, 3).multiplyInto(new Matrix(3, 2), new Matrix(3, 3));
+
+    }
+
+    /**
+     * Matrix filled with pseudo random values.
+     */
+    private static Matrix random (int rows, int cols, long seed) {
+
+        final java.util.Random random = new java.util.Random(seed);
+        final Matrix matrix = new Matrix(rows, cols);
+
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                matrix.set(i, j, random.nextDouble() * 2 - 1);
+            }
+        }
+
+        return matrix;
+
+    }
+
+    /**
+     * Textbook multiplication.
+     */
+    private static Matrix reference (Matrix m1, Matrix m2) {
+
+        final Matrix result = new Matrix(m1.getRows(), m2.getCols());
+
+        for (int i = 0; i < m1.getRows(); i++) {
+            for (int j = 0; j < m2.getCols(); j++) {
+                double sum = 0;
+                for (int k = 0; k < m1.getCols(); k++) {
+                    sum += m1.get(i, k) * m2.get(k, j);
+                }
+                result.set(i, j, sum);
+            }
+        }
+
+        return result;
+
+    }
+
+    private static void assertMatrixEquals (Matrix expected, Matrix actual) {
+
+        assertEquals(expected.getRows(), actual.getRows());
+        assertEquals(expected.getCols(), actual.getCols());
+
+        for (int i = 0; i < expected.getRows(); i++) {
+            for (int j = 0; j < expected.getCols(); j++) {
+                assertEquals(expected.get(i, j), actual.get(i, j), 1e-12);
+            }
+        }
+
+    }
+
+}
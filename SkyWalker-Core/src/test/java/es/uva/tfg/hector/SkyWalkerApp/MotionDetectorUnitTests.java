@@ -0,0 +1,110 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.MotionDetector;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * MotionDetector class tests.
+ * @author Hector Del Campo Pando
+ */
+public class MotionDetectorUnitTests {
+
+    private static final long SECOND = 1000000000L, SAMPLE = 20000000L;
+
+    private MotionDetector detector;
+
+    @Before
+    public void setUp() {
+        detector = new MotionDetector(0.35, 0.1, 2 * SECOND);
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsInvertedThresholds() {
+        new MotionDetector(0.1, 0.35, SECOND);
+    }
+
+    /*
+     * Update method
+     */
+    @Test
+    public void updateStartsMoving() {
+        assertTrue(detector.isMoving());
+    }
+
+    @Test
+    public void updateBecomesStillAfterTime() {
+        long t = 0;
+
+        for (; t < 2 * SECOND; t += SAMPLE) {
+            assertFalse(detector.update(t, 0.05));
+            assertTrue(detector.isMoving());
+        }
+
+        assertTrue(detector.update(t, 0.05));
+        assertFalse(detector.isMoving());
+        assertFalse(detector.update(t + SAMPLE, 0.05));
+    }
+
+    @Test
+    public void updateMovesImmediately() {
+        long t = 0;
+        for (; t <= 2 * SECOND; t += SAMPLE) {
+            detector.update(t, 0);
+        }
+        assertFalse(detector.isMoving());
+
+        assertTrue(detector.update(t, 0.5));
+        assertTrue(detector.isMoving());
+    }
+
+    @Test
+    public void updateKeepsStateBetweenThresholds() {
+        long t = 0;
+        for (; t <= 2 * SECOND; t += SAMPLE) {
+            detector.update(t, 0);
+        }
+
+        // Still stays still in the middle band
+        assertFalse(detector.update(t, 0.2));
+        assertFalse(detector.isMoving());
+    }
+
+    @Test
+    public void updateMiddleBandRestartsStillTimer() {
+        long t = 0;
+        for (; t < SECOND; t += SAMPLE) {
+            detector.update(t, 0);
+        }
+
+        detector.update(t, 0.2);
+
+        for (t += SAMPLE; t < 2.5 * SECOND; t += SAMPLE) {
+            detector.update(t, 0);
+        }
+
+        assertTrue(detector.isMoving());
+    }
+
+    /*
+     * Reset method
+     */
+    @Test
+    public void resetGoesBackToMoving() {
+        for (long t = 0; t <= 2 * SECOND; t += SAMPLE) {
+            detector.update(t, 0);
+        }
+
+        detector.reset();
+
+        assertTrue(detector.isMoving());
+    }
+
+}
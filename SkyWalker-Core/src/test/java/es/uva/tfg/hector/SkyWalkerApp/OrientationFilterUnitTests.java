@@ -0,0 +1,157 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationFilter;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * OrientationFilter class tests.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationFilterUnitTests {
+
+    private static final double DELTA = 1e-5;
+
+    /**
+     * Rotation vector of a rotation of the given degrees around an axis.
+     */
+    private static float[] rotation(double degrees, double x, double y, double z) {
+        final double half = Math.toRadians(degrees) / 2;
+        final double sin = Math.sin(half);
+        return new float[] {(float) (x*sin), (float) (y*sin), (float) (z*sin), (float) Math.cos(half)};
+    }
+
+    /*
+     * Get rotation matrix from vector method
+     */
+    @Test
+    public void rotationMatrixIdentity() {
+        final float[] matrix = new float[9];
+        OrientationFilter.getRotationMatrixFromVector(matrix, new float[] {0, 0, 0});
+        final float[] identity = new float[] {1, 0, 0, 0, 1, 0, 0, 0, 1};
+
+        for (int i = 0; i < 9; i++) {
+            assertEquals(identity[i], matrix[i], DELTA);
+        }
+    }
+
+    @Test
+    public void rotationMatrixAroundZ() {
+        final float[] matrix = new float[9];
+        OrientationFilter.getRotationMatrixFromVector(matrix, rotation(90, 0, 0, 1));
+
+        assertEquals(0, matrix[0], DELTA);
+        assertEquals(-1, matrix[1], DELTA);
+        assertEquals(1, matrix[3], DELTA);
+        assertEquals(0, matrix[4], DELTA);
+        assertEquals(1, matrix[8], DELTA);
+    }
+
+    @Test
+    public void rotationMatrixComputesScalar() {
+        final float[] full = rotation(40, 0.6, 0, 0.8);
+        final float[] partial = new float[] {full[0], full[1], full[2]};
+        final float[] expected = new float[9], actual = new float[9];
+
+        OrientationFilter.getRotationMatrixFromVector(expected, full);
+        OrientationFilter.getRotationMatrixFromVector(actual, partial);
+
+        for (int i = 0; i < 9; i++) {
+            assertEquals(expected[i], actual[i], DELTA);
+        }
+    }
+
+    /*
+     * Update method
+     */
+    @Test
+    public void updateMatchesReferencePipeline() {
+        final float north = 30;
+        final OrientationFilter filter = new OrientationFilter(north);
+        final float[] matrix = new float[9];
+        float[] previous = null;
+
+        for (int i = 0; i < 100; i++) {
+            final float[] sample = rotation(60 + i, 1, 0.2 * Math.sin(i), 0.3);
+            filter.update(sample);
+
+            // Reference, the original object based pipeline
+            OrientationFilter.getRotationMatrixFromVector(matrix, sample);
+            final float[] input = new float[] {matrix[2], matrix[5], matrix[8]};
+            if (null == previous) {
+                previous = input;
+            } else {
+                for (int j = 0; j < 3; j++) {
+                    previous[j] = previous[j] + OrientationFilter.ALPHA * (input[j] - previous[j]);
+                }
+            }
+            final Vector2D mapVector = new Vector2D(-previous[0], -previous[1]);
+            mapVector.rotateClockwise(north);
+            final Vector3D expected = new Vector3D(mapVector.getX(), mapVector.getY(), -previous[2]);
+            expected.normalize();
+
+            assertEquals(expected.getX(), filter.getX(), DELTA);
+            assertEquals(expected.getY(), filter.getY(), DELTA);
+            assertEquals(expected.getZ(), filter.getZ(), DELTA);
+        }
+    }
+
+    @Test
+    public void resetTakesNextSampleAsIs() {
+        final OrientationFilter filter = new OrientationFilter(0);
+        final float[] first = rotation(90, 1, 0, 0), second = rotation(45, 1, 0, 0);
+
+        filter.update(first);
+        filter.update(second);
+        final double filteredZ = filter.getZ();
+
+        filter.reset();
+        filter.update(second);
+
+        final OrientationFilter fresh = new OrientationFilter(0);
+        fresh.update(second);
+
+        assertEquals(fresh.getZ(), filter.getZ(), DELTA);
+        assertEquals(true, Math.abs(filteredZ - fresh.getZ()) > DELTA);
+    }
+
+    @Test
+    public void updateDoesNotAllocate() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        final long thread = Thread.currentThread().getId();
+        final OrientationFilter filter = new OrientationFilter(30);
+        final float[] sample = rotation(60, 1, 0.2, 0.3);
+
+        // Warm up, so the measure doesn't include class loading nor compilation
+        for (int i = 0; i < 20000; i++) {
+            sample[2] = (float) (0.3 * Math.sin(i));
+            filter.update(sample);
+        }
+
+        // Cost of measuring itself
+        final long calibrationStart = bean.getThreadAllocatedBytes(thread);
+        final long calibration = bean.getThreadAllocatedBytes(thread) - calibrationStart;
+
+        final long start = bean.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10000; i++) {
+            sample[2] = (float) (0.3 * Math.sin(i));
+            filter.update(sample);
+        }
+        final long allocated = bean.getThreadAllocatedBytes(thread) - start;
+
+        assertEquals(calibration, allocated);
+    }
+
+}
@@ -0,0 +1,244 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationFilter;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationPredictor;
+import es.uva.tfg.hector.SkyWalkerApp.services.QuaternionFilter;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OrientationPredictor class tests, along with a harness measuring the residual error
+ * of the prediction over a recorded trace.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationPredictorUnitTests {
+
+    private static final String TRACE = "traces/sway_near_pole.txt";
+    private static final long SAMPLE_PERIOD = 20000000L;
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Timestamps, noisy samples and ground truth, by sample.
+     */
+    private static final List<Long> timestamps = new ArrayList<>();
+    private static final List<float[]> noisy = new ArrayList<>(), truth = new ArrayList<>();
+
+    @BeforeClass
+    public static void loadTrace() throws IOException {
+        final InputStream stream =
+                OrientationPredictorUnitTests.class.getClassLoader().getResourceAsStream(TRACE);
+        assertNotNull(stream);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"))) {
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (line.startsWith("#") || line.trim().isEmpty()) {
+                    continue;
+                }
+
+                final String[] fields = line.trim().split("\\s+");
+                final float[] sample = new float[4], real = new float[4];
+                for (int i = 0; i < 4; i++) {
+                    sample[i] = Float.parseFloat(fields[1 + i]);
+                    real[i] = Float.parseFloat(fields[5 + i]);
+                }
+                timestamps.add(Long.parseLong(fields[0]));
+                noisy.add(sample);
+                truth.add(real);
+            }
+        }
+    }
+
+    /**
+     * Quaternion of a rotation of the given degrees around an axis.
+     */
+    private static double[] rotation(double degrees, double x, double y, double z) {
+        final double half = Math.toRadians(degrees) / 2;
+        final double sin = Math.sin(half);
+        return new double[] {x*sin, y*sin, z*sin, Math.cos(half)};
+    }
+
+    /**
+     * Mean angle, in degrees, between the orientation predicted some samples ahead and the real one
+     * at that time, over the samples from first to last.
+     */
+    private static double residualError(int samplesAhead, boolean predict, int first, int last) {
+        final QuaternionFilter filter = new QuaternionFilter(0);
+        final OrientationPredictor predictor = new OrientationPredictor(0);
+        final OrientationFilter reference = new OrientationFilter(0);
+        final Vector3D predicted = new Vector3D(0, 1, 0);
+        final double seconds = predict ? samplesAhead * SAMPLE_PERIOD * 1e-9 : 0;
+
+        double sum = 0;
+        int count = 0;
+
+        for (int i = 0; i + samplesAhead < noisy.size(); i++) {
+            filter.update(noisy.get(i));
+            predictor.update(timestamps.get(i), filter.getQuaternionX(), filter.getQuaternionY(),
+                    filter.getQuaternionZ(), filter.getQuaternionW());
+
+            if (i < first || i >= last) {
+                continue;
+            }
+
+            OrientationPredictor.predict(filter.getX(), filter.getY(), filter.getZ(),
+                    predictor.getVelocityX(), predictor.getVelocityY(), predictor.getVelocityZ(),
+                    seconds, predicted);
+
+            reference.reset();
+            reference.update(truth.get(i + samplesAhead));
+
+            final double dot = predicted.getX()*reference.getX() + predicted.getY()*reference.getY()
+                    + predicted.getZ()*reference.getZ();
+            sum += Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, dot / predicted.module()))));
+            count++;
+        }
+
+        return sum / count;
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsInvalidSmoothing() {
+        new OrientationPredictor(0, 0);
+    }
+
+    /*
+     * Update method
+     */
+    @Test
+    public void updateConstantRotation() {
+        final OrientationPredictor predictor = new OrientationPredictor(0, 1);
+        final double rate = 90;
+
+        for (int i = 0; i < 10; i++) {
+            final double[] q = rotation(rate * i * 0.02, 0, 0, 1);
+            predictor.update(i * SAMPLE_PERIOD, q[0], q[1], q[2], q[3]);
+        }
+
+        assertEquals(0, predictor.getVelocityX(), DELTA);
+        assertEquals(0, predictor.getVelocityY(), DELTA);
+        assertEquals(Math.toRadians(rate), predictor.getVelocityZ(), DELTA);
+    }
+
+    @Test
+    public void updateRotatesVelocityToTheMap() {
+        final OrientationPredictor predictor = new OrientationPredictor(90, 1);
+
+        for (int i = 0; i < 10; i++) {
+            final double[] q = rotation(i, 1, 0, 0);
+            predictor.update(i * SAMPLE_PERIOD, q[0], q[1], q[2], q[3]);
+        }
+
+        // A clockwise rotation of 90 degrees takes the X axis to minus Y
+        assertEquals(0, predictor.getVelocityX(), DELTA);
+        assertEquals(-Math.toRadians(50), predictor.getVelocityY(), DELTA);
+    }
+
+    @Test
+    public void updateResetsAfterGaps() {
+        final OrientationPredictor predictor = new OrientationPredictor(0, 1);
+        final double[] first = rotation(0, 0, 0, 1), second = rotation(10, 0, 0, 1);
+
+        predictor.update(0, first[0], first[1], first[2], first[3]);
+        predictor.update(1000000000L, second[0], second[1], second[2], second[3]);
+
+        assertEquals(0, predictor.getVelocityZ(), 0);
+    }
+
+    /*
+     * Prediction time method
+     */
+    @Test
+    public void predictionTimeAddsAgeAndHorizon() {
+        assertEquals(0.05, OrientationPredictor.predictionTime(1000000000L, 1020000000L, 30000000L), DELTA);
+    }
+
+    @Test
+    public void predictionTimeIsBounded() {
+        assertEquals(OrientationPredictor.MAX_PREDICTION,
+                OrientationPredictor.predictionTime(0, 500000000L, 30000000L), DELTA);
+        assertEquals(0, OrientationPredictor.predictionTime(0, 0, -30000000L), DELTA);
+    }
+
+    @Test
+    public void predictionTimeIgnoresOtherClocks() {
+        assertEquals(0.03, OrientationPredictor.predictionTime(5000000000L, 0, 30000000L), DELTA);
+        assertEquals(0.03, OrientationPredictor.predictionTime(0, 5000000000L, 30000000L), DELTA);
+    }
+
+    /*
+     * Predict method
+     */
+    @Test
+    public void predictWithoutVelocity() {
+        final Vector3D out = new Vector3D(0, 0, 0);
+        OrientationPredictor.predict(0.6, 0.8, 0, 0, 0, 0, 0.05, out);
+
+        assertEquals(0.6, out.getX(), DELTA);
+        assertEquals(0.8, out.getY(), DELTA);
+        assertEquals(0, out.getZ(), DELTA);
+    }
+
+    @Test
+    public void predictAroundVertical() {
+        final Vector3D out = new Vector3D(0, 0, 0);
+        OrientationPredictor.predict(0, 1, 0, 0, 0, Math.PI / 2, 1, out);
+
+        assertEquals(-1, out.getX(), DELTA);
+        assertEquals(0, out.getY(), DELTA);
+        assertEquals(0, out.getZ(), DELTA);
+    }
+
+    @Test
+    public void predictIgnoresSlowVelocities() {
+        final Vector3D out = new Vector3D(0, 0, 0);
+        OrientationPredictor.predict(0, 1, 0, 0, 0, OrientationPredictor.DEAD_ZONE / 2, 0.1, out);
+
+        assertEquals(0, out.getX(), DELTA);
+        assertEquals(1, out.getY(), DELTA);
+    }
+
+    /*
+     * Residual error harness
+     */
+    @Test
+    public void predictionReducesErrorWhileTurning() {
+        // The turn goes from 2 to 3 seconds, at 50 Hz
+        for (int samplesAhead = 1; samplesAhead <= 3; samplesAhead++) {
+            final double without = residualError(samplesAhead, false, 100, 150);
+            final double with = residualError(samplesAhead, true, 100, 150);
+
+            assertTrue(String.format("%d ms ahead: %.3f degrees predicting, %.3f without",
+                    samplesAhead * 20, with, without), with < without * 0.75);
+        }
+    }
+
+    @Test
+    public void predictionKeepsErrorWhileStill() {
+        // Hold, from 0.5 to 2 seconds
+        for (int samplesAhead = 1; samplesAhead <= 3; samplesAhead++) {
+            final double without = residualError(samplesAhead, false, 25, 100);
+            final double with = residualError(samplesAhead, true, 25, 100);
+
+            assertTrue(String.format("%d ms ahead: %.3f degrees predicting, %.3f without",
+                    samplesAhead * 20, with, without), with < without * 1.15);
+        }
+    }
+
+}
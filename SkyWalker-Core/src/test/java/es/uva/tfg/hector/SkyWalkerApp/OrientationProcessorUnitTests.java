@@ -0,0 +1,206 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationProcessor;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationSnapshot;
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
+import es.uva.tfg.hector.SkyWalkerApp.services.QuaternionFilter;
+import es.uva.tfg.hector.SkyWalkerApp.services.SensorSampleListener;
+import es.uva.tfg.hector.SkyWalkerApp.services.SensorTrace;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+import es.uva.tfg.hector.SkyWalkerApp.services.VisibilityPipeline;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OrientationProcessor class tests, replaying a binary sensor trace through the processor and
+ * the overlay's projection, as the App does with live samples.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationProcessorUnitTests {
+
+    private static final String TRACE = "traces/sway_near_pole.txt";
+    private static final double DELTA = 1e-9;
+
+    /**
+     * Earth's field on world coordinates, in microteslas.
+     */
+    private static final double[] FIELD = {0, 22, -40};
+
+    /**
+     * Binary trace with the noisy rotation vectors, and the Earth's field every 4 samples.
+     */
+    private static byte[] trace;
+
+    @BeforeClass
+    public static void recordTrace() throws IOException {
+        final InputStream stream =
+                OrientationProcessorUnitTests.class.getClassLoader().getResourceAsStream(TRACE);
+        assertNotNull(stream);
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"));
+             SensorTrace.Writer writer = new SensorTrace.Writer(bytes)) {
+            String line;
+            int samples = 0;
+            while (null != (line = reader.readLine())) {
+                if (line.startsWith("#") || line.trim().isEmpty()) {
+                    continue;
+                }
+
+                final String[] fields = line.trim().split("\\s+");
+                final long timestamp = Long.parseLong(fields[0]);
+                final float[] sample = new float[4];
+                final double[] real = new double[4];
+                for (int i = 0; i < 4; i++) {
+                    sample[i] = Float.parseFloat(fields[1 + i]);
+                    real[i] = Double.parseDouble(fields[5 + i]);
+                }
+
+                writer.write(SensorTrace.TYPE_ROTATION_VECTOR, timestamp, sample);
+
+                if (samples++ % 4 == 0) {
+                    writer.write(SensorTrace.TYPE_MAGNETIC_FIELD, timestamp, toDevice(real, FIELD));
+                }
+            }
+        }
+
+        trace = bytes.toByteArray();
+    }
+
+    /**
+     * Expresses a world vector on device coordinates, rotating it by the conjugate of the device's quaternion.
+     */
+    private static float[] toDevice(double[] q, double[] v) {
+        final double x = -q[0], y = -q[1], z = -q[2], w = q[3];
+
+        // v' = v + 2w(u x v) + 2u x (u x v), with u the vector part
+        final double cx = y*v[2] - z*v[1], cy = z*v[0] - x*v[2], cz = x*v[1] - y*v[0];
+
+        return new float[] {
+                (float) (v[0] + 2*w*cx + 2*(y*cz - z*cy)),
+                (float) (v[1] + 2*w*cy + 2*(z*cx - x*cz)),
+                (float) (v[2] + 2*w*cz + 2*(x*cy - y*cx))};
+    }
+
+    /**
+     * Replays the trace, returning the screen position of a set of points after every rotation sample.
+     */
+    private static float[] replayProjection(final OrientationProcessor processor) throws IOException {
+        final float[] xs = {0.6f, 0.4f, 0.5f, 0.5f, 0.55f}, ys = {0.5f, 0.5f, 0.6f, 0.4f, 0.45f};
+        final OverlayProjection projection = new OverlayProjection();
+        final VisibilityPipeline pipeline = new VisibilityPipeline(xs.length);
+        final OrientationSnapshot.Reading reading = new OrientationSnapshot.Reading();
+        final Vector3D orientation = new Vector3D(0, 1, 0);
+        final float[] screen = new float[4096];
+        final int[] count = {0};
+
+        projection.setViewport(1080, 1920, 60, 45);
+
+        SensorTrace.replay(new SensorTrace.Reader(new ByteArrayInputStream(trace)), new SensorSampleListener() {
+            @Override
+            public void onSensorSample(int type, long timestamp, float[] values) {
+                processor.onSensorSample(type, timestamp, values);
+
+                if (SensorTrace.TYPE_ROTATION_VECTOR != type) {
+                    return;
+                }
+
+                processor.read(reading);
+                orientation.set(reading.getX(), reading.getY(), reading.getZ());
+                pipeline.process(xs, ys, xs.length, 0.5f, 0.5f, 128, orientation, projection);
+
+                for (int i = 0; i < pipeline.getVisibleCount(); i++) {
+                    screen[count[0]++] = pipeline.getVisible(i);
+                    screen[count[0]++] = pipeline.getScreenX(i);
+                }
+            }
+        });
+
+        return Arrays.copyOf(screen, count[0]);
+    }
+
+    /*
+     * Replay
+     */
+    @Test
+    public void replayMatchesTheFilter() throws IOException {
+        final OrientationProcessor processor = new OrientationProcessor(30);
+        final QuaternionFilter filter = new QuaternionFilter(30);
+        final SensorTrace.Reader reader = new SensorTrace.Reader(new ByteArrayInputStream(trace));
+        final OrientationSnapshot.Reading reading = new OrientationSnapshot.Reading();
+
+        while (reader.next()) {
+            processor.onSensorSample(reader.getType(), reader.getTimestamp(), reader.getValues());
+
+            if (SensorTrace.TYPE_ROTATION_VECTOR == reader.getType()) {
+                filter.update(reader.getValues());
+                processor.read(reading);
+
+                assertEquals(reader.getTimestamp(), reading.getTimestamp());
+                assertEquals(filter.getX(), reading.getX(), DELTA);
+                assertEquals(filter.getY(), reading.getY(), DELTA);
+                assertEquals(filter.getZ(), reading.getZ(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void replayIsDeterministic() throws IOException {
+        final float[] first = replayProjection(new OrientationProcessor(0));
+        final float[] second = replayProjection(new OrientationProcessor(0));
+
+        assertTrue(first.length > 0);
+        assertArrayEquals(first, second, 0);
+    }
+
+    @Test
+    public void replayKeepsEarthFieldUndisturbed() throws IOException {
+        final OrientationProcessor processor = new OrientationProcessor(0);
+        final SensorTrace.Reader reader = new SensorTrace.Reader(new ByteArrayInputStream(trace));
+
+        while (reader.next()) {
+            processor.onSensorSample(reader.getType(), reader.getTimestamp(), reader.getValues());
+            assertFalse(processor.isDisturbed());
+        }
+    }
+
+    /*
+     * Map north
+     */
+    @Test
+    public void setMapNorthOffsetRotatesTheOrientation() throws IOException {
+        final OrientationProcessor rotated = new OrientationProcessor(0), reference = new OrientationProcessor(90);
+        final SensorTrace.Reader reader = new SensorTrace.Reader(new ByteArrayInputStream(trace));
+        final OrientationSnapshot.Reading first = new OrientationSnapshot.Reading(),
+                second = new OrientationSnapshot.Reading();
+
+        rotated.setMapNorthOffset(90);
+        SensorTrace.replay(reader, rotated);
+        reader.close();
+
+        SensorTrace.replay(new SensorTrace.Reader(new ByteArrayInputStream(trace)), reference);
+
+        rotated.read(first);
+        reference.read(second);
+
+        assertEquals(second.getX(), first.getX(), DELTA);
+        assertEquals(second.getY(), first.getY(), DELTA);
+    }
+
+}
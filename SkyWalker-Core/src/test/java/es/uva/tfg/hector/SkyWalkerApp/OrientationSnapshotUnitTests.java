@@ -0,0 +1,126 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationSnapshot;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OrientationSnapshot class tests.
+ * @author Hector Del Campo Pando
+ */
+public class OrientationSnapshotUnitTests {
+
+    private static final int WRITES = 2000000;
+    private static final int READERS = 3;
+
+    /*
+     * Read method
+     */
+    @Test
+    public void readInitialOrientation() {
+        final OrientationSnapshot snapshot = new OrientationSnapshot();
+        final OrientationSnapshot.Reading reading = new OrientationSnapshot.Reading();
+
+        snapshot.read(reading);
+
+        assertEquals(0, reading.getTimestamp());
+        assertEquals(1, reading.getY(), 0);
+        assertEquals(1, reading.getQuaternionW(), 0);
+    }
+
+    @Test
+    public void readLastPublished() {
+        final OrientationSnapshot snapshot = new OrientationSnapshot();
+        final OrientationSnapshot.Reading reading = new OrientationSnapshot.Reading();
+
+        snapshot.publish(10, 1, 2, 3, 4, 5, 6, 7, 1, 1, 1);
+        snapshot.publish(20, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17);
+        snapshot.read(reading);
+
+        assertEquals(20, reading.getTimestamp());
+        assertEquals(8, reading.getX(), 0);
+        assertEquals(9, reading.getY(), 0);
+        assertEquals(10, reading.getZ(), 0);
+        assertEquals(11, reading.getQuaternionX(), 0);
+        assertEquals(12, reading.getQuaternionY(), 0);
+        assertEquals(13, reading.getQuaternionZ(), 0);
+        assertEquals(14, reading.getQuaternionW(), 0);
+        assertEquals(15, reading.getVelocityX(), 0);
+        assertEquals(16, reading.getVelocityY(), 0);
+        assertEquals(17, reading.getVelocityZ(), 0);
+    }
+
+    /**
+     * One writer publishes tuples whose components all derive from the timestamp,
+     * readers check they never see a mix of two tuples nor go back in time.
+     */
+    @Test
+    public void readConsistentUnderContention() throws InterruptedException {
+        final OrientationSnapshot snapshot = new OrientationSnapshot();
+        final AtomicBoolean writing = new AtomicBoolean(true);
+        final AtomicReference<String> failure = new AtomicReference<>();
+        final CountDownLatch ready = new CountDownLatch(READERS);
+        final long[] reads = new long[READERS];
+
+        final Thread[] readers = new Thread[READERS];
+        for (int r = 0; r < READERS; r++) {
+            final int reader = r;
+            readers[r] = new Thread() {
+                @Override
+                public void run() {
+                    final OrientationSnapshot.Reading reading = new OrientationSnapshot.Reading();
+                    long last = 0;
+                    ready.countDown();
+
+                    while (writing.get() && null == failure.get()) {
+                        snapshot.read(reading);
+                        final long t = reading.getTimestamp();
+                        reads[reader]++;
+
+                        if (0 == t) {
+                            continue;
+                        }
+
+                        if (t < last) {
+                            failure.set("Timestamp went back from " + last + " to " + t);
+                        } else if (reading.getX() != t || reading.getY() != -t || reading.getZ() != 2*t
+                                || reading.getQuaternionX() != 3*t || reading.getQuaternionY() != -3*t
+                                || reading.getQuaternionZ() != 4*t || reading.getQuaternionW() != 0.5*t
+                                || reading.getVelocityX() != 5*t || reading.getVelocityY() != -5*t
+                                || reading.getVelocityZ() != 6*t) {
+                            failure.set("Torn read at timestamp " + t);
+                        }
+
+                        last = t;
+                    }
+                }
+            };
+            readers[r].start();
+        }
+
+        ready.await();
+
+        for (long t = 1; t <= WRITES; t++) {
+            snapshot.publish(t, t, -t, 2*t, 3*t, -3*t, 4*t, 0.5*t, 5*t, -5*t, 6*t);
+        }
+
+        writing.set(false);
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        assertNull(failure.get());
+        for (long count : reads) {
+            assertTrue(count > 0);
+        }
+    }
+
+}
@@ -0,0 +1,204 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.CameraIntrinsics;
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * OverlayProjection class tests.
+ * @author Hector Del Campo Pando
+ */
+public class OverlayProjectionUnitTests {
+
+    private static final int WIDTH = 1000, HEIGHT = 500;
+    private static final float FOV_WIDTH = 60, FOV_HEIGHT = 40;
+    private static final float DELTA = 0.01f;
+
+    private OverlayProjection projection;
+
+    @Before
+    public void setUp() {
+        projection = new OverlayProjection();
+        projection.setViewport(WIDTH, HEIGHT, FOV_WIDTH, FOV_HEIGHT);
+    }
+
+    /*
+     * Set viewport method
+     */
+    @Test
+    public void viewportFromIntrinsicsMatchesFov() {
+        final OverlayProjection fromIntrinsics = new OverlayProjection();
+        fromIntrinsics.setViewport(WIDTH, HEIGHT, new CameraIntrinsics(FOV_WIDTH, FOV_HEIGHT), false);
+
+        final Vector3D orientation = new Vector3D(0.2, 0.9, 0.1);
+        projection.setOrientation(orientation);
+        fromIntrinsics.setOrientation(orientation);
+
+        assertEquals(projection.projectX(0.3, 1), fromIntrinsics.projectX(0.3, 1), DELTA);
+        assertEquals(projection.getScreenY(), fromIntrinsics.getScreenY(), DELTA);
+        assertEquals(projection.inSight(0.6, 1, Math.hypot(0.6, 1)),
+                fromIntrinsics.inSight(0.6, 1, Math.hypot(0.6, 1)));
+    }
+
+    @Test
+    public void viewportFromIntrinsicsRotates() {
+        projection.setViewport(HEIGHT, WIDTH, new CameraIntrinsics(FOV_WIDTH, FOV_HEIGHT), true);
+        projection.setOrientation(new Vector3D(0, 1, 0));
+
+        // Edge of the horizontal field of view, which is the camera's vertical one in portrait
+        final double edge = Math.tan(Math.toRadians(FOV_HEIGHT / 2));
+        assertEquals(HEIGHT, projection.projectX(edge, 1), DELTA);
+    }
+
+    /*
+     * In sight method
+     */
+    @Test
+    public void inSightAhead() {
+        final Vector2D toPoint = new Vector2D(0, 1);
+        final Vector3D orientation = new Vector3D(0, 1, 0);
+        assertTrue(projection.inSight(toPoint, orientation));
+    }
+
+    @Test
+    public void inSightBehind() {
+        final Vector2D toPoint = new Vector2D(0, -1);
+        final Vector3D orientation = new Vector3D(0, 1, 0);
+        assertFalse(projection.inSight(toPoint, orientation));
+    }
+
+    @Test
+    public void inSightOutOfHorizontalFov() {
+        final Vector2D toPoint = new Vector2D(1, 1);
+        toPoint.normalize();
+        final Vector3D orientation = new Vector3D(0, 1, 0);
+        assertFalse(projection.inSight(toPoint, orientation));
+    }
+
+    @Test
+    public void inSightOutOfVerticalFov() {
+        final Vector2D toPoint = new Vector2D(0, 1);
+        final Vector3D orientation = new Vector3D(0, 0.5, -0.5);
+        assertFalse(projection.inSight(toPoint, orientation));
+    }
+
+    /*
+     * Project method
+     */
+    @Test
+    public void projectCenter() {
+        final float[] out = new float[2];
+        projection.project(new Vector2D(0, 1), new Vector3D(0, 1, 0), out);
+        assertEquals(WIDTH/2, out[0], DELTA);
+        assertEquals(HEIGHT/2, out[1], DELTA);
+    }
+
+    @Test
+    public void projectRight() {
+        final float[] out = new float[2];
+        final Vector2D toPoint = new Vector2D(Math.sin(Math.toRadians(15)), Math.cos(Math.toRadians(15)));
+        projection.project(toPoint, new Vector3D(0, 1, 0), out);
+        assertEquals(WIDTH/2 + Math.tan(Math.toRadians(15))/Math.tan(Math.toRadians(FOV_WIDTH/2))*WIDTH/2,
+                out[0], DELTA);
+        assertEquals(HEIGHT/2, out[1], DELTA);
+    }
+
+    @Test
+    public void projectTilted() {
+        final float[] out = new float[2];
+        // Looking 10 degrees down, the horizon goes up as a pinhole camera would show it
+        projection.project(new Vector2D(0, 1), new Vector3D(0, 1, -10.0/90), out);
+        assertEquals(HEIGHT/2 - Math.tan(Math.toRadians(10))/Math.tan(Math.toRadians(FOV_HEIGHT/2))*HEIGHT/2,
+                out[1], DELTA);
+    }
+
+    @Test
+    public void projectFovBorder() {
+        final float[] out = new float[2];
+        final double half = Math.toRadians(FOV_WIDTH/2);
+        projection.project(new Vector2D(-Math.sin(half), Math.cos(half)), new Vector3D(0, 1, 0), out);
+        assertEquals(0, out[0], DELTA);
+    }
+
+    /*
+     * Camera basis methods
+     */
+    @Test
+    public void basisMatchesSinglePointMethods() {
+        final Vector3D orientation = new Vector3D(0.3, 0.8, 0.1);
+        final float[] out = new float[2];
+
+        projection.setOrientation(orientation);
+
+        for (int i = 0; i < 360; i += 5) {
+            final double dx = 3*Math.cos(Math.toRadians(i)), dy = 3*Math.sin(Math.toRadians(i));
+            final Vector2D toPoint = new Vector2D(dx, dy);
+            toPoint.normalize();
+
+            final boolean inSight = projection.inSight(toPoint, orientation);
+            assertEquals(inSight, projection.inSight(dx, dy, 3));
+
+            if (inSight) {
+                projection.project(toPoint, orientation, out);
+                assertEquals(out[0], projection.projectX(dx, dy), DELTA);
+                assertEquals(out[1], projection.getScreenY(), DELTA);
+            }
+        }
+    }
+
+    @Test
+    public void basisLookingDown() {
+        projection.setOrientation(new Vector3D(0, 0, -1));
+        assertFalse(projection.inSight(0, 1, 1));
+    }
+
+    /*
+     * Project indicator method
+     */
+    @Test
+    public void projectIndicatorRight() {
+        final float[] out = new float[3];
+        final int edge = projection.projectIndicator(new Vector2D(1, 0), new Vector3D(0, 1, 0), out);
+        assertEquals(OverlayProjection.EDGE_RIGHT, edge);
+        assertEquals(WIDTH*OverlayProjection.MARGIN, out[0], DELTA);
+        assertEquals(HEIGHT/2, out[1], DELTA);
+        assertEquals(0, out[2], DELTA);
+    }
+
+    @Test
+    public void projectIndicatorLeft() {
+        final float[] out = new float[3];
+        final int edge = projection.projectIndicator(new Vector2D(-1, 0), new Vector3D(0, 1, 0), out);
+        assertEquals(OverlayProjection.EDGE_LEFT, edge);
+        assertEquals(WIDTH*(1 - OverlayProjection.MARGIN), out[0], DELTA);
+        assertEquals(180, out[2], DELTA);
+    }
+
+    /*
+     * Edge position method
+     */
+    @Test
+    public void edgePositionBottom() {
+        final float[] out = new float[2];
+        assertEquals(OverlayProjection.EDGE_BOTTOM, projection.edgePosition(90, out));
+        assertEquals(WIDTH/2, out[0], DELTA);
+        assertEquals(HEIGHT*OverlayProjection.MARGIN, out[1], DELTA);
+    }
+
+    @Test
+    public void edgePositionTop() {
+        final float[] out = new float[2];
+        assertEquals(OverlayProjection.EDGE_TOP, projection.edgePosition(270, out));
+        assertEquals(WIDTH/2, out[0], DELTA);
+        assertEquals(HEIGHT*(1 - OverlayProjection.MARGIN), out[1], DELTA);
+    }
+
+}
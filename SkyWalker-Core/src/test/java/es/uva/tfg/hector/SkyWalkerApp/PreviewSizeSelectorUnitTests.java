@@ -0,0 +1,72 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.PreviewSizeSelector;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * PreviewSizeSelector class tests.
+ * @author Hector Del Campo Pando
+ */
+public class PreviewSizeSelectorUnitTests {
+
+    private static final int[] WIDTHS = {1920, 1280, 1024, 640, 320}, HEIGHTS = {1080, 720, 768, 480, 240};
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsUnpairedSizes() {
+        new PreviewSizeSelector(new int[] {640}, new int[0]);
+    }
+
+    /*
+     * Select method
+     */
+    @Test
+    public void selectsExactSize() {
+        final PreviewSizeSelector selector = new PreviewSizeSelector(WIDTHS, HEIGHTS);
+
+        final int index = selector.select(768, 1024);
+
+        assertEquals(1024, selector.getWidth(index));
+        assertEquals(768, selector.getHeight(index));
+    }
+
+    @Test
+    public void selectsAspectRatio() {
+        final PreviewSizeSelector selector = new PreviewSizeSelector(WIDTHS, HEIGHTS);
+
+        final int index = selector.select(1000, 1778);
+
+        assertEquals(1920, selector.getWidth(index));
+    }
+
+    @Test
+    public void selectsClosestHeightWithoutAspectRatio() {
+        final PreviewSizeSelector selector = new PreviewSizeSelector(new int[] {800, 400}, new int[] {800, 400});
+
+        assertEquals(1, selector.select(100, 500));
+    }
+
+    @Test
+    public void selectWithoutSizes() {
+        assertEquals(-1, new PreviewSizeSelector(new int[0], new int[0]).select(480, 640));
+    }
+
+    @Test
+    public void selectIsRemembered() {
+        final int[] widths = WIDTHS.clone(), heights = HEIGHTS.clone();
+        final PreviewSizeSelector selector = new PreviewSizeSelector(widths, heights);
+
+        final int index = selector.select(768, 1024);
+        widths[index] = 0;
+
+        assertEquals(index, selector.select(768, 1024));
+        assertEquals(1024, selector.getWidth(index));
+        assertEquals(3, selector.select(480, 640));
+    }
+
+}
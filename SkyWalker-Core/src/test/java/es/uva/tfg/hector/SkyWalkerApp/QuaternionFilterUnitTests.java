@@ -0,0 +1,180 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationEstimator;
+import es.uva.tfg.hector.SkyWalkerApp.services.OrientationFilter;
+import es.uva.tfg.hector.SkyWalkerApp.services.QuaternionFilter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * QuaternionFilter class tests, against a recorded trace with its ground truth.
+ * @author Hector Del Campo Pando
+ */
+public class QuaternionFilterUnitTests {
+
+    private static final String TRACE = "traces/sway_near_pole.txt";
+    private static final int RATE = 50;
+    private static final double DELTA = 1e-6;
+
+    /**
+     * Noisy samples and ground truth, by sample.
+     */
+    private static final List<float[]> noisy = new ArrayList<>(), truth = new ArrayList<>();
+
+    @BeforeClass
+    public static void loadTrace() throws IOException {
+        final java.io.InputStream stream =
+                QuaternionFilterUnitTests.class.getClassLoader().getResourceAsStream(TRACE);
+        assertNotNull(stream);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, "UTF-8"))) {
+            String line;
+            while (null != (line = reader.readLine())) {
+                if (line.startsWith("#") || line.trim().isEmpty()) {
+                    continue;
+                }
+
+                final String[] fields = line.trim().split("\\s+");
+                final float[] sample = new float[4], real = new float[4];
+                for (int i = 0; i < 4; i++) {
+                    sample[i] = Float.parseFloat(fields[1 + i]);
+                    real[i] = Float.parseFloat(fields[5 + i]);
+                }
+                noisy.add(sample);
+                truth.add(real);
+            }
+        }
+    }
+
+    /**
+     * Angle, in degrees, between the orientation of an estimator and the real one.
+     */
+    private static double error(OrientationEstimator estimator, float[] real) {
+        final OrientationFilter reference = new OrientationFilter(0);
+        reference.update(real);
+
+        final double dot = estimator.getX()*reference.getX() + estimator.getY()*reference.getY()
+                + estimator.getZ()*reference.getZ();
+        return Math.toDegrees(Math.acos(Math.max(-1, Math.min(1, dot))));
+    }
+
+    /**
+     * Mean error of an estimator over the samples from first to last seconds.
+     */
+    private static double meanError(OrientationEstimator estimator, double first, double last) {
+        double sum = 0;
+        int count = 0;
+
+        for (int i = 0; i < noisy.size(); i++) {
+            estimator.update(noisy.get(i));
+
+            if (i >= first * RATE && i < last * RATE) {
+                sum += error(estimator, truth.get(i));
+                count++;
+            }
+        }
+
+        return sum / count;
+    }
+
+    /*
+     * Constructor
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void constructorRejectsInvalidSettings() {
+        new QuaternionFilter(0, 0.9, 0.5, 10);
+    }
+
+    /*
+     * Update method
+     */
+    @Test
+    public void updateFirstSampleAsIs() {
+        final QuaternionFilter filter = new QuaternionFilter(0);
+        filter.update(truth.get(0));
+
+        // Upright, looking to the north
+        assertEquals(0, filter.getX(), DELTA);
+        assertEquals(1, filter.getY(), DELTA);
+        assertEquals(0, filter.getZ(), DELTA);
+    }
+
+    @Test
+    public void updateMatchesMatrixDirection() {
+        final QuaternionFilter filter = new QuaternionFilter(25);
+        final OrientationFilter matrix = new OrientationFilter(25);
+
+        for (float[] sample : truth) {
+            filter.reset();
+            matrix.reset();
+            filter.update(sample);
+            matrix.update(sample);
+
+            assertEquals(matrix.getX(), filter.getX(), 1e-5);
+            assertEquals(matrix.getY(), filter.getY(), 1e-5);
+            assertEquals(matrix.getZ(), filter.getZ(), 1e-5);
+        }
+    }
+
+    @Test
+    public void updateIgnoresQuaternionSign() {
+        final QuaternionFilter filter = new QuaternionFilter(0);
+        final float[] sample = truth.get(0);
+        final float[] negated = new float[] {-sample[0], -sample[1], -sample[2], -sample[3]};
+
+        filter.update(sample);
+        filter.update(negated);
+
+        assertEquals(0, filter.getX(), DELTA);
+        assertEquals(1, filter.getY(), DELTA);
+        assertEquals(0, filter.getZ(), DELTA);
+    }
+
+    @Test
+    public void updateSmoothsJitter() {
+        final double raw = meanError(new QuaternionFilter(0, 1, 1, 10), 0.5, 2);
+        final double filtered = meanError(new QuaternionFilter(0), 0.5, 2);
+
+        assertTrue(filtered < raw * 0.6);
+    }
+
+    @Test
+    public void updateFollowsTurnsFasterThanMatrixFilter() {
+        final double quaternion = meanError(new QuaternionFilter(0), 2, 3.5);
+        final double matrix = meanError(new OrientationFilter(0), 2, 3.5);
+
+        assertTrue(quaternion < matrix);
+    }
+
+    @Test
+    public void updateStableNearPole() {
+        final QuaternionFilter filter = new QuaternionFilter(0);
+        double maxError = 0;
+
+        for (int i = 0; i < noisy.size(); i++) {
+            filter.update(noisy.get(i));
+
+            final double length = Math.sqrt(filter.getX()*filter.getX() + filter.getY()*filter.getY()
+                    + filter.getZ()*filter.getZ());
+            assertEquals(1, length, 1e-9);
+
+            if (i >= 5.5 * RATE) {
+                maxError = Math.max(maxError, error(filter, truth.get(i)));
+            }
+        }
+
+        assertTrue(maxError < 3);
+    }
+
+}
@@ -0,0 +1,107 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.RegionTracker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RegionTracker class tests.
+ * @author Hector Del Campo Pando
+ */
+public class RegionTrackerUnitTests {
+
+    private static final int WIDTH = 640, HEIGHT = 480;
+
+    /*
+     * Found method
+     */
+    @Test
+    public void foundGrowsRegion() {
+        final RegionTracker tracker = new RegionTracker(0.5f, 2);
+
+        tracker.found(200, 100, 300, 180, WIDTH, HEIGHT);
+
+        assertTrue(tracker.isTracking());
+        assertEquals(150, tracker.getLeft());
+        assertEquals(50, tracker.getTop());
+        assertEquals(200, tracker.getWidth());
+        assertEquals(180, tracker.getHeight());
+    }
+
+    @Test
+    public void foundClampsAndAligns() {
+        final RegionTracker tracker = new RegionTracker(0.5f, 2);
+
+        tracker.found(21, 31, 621, 471, WIDTH, HEIGHT);
+
+        assertEquals(0, tracker.getLeft());
+        assertEquals(0, tracker.getTop());
+        assertEquals(WIDTH, tracker.getWidth());
+        assertEquals(HEIGHT, tracker.getHeight());
+
+        tracker.found(101, 101, 150, 150, WIDTH, HEIGHT);
+
+        assertEquals(0, tracker.getLeft() % 2);
+        assertEquals(0, tracker.getWidth() % 2);
+        assertTrue(tracker.getLeft() + tracker.getWidth() <= WIDTH);
+    }
+
+    /*
+     * Missed method
+     */
+    @Test
+    public void missedDropsRegion() {
+        final RegionTracker tracker = new RegionTracker(0.5f, 2);
+
+        tracker.found(200, 100, 300, 180, WIDTH, HEIGHT);
+        tracker.missed();
+        tracker.missed();
+        assertTrue(tracker.isTracking());
+
+        tracker.missed();
+        assertFalse(tracker.isTracking());
+    }
+
+    @Test
+    public void foundResetsMisses() {
+        final RegionTracker tracker = new RegionTracker(0.5f, 1);
+
+        tracker.found(200, 100, 300, 180, WIDTH, HEIGHT);
+        tracker.missed();
+        tracker.found(200, 100, 300, 180, WIDTH, HEIGHT);
+        tracker.missed();
+
+        assertTrue(tracker.isTracking());
+    }
+
+    /*
+     * Crop method
+     */
+    @Test
+    public void cropCopiesRegion() {
+        final byte[] frame = new byte[WIDTH * HEIGHT * 3 / 2];
+        for (int i = 0; i < WIDTH * HEIGHT; i++) {
+            frame[i] = (byte) ((i % WIDTH) + (i / WIDTH));
+        }
+
+        final RegionTracker tracker = new RegionTracker(0, 0);
+        tracker.found(10, 20, 30, 50, WIDTH, HEIGHT);
+
+        final ByteBuffer region = tracker.crop(frame, WIDTH);
+
+        assertEquals(20 * 30 * 3 / 2, region.remaining());
+        for (int y = 0; y < 30; y++) {
+            for (int x = 0; x < 20; x++) {
+                assertEquals((byte) (10 + x + 20 + y), region.get(y * 20 + x));
+            }
+        }
+        assertEquals((byte) 128, region.get(20 * 30));
+    }
+
+}
@@ -0,0 +1,159 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.SensorSampleListener;
+import es.uva.tfg.hector.SkyWalkerApp.services.SensorTrace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SensorTrace class tests.
+ * @author Hector Del Campo Pando
+ */
+public class SensorTraceUnitTests {
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] record(float[]... samples) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (SensorTrace.Writer writer = new SensorTrace.Writer(bytes)) {
+            for (int i = 0; i < samples.length; i++) {
+                writer.write(samples[i].length == 3 ? SensorTrace.TYPE_MAGNETIC_FIELD
+                        : SensorTrace.TYPE_ROTATION_VECTOR, 1000L * i, samples[i]);
+            }
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /*
+     * Reader and writer
+     */
+    @Test
+    public void readerReadsWhatWasWritten() throws IOException {
+        final float[] first = {0.1f, 0.2f, 0.3f, 0.9f}, second = {20, -5, 40}, third = {-0.1f, 0, 0.5f, 0.8f};
+        final SensorTrace.Reader reader = new SensorTrace.Reader(
+                new ByteArrayInputStream(record(first, second, third)));
+
+        assertTrue(reader.next());
+        assertEquals(SensorTrace.TYPE_ROTATION_VECTOR, reader.getType());
+        assertEquals(0, reader.getTimestamp());
+        assertArrayEquals(first, reader.getValues(), 0);
+
+        assertTrue(reader.next());
+        assertEquals(SensorTrace.TYPE_MAGNETIC_FIELD, reader.getType());
+        assertEquals(1000, reader.getTimestamp());
+        assertArrayEquals(second, reader.getValues(), 0);
+
+        assertTrue(reader.next());
+        assertArrayEquals(third, reader.getValues(), 0);
+
+        assertFalse(reader.next());
+    }
+
+    @Test
+    public void readerReusesBuffers() throws IOException {
+        final SensorTrace.Reader reader = new SensorTrace.Reader(new ByteArrayInputStream(
+                record(new float[] {1, 2, 3, 4}, new float[] {5, 6, 7, 8})));
+
+        reader.next();
+        final float[] values = reader.getValues();
+        reader.next();
+
+        assertSame(values, reader.getValues());
+        assertArrayEquals(new float[] {5, 6, 7, 8}, values, 0);
+    }
+
+    @Test
+    public void recordIsCompact() throws IOException {
+        // Header, then type, count, timestamp and four floats
+        assertEquals(5 + 26, record(new float[] {1, 2, 3, 4}).length);
+    }
+
+    @Test(expected = IOException.class)
+    public void readerRejectsOtherFiles() throws IOException {
+        new SensorTrace.Reader(new ByteArrayInputStream("timestamp x y z w\n".getBytes("UTF-8")));
+    }
+
+    @Test(expected = IOException.class)
+    public void readerRejectsTruncatedTraces() throws IOException {
+        final byte[] trace = record(new float[] {1, 2, 3, 4});
+        final byte[] truncated = new byte[trace.length - 2];
+        System.arraycopy(trace, 0, truncated, 0, truncated.length);
+
+        new SensorTrace.Reader(new ByteArrayInputStream(truncated)).next();
+    }
+
+    /*
+     * Replay method
+     */
+    @Test
+    public void replayKeepsOrder() throws IOException {
+        final List<Long> timestamps = new ArrayList<>();
+        final SensorTrace.Reader reader = new SensorTrace.Reader(new ByteArrayInputStream(
+                record(new float[] {1, 2, 3, 4}, new float[] {1, 2, 3}, new float[] {1, 2, 3, 4})));
+
+        final int samples = SensorTrace.replay(reader, new SensorSampleListener() {
+            @Override
+            public void onSensorSample(int type, long timestamp, float[] values) {
+                timestamps.add(timestamp);
+            }
+        });
+
+        assertEquals(3, samples);
+        assertEquals(0, (long) timestamps.get(0));
+        assertEquals(1000, (long) timestamps.get(1));
+        assertEquals(2000, (long) timestamps.get(2));
+    }
+
+    /*
+     * Size and prune methods
+     */
+    @Test
+    public void writerCountsSize() throws IOException {
+        final SensorTrace.Writer writer = new SensorTrace.Writer(new ByteArrayOutputStream());
+        final int header = writer.getSize();
+
+        writer.write(SensorTrace.TYPE_ROTATION_VECTOR, 1, new float[] {1, 2, 3});
+
+        assertEquals(header + 1 + 1 + 8 + 3 * 4, writer.getSize());
+    }
+
+    @Test
+    public void pruneKeepsNewestTraces() throws IOException {
+        final File directory = folder.getRoot();
+        for (long start = 1000; start < 1006; start++) {
+            assertTrue(new File(directory, start + SensorTrace.EXTENSION).createNewFile());
+        }
+        assertTrue(new File(directory, "notes.txt").createNewFile());
+
+        assertEquals(3, SensorTrace.prune(directory, 3));
+
+        assertFalse(new File(directory, "1002" + SensorTrace.EXTENSION).exists());
+        assertTrue(new File(directory, "1003" + SensorTrace.EXTENSION).exists());
+        assertTrue(new File(directory, "1005" + SensorTrace.EXTENSION).exists());
+        assertTrue(new File(directory, "notes.txt").exists());
+    }
+
+    @Test
+    public void pruneMissingDirectory() {
+        assertEquals(0, SensorTrace.prune(new File(folder.getRoot(), "missing"), 3));
+    }
+
+}
@@ -0,0 +1,59 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.SpriteBatch;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * SpriteBatch class tests.
+ * @author Hector Del Campo Pando
+ */
+public class SpriteBatchUnitTests {
+
+    /*
+     * Add method
+     */
+    @Test
+    public void addStoresInstance() {
+        final SpriteBatch batch = new SpriteBatch(1);
+        batch.add(10, 20, 4, 8, 180, 0.1f, 0.2f, 0.3f, 0.4f);
+
+        final float[] data = batch.getData();
+        assertEquals(1, batch.size());
+        assertEquals(10, data[0], 0);
+        assertEquals(20, data[1], 0);
+        assertEquals(2, data[2], 0);
+        assertEquals(4, data[3], 0);
+        assertEquals(Math.PI, data[4], 0.0001);
+        assertEquals(0.1f, data[5], 0);
+        assertEquals(0.4f, data[8], 0);
+    }
+
+    @Test
+    public void addGrows() {
+        final SpriteBatch batch = new SpriteBatch(1);
+        for (int i = 0; i < 100; i++) {
+            batch.add(i, i, 1, 1, 0, 0, 0, 1, 1);
+        }
+
+        assertEquals(100, batch.size());
+        assertEquals(99, batch.getData()[99 * SpriteBatch.FLOATS_PER_SPRITE], 0);
+    }
+
+    /*
+     * Clear method
+     */
+    @Test
+    public void clearKeepsCapacity() {
+        final SpriteBatch batch = new SpriteBatch(4);
+        batch.add(1, 1, 1, 1, 0, 0, 0, 1, 1);
+        final float[] data = batch.getData();
+        batch.clear();
+
+        assertEquals(0, batch.size());
+        assertEquals(data, batch.getData());
+    }
+
+}
@@ -1,7 +1,10 @@
 package es.uva.tfg.hector.SkyWalkerApp;
 
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.lang.management.ManagementFactory;
+
 import es.uva.tfg.hector.SkyWalkerApp.services.Vector2D;
 
 import static org.junit.Assert.assertEquals;
@@ -239,4 +242,146 @@ public class Vector2DUnitTests {
         assertEquals(315 , angle, ANGLE_DELTA);
     }
 
+    /*
+     * Set method
+     */
+    @Test
+    public void set() {
+        final Vector2D vector = new Vector2D(1, 2);
+        vector.set(new Vector2D(-3, 4));
+        assertEquals(-3, vector.getX(), 0);
+        assertEquals(4, vector.getY(), 0);
+    }
+
+    /*
+     * Normalize with output method
+     */
+    @Test
+    public void normalizeInto() {
+        final Vector2D vector = new Vector2D(3, 4);
+        final Vector2D out = new Vector2D(0, 0);
+        vector.normalize(out);
+        assertEquals(0.6, out.getX(), 1e-12);
+        assertEquals(0.8, out.getY(), 1e-12);
+        assertEquals(3, vector.getX(), 0);
+        assertEquals(4, vector.getY(), 0);
+    }
+
+    /*
+     * Rotate with output method
+     */
+    @Test
+    public void rotateInto() {
+        final Vector2D vector = new Vector2D(1, 0);
+        final Vector2D out = new Vector2D(0, 0);
+        vector.rotateClockwise(90, out);
+        assertEquals(0, out.getX(), 0.001);
+        assertEquals(-1, out.getY(), 0.001);
+        assertEquals(1, vector.getX(), 0);
+    }
+
+    @Test
+    public void rotatedAngleWithSign() {
+        final Vector2D vector = new Vector2D(0, 1);
+        final Vector2D other = new Vector2D(1, 1);
+        final Vector2D rotated = new Vector2D(0, 0);
+        vector.rotateClockwise(30, rotated);
+        assertEquals(rotated.angleWithSign(other), vector.rotatedAngleWithSign(30, other), 1e-9);
+        assertEquals(15, vector.rotatedAngleWithSign(30, other), 1e-9);
+    }
+
+    /*
+     * Static kernels
+     */
+    @Test
+    public void staticDotMatchesInstance() {
+        assertEquals(new Vector2D(2, -3).dotProduct(new Vector2D(-4, 2)), Vector2D.dot(2, -3, -4, 2), 0);
+    }
+
+    @Test
+    public void normalizedDot() {
+        assertEquals(Math.cos(Math.toRadians(45)), Vector2D.normalizedDot(5, 0, 2, 2), 1e-12);
+        assertEquals(-1, Vector2D.normalizedDot(0, 3, 0, -0.5), 1e-12);
+    }
+
+    @Test
+    public void staticAngleWithSignMatchesInstance() {
+        final Vector2D vector = new Vector2D(1, 0.3);
+        final Vector2D vector2 = new Vector2D(-0.2, 1);
+        assertEquals(vector.angleWithSign(vector2), Vector2D.angleWithSign(1, 0.3, -0.2, 1), 0);
+    }
+
+    @Test
+    public void normalizeArrays() {
+        final float[] xs = {3, 0, -1}, ys = {4, 2, -1};
+        Vector2D.normalize(xs, ys, 2);
+        assertEquals(0.6f, xs[0], 1e-6);
+        assertEquals(0.8f, ys[0], 1e-6);
+        assertEquals(0, xs[1], 0);
+        assertEquals(1, ys[1], 0);
+        assertEquals(-1, xs[2], 0);
+    }
+
+    @Test
+    public void subtractArrays() {
+        final float[] xs = {1, 0.5f}, ys = {0.5f, 0.5f};
+        final double[] dxs = new double[2], dys = new double[2], lengths = new double[2];
+        Vector2D.subtract(xs, ys, 2, 0.5f, 0.5f, dxs, dys, lengths);
+        assertEquals(0.5, dxs[0], 0);
+        assertEquals(0, dys[0], 0);
+        assertEquals(0.5, lengths[0], 0);
+        assertEquals(0, lengths[1], 0);
+    }
+
+    @Test
+    public void dotArrays() {
+        final double[] xs = {1, 0, 2}, ys = {0, 1, 2}, out = new double[3];
+        Vector2D.dot(xs, ys, 3, 3, -1, out);
+        assertEquals(3, out[0], 0);
+        assertEquals(-1, out[1], 0);
+        assertEquals(4, out[2], 0);
+    }
+
+    @Test
+    public void inPlaceOperationsDoNotAllocate() {
+        Assume.assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        final com.sun.management.ThreadMXBean bean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+
+        final long thread = Thread.currentThread().getId();
+        final Vector2D vector = new Vector2D(1, 0), out = new Vector2D(0, 0);
+        final float[] xs = new float[64], ys = new float[64];
+        double sink = 0;
+
+        // Warm up, so the measure doesn't include class loading nor compilation
+        for (int i = 0; i < 20000; i++) {
+            sink += operate(vector, out, xs, ys, i);
+        }
+
+        // Cost of measuring itself
+        final long calibrationStart = bean.getThreadAllocatedBytes(thread);
+        final long calibration = bean.getThreadAllocatedBytes(thread) - calibrationStart;
+
+        final long start = bean.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < 10000; i++) {
+            sink += operate(vector, out, xs, ys, i);
+        }
+        final long allocated = bean.getThreadAllocatedBytes(thread) - start;
+
+        assertEquals(calibration, allocated);
+        assertEquals(false, Double.isNaN(sink));
+    }
+
+    private static double operate(Vector2D vector, Vector2D out, float[] xs, float[] ys, int i) {
+        vector.set(Math.cos(i), Math.sin(i));
+        vector.rotateClockwise(i, out);
+        out.normalize(out);
+        xs[i & 63] = (float) out.getX() + 2;
+        ys[i & 63] = (float) out.getY();
+        Vector2D.normalize(xs, ys, xs.length);
+        return vector.rotatedAngleWithSign(10, out) + Vector2D.normalizedDot(1, 2, out.getX(), out.getY());
+    }
+
 }
@@ -123,4 +123,78 @@ public class Vector3DUnitTests {
         final Vector3D vector = new Vector3D(0, 0, 1);
         assertEquals(1, vector.module(), 0);
     }
+
+    /*
+     * Set method
+     */
+    @Test
+    public void set() {
+        final Vector3D vector = new Vector3D(1, 2, 3);
+        vector.set(new Vector3D(-1, 0, 5));
+        assertEquals(-1, vector.getX(), 0);
+        assertEquals(0, vector.getY(), 0);
+        assertEquals(5, vector.getZ(), 0);
+    }
+
+    /*
+     * Normalize with output method
+     */
+    @Test
+    public void normalizeInto() {
+        final Vector3D vector = new Vector3D(0, 3, 4);
+        final Vector3D out = new Vector3D(0, 0, 0);
+        vector.normalize(out);
+        assertEquals(0, out.getX(), 0);
+        assertEquals(0.6, out.getY(), 1e-12);
+        assertEquals(0.8, out.getZ(), 1e-12);
+        assertEquals(3, vector.getY(), 0);
+    }
+
+    /*
+     * Cross product method
+     */
+    @Test
+    public void crossProduct() {
+        final Vector3D vector = new Vector3D(1, 0, 0);
+        final Vector3D vector2 = new Vector3D(0, 1, 0);
+        vector.crossProduct(vector2, vector);
+        assertEquals(0, vector.getX(), 0);
+        assertEquals(0, vector.getY(), 0);
+        assertEquals(1, vector.getZ(), 0);
+    }
+
+    /*
+     * Static kernels
+     */
+    @Test
+    public void staticDotMatchesInstance() {
+        assertEquals(122, Vector3D.dot(4, 8, 10, 9, 2, 7), 0);
+    }
+
+    @Test
+    public void normalizedDot() {
+        assertEquals(0, Vector3D.normalizedDot(0, 0, 2, 0, -3, 0), 0);
+        assertEquals(1 / Math.sqrt(3), Vector3D.normalizedDot(1, 1, 1, 5, 0, 0), 1e-12);
+    }
+
+    @Test
+    public void normalizeArrays() {
+        final double[] xs = {3, 0}, ys = {1, 0}, zs = {2, -2};
+        Vector3D.normalize(xs, ys, zs, 2);
+        final Vector3D expected = new Vector3D(3, 1, 2);
+        expected.normalize();
+        assertEquals(expected.getX(), xs[0], 1e-12);
+        assertEquals(expected.getY(), ys[0], 1e-12);
+        assertEquals(expected.getZ(), zs[0], 1e-12);
+        assertEquals(-1, zs[1], 0);
+    }
+
+    @Test
+    public void dotArrays() {
+        final double[] xs = {1, 0}, ys = {0, 2}, zs = {1, 1}, out = new double[2];
+        Vector3D.dot(xs, ys, zs, 2, new Vector3D(2, 3, 4), out);
+        assertEquals(6, out[0], 0);
+        assertEquals(10, out[1], 0);
+    }
+
 }
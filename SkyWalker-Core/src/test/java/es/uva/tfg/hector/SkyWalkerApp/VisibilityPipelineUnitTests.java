@@ -0,0 +1,111 @@
+package es.uva.tfg.hector.SkyWalkerApp;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import es.uva.tfg.hector.SkyWalkerApp.services.OverlayProjection;
+import es.uva.tfg.hector.SkyWalkerApp.services.Vector3D;
+import es.uva.tfg.hector.SkyWalkerApp.services.VisibilityPipeline;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * VisibilityPipeline class tests.
+ * @author Hector Del Campo Pando
+ */
+public class VisibilityPipelineUnitTests {
+
+    private static final float SCALE = 100;
+
+    private OverlayProjection projection;
+    private final Vector3D north = new Vector3D(0, 1, 0);
+
+    @Before
+    public void setUp() {
+        projection = new OverlayProjection();
+        projection.setViewport(1000, 500, 60, 40);
+    }
+
+    /*
+     * Process method
+     */
+    @Test
+    public void processSplitsInSightAndOutOfSight() {
+        final float[] xs = new float[] {0, 0, 1, -1};
+        final float[] ys = new float[] {1, -1, 0, 0};
+        final VisibilityPipeline pipeline = new VisibilityPipeline(4);
+
+        pipeline.process(xs, ys, 4, 0, 0, SCALE, north, projection);
+
+        assertEquals(1, pipeline.getVisibleCount());
+        assertEquals(0, pipeline.getVisible(0));
+        assertEquals(3, pipeline.getIndicatorCount());
+    }
+
+    @Test
+    public void processSkipsSamePosition() {
+        final VisibilityPipeline pipeline = new VisibilityPipeline(1);
+
+        pipeline.process(new float[] {0.5f}, new float[] {0.5f}, 1, 0.5f, 0.5f, SCALE, north, projection);
+
+        assertEquals(0, pipeline.getVisibleCount());
+        assertEquals(0, pipeline.getIndicatorCount());
+    }
+
+    @Test
+    public void processSortsByDistance() {
+        final float[] xs = new float[] {0, 0, 0};
+        final float[] ys = new float[] {0.5f, 0.1f, 0.3f};
+        final VisibilityPipeline pipeline = new VisibilityPipeline(3);
+
+        pipeline.process(xs, ys, 3, 0, 0, SCALE, north, projection);
+
+        assertEquals(3, pipeline.getVisibleCount());
+        assertEquals(1, pipeline.getVisible(0));
+        assertEquals(2, pipeline.getVisible(1));
+        assertEquals(0, pipeline.getVisible(2));
+        assertEquals(10, pipeline.getDistance(1), 0.001);
+    }
+
+    @Test
+    public void processAppliesBudgets() {
+        final int count = 500;
+        final float[] xs = new float[count];
+        final float[] ys = new float[count];
+
+        for (int i = 0; i < count; i++) {
+            final double angle = 2 * Math.PI * i / count;
+            xs[i] = (float) (Math.sin(angle) * (1 + i % 7));
+            ys[i] = (float) (Math.cos(angle) * (1 + i % 7));
+        }
+
+        final VisibilityPipeline pipeline = new VisibilityPipeline(0);
+        pipeline.setBudget(10);
+        pipeline.setIndicatorBudget(5);
+        pipeline.process(xs, ys, count, 0, 0, SCALE, north, projection);
+
+        assertEquals(10, pipeline.getVisibleCount());
+        assertEquals(5, pipeline.getIndicatorCount());
+        assertTrue(pipeline.getCulledCount() > 0);
+        assertEquals(count, pipeline.getVisibleCount() + pipeline.getCulledCount()
+                + pipeline.getIndicatorCount() + pipeline.getHiddenIndicatorCount());
+
+        for (int i = 1; i < pipeline.getVisibleCount(); i++) {
+            assertTrue(pipeline.getDistance(pipeline.getVisible(i - 1))
+                    <= pipeline.getDistance(pipeline.getVisible(i)));
+        }
+    }
+
+    @Test
+    public void processAssignsLevelOfDetail() {
+        final VisibilityPipeline pipeline = new VisibilityPipeline(2);
+        pipeline.setFullLabelDistance(20);
+
+        pipeline.process(new float[] {0, 0}, new float[] {0.1f, 0.5f}, 2, 0, 0, SCALE, north, projection);
+
+        assertEquals(VisibilityPipeline.LOD_FULL, pipeline.getLevel(0));
+        assertEquals(VisibilityPipeline.LOD_ICON, pipeline.getLevel(1));
+    }
+
+}